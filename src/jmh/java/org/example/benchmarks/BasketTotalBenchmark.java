@@ -0,0 +1,42 @@
+package org.example.benchmarks;
+
+import org.example.dto.ItemResponse;
+import org.example.services.BasketTotals;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original stream-based double sum with the minor-unit totalling
+ * loop used by {@code OrderService.createOrder}. Run with -prof gc to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BasketTotalBenchmark {
+
+    @Param({"3", "20"})
+    private int basketSize;
+
+    private List<ItemResponse> items;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        items = new ArrayList<>(basketSize);
+        for (int i = 0; i < basketSize; i++) {
+            items.add(new ItemResponse("item-" + i, "Item " + i, null, "restaurant-1", 1.99 + i * 0.35, "USD"));
+        }
+    }
+
+    @Benchmark
+    public double streamDoubleSum() {
+        return items.stream().mapToDouble(ItemResponse::getPrice).sum();
+    }
+
+    @Benchmark
+    public long minorUnitLoop() {
+        return BasketTotals.totalMinorUnits(items, "USD");
+    }
+}
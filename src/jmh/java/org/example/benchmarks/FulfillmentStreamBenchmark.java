@@ -0,0 +1,91 @@
+package org.example.benchmarks;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.stub.StreamObserver;
+import org.example.services.FulfillmentStream;
+import org.openjdk.jmh.annotations.*;
+import proto.Fulfillment;
+import proto.FulfillmentServiceGrpc;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares unary {@code GetOrderStatus} calls with the same call multiplexed over
+ * {@link FulfillmentStream} against a local server, with many caller threads.
+ * Sample time mode reports the p99/p99.9 latency alongside throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(32)
+public class FulfillmentStreamBenchmark {
+
+    private Server server;
+    private ManagedChannel channel;
+    private FulfillmentServiceGrpc.FulfillmentServiceBlockingStub stub;
+    private FulfillmentStream stream;
+    private Fulfillment.GetOrderStatusRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                .addService(new FulfillmentServiceGrpc.FulfillmentServiceImplBase() {
+                    @Override
+                    public void getOrderStatus(Fulfillment.GetOrderStatusRequest request,
+                                               StreamObserver<Fulfillment.GetOrderStatusResponse> responseObserver) {
+                        responseObserver.onNext(Fulfillment.GetOrderStatusResponse.newBuilder().setStatus("Pending").build());
+                        responseObserver.onCompleted();
+                    }
+
+                    @Override
+                    public StreamObserver<Fulfillment.FulfillmentEnvelope> exchange(StreamObserver<Fulfillment.FulfillmentEnvelope> replies) {
+                        return new StreamObserver<>() {
+                            @Override
+                            public void onNext(Fulfillment.FulfillmentEnvelope request) {
+                                replies.onNext(Fulfillment.FulfillmentEnvelope.newBuilder()
+                                        .setCorrelationId(request.getCorrelationId())
+                                        .setGetOrderStatusResult(Fulfillment.GetOrderStatusResponse.newBuilder().setStatus("Pending"))
+                                        .build());
+                            }
+
+                            @Override
+                            public void onError(Throwable t) {
+                            }
+
+                            @Override
+                            public void onCompleted() {
+                                replies.onCompleted();
+                            }
+                        };
+                    }
+                })
+                .build()
+                .start();
+        channel = Grpc.newChannelBuilderForAddress("localhost", server.getPort(), InsecureChannelCredentials.create()).build();
+        stub = FulfillmentServiceGrpc.newBlockingStub(channel);
+        stream = new FulfillmentStream(channel, stub, true, 5000, 1000, 1000, 3);
+        request = Fulfillment.GetOrderStatusRequest.newBuilder().setOrderId("order-1").build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        stream.destroy();
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public Fulfillment.GetOrderStatusResponse unary() {
+        return stub.getOrderStatus(request);
+    }
+
+    @Benchmark
+    public Fulfillment.GetOrderStatusResponse stream() {
+        return stream.getOrderStatus(request);
+    }
+}
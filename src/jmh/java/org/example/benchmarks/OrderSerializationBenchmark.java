@@ -0,0 +1,79 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.converters.CompactJsonApiResponseConverter;
+import org.example.converters.OrderProtoMapper;
+import org.example.dto.ApiResponse;
+import org.example.dto.OrderResponse;
+import org.example.models.Order;
+import org.example.models.OrderStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of encoding a {@code GET /orders} page as default JSON, compact
+ * JSON and protobuf. Encoded sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderSerializationBenchmark {
+
+    @Param({"10", "1000"})
+    private int orderCount;
+
+    private ApiResponse response;
+    private ObjectMapper jsonMapper;
+    private ObjectMapper compactMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<OrderResponse> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            orders.add(new OrderResponse(Order.builder()
+                    .id(UUID.randomUUID().toString())
+                    .userId("user-" + (i % 50))
+                    .items(List.of("item-" + i, "item-" + (i + 1), "item-" + (i + 2)))
+                    .totalPrice(BigDecimal.valueOf(1050L * (i % 20 + 1), 2))
+                    .currency("USD")
+                    .status(OrderStatus.PENDING)
+                    .build()));
+        }
+        response = ApiResponse.builder()
+                .message("Fetched successfully")
+                .status(HttpStatus.OK)
+                .data(Map.of("orders", orders))
+                .build();
+        jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+        compactMapper = CompactJsonApiResponseConverter.compactObjectMapper();
+
+        System.out.printf("%n[orders=%d] json=%d bytes, compact-json=%d bytes, protobuf=%d bytes%n",
+                orderCount,
+                jsonMapper.writeValueAsBytes(response).length,
+                compactMapper.writeValueAsBytes(response).length,
+                OrderProtoMapper.toEnvelope(response).toByteArray().length);
+    }
+
+    @Benchmark
+    public byte[] json() throws Exception {
+        return jsonMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] compactJson() throws Exception {
+        return compactMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] protobuf() {
+        return OrderProtoMapper.toEnvelope(response).toByteArray();
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.benchmarks;
+
+import org.example.dto.OrderResponse;
+import org.example.models.Order;
+import org.example.models.OrderStatus;
+import org.example.store.OrderSummaryStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares lookups in {@link OrderSummaryStore} with a {@code HashMap<String, OrderResponse>}
+ * holding the same orders. Bytes per order (retained heap for the map, table size
+ * for the store) are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderSummaryStoreBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int orderCount;
+
+    private UUID[] uuids;
+    private String[] ids;
+    private Map<String, OrderResponse> map;
+    private OrderSummaryStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        uuids = new UUID[orderCount];
+        ids = new String[orderCount];
+        for (int i = 0; i < orderCount; i++) {
+            uuids[i] = UUID.randomUUID();
+            ids[i] = uuids[i].toString();
+        }
+
+        long before = usedHeap();
+        map = new HashMap<>();
+        for (int i = 0; i < orderCount; i++) {
+            map.put(ids[i], new OrderResponse(order(ids[i], i)));
+        }
+        long mapBytes = usedHeap() - before;
+
+        store = new OrderSummaryStore(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            store.put(order(ids[i], i));
+        }
+
+        System.out.printf("%n[orders=%d] HashMap<String, OrderResponse>=%d bytes/order, OrderSummaryStore=%d bytes/order%n",
+                orderCount, mapBytes / orderCount, store.memoryBytes() / orderCount);
+    }
+
+    private static Order order(String id, int i) {
+        return Order.builder()
+                .id(id)
+                .userId("user-" + (i % 5000))
+                .items(List.of("item-" + i % 100, "item-" + (i + 1) % 100))
+                .totalPrice(BigDecimal.valueOf(1050L * (i % 20 + 1), 2))
+                .currency("USD")
+                .status(OrderStatus.PENDING)
+                .build();
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    @Benchmark
+    public OrderResponse hashMapGet() {
+        return map.get(ids[ThreadLocalRandom.current().nextInt(orderCount)]);
+    }
+
+    @Benchmark
+    public OrderSummaryStore.Summary storeGet() {
+        return store.get(uuids[ThreadLocalRandom.current().nextInt(orderCount)]);
+    }
+
+    @Benchmark
+    public OrderSummaryStore.Summary storeGetFromString() {
+        // Includes parsing the id, as a request handler holding the string would
+        return store.get(ids[ThreadLocalRandom.current().nextInt(orderCount)]);
+    }
+
+    @Benchmark
+    public OrderStatus storeStatus() {
+        return store.status(uuids[ThreadLocalRandom.current().nextInt(orderCount)]);
+    }
+}
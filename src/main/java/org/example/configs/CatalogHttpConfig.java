@@ -0,0 +1,53 @@
+package org.example.configs;
+
+import feign.Client;
+import feign.Request;
+import feign.http2client.Http2Client;
+import org.example.discovery.BalancedFeignClient;
+import org.example.discovery.ServiceBalancers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP engine for catalog calls. One {@link HttpClient} keeps a pool of keep-alive
+ * connections and negotiates HTTP/2 where the catalog supports it, so concurrent
+ * calls share connections instead of opening one each. With
+ * {@code order.catalog.http.engine=jdk} (the default) the Feign {@code CatalogClient}
+ * uses it too; {@code default} leaves Feign on its per-call
+ * {@code HttpURLConnection} client. {@code AsyncCatalogClient} always uses it.
+ * With discovery enabled, either engine sends each request to a balanced catalog
+ * instance.
+ */
+@Configuration
+public class CatalogHttpConfig {
+
+    @Bean
+    public HttpClient catalogHttpClient(@Value("${order.catalog.http.version:HTTP_2}") HttpClient.Version version,
+                                        @Value("${order.catalog.http.connect-timeout-ms:1000}") long connectTimeoutMs) {
+        return HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    @Bean
+    public Client feignClient(HttpClient catalogHttpClient,
+                              ServiceBalancers serviceBalancers,
+                              @Value("${order.catalog.http.engine:jdk}") String engine,
+                              @Value("${order.catalog.service-id:catalog-service}") String serviceId) {
+        Client client = "jdk".equals(engine) ? new Http2Client(catalogHttpClient) : new Client.Default(null, null);
+        return serviceBalancers.isEnabled() ? new BalancedFeignClient(client, serviceBalancers.forService(serviceId)) : client;
+    }
+
+    @Bean
+    public Request.Options feignRequestOptions(@Value("${order.catalog.http.connect-timeout-ms:1000}") long connectTimeoutMs,
+                                               @Value("${order.catalog.http.read-timeout-ms:2000}") long readTimeoutMs) {
+        return new Request.Options(connectTimeoutMs, TimeUnit.MILLISECONDS, readTimeoutMs, TimeUnit.MILLISECONDS, false);
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.configs;
+
+import org.example.sharding.ShardedLiquibase;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Liquibase is the only schema migration tool. {@code order.migrations.mode} is
+ * {@code migrate} to apply pending changesets at startup, or {@code validate} to
+ * only check that the schema is current (see the {@code migrate} profile).
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.liquibase.enabled", havingValue = "true", matchIfMissing = true)
+public class MigrationConfig {
+
+    public enum Mode {
+        MIGRATE,
+        VALIDATE
+    }
+
+    @Bean
+    public ShardedLiquibase liquibase(DataSource dataSource,
+                                      @Value("${spring.liquibase.change-log}") String changeLog,
+                                      @Value("${order.migrations.mode:migrate}") Mode mode) {
+        ShardedLiquibase liquibase = new ShardedLiquibase(dataSource);
+        liquibase.setChangeLog(changeLog);
+        liquibase.setValidateOnly(mode == Mode.VALIDATE);
+        return liquibase;
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.sharding.OrderShards;
+import org.example.sharding.ShardRebalancer;
+import org.example.sharding.ShardRoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order sharding by user id. Disabled by default, in which case a single-shard
+ * {@link OrderShards} keeps the regular datasource. When enabled, each URL in
+ * {@code order.sharding.urls} becomes one shard; users and other unsharded tables
+ * live on the first one.
+ */
+@Configuration
+public class ShardingConfig {
+    private static final Logger log = LoggerFactory.getLogger(ShardingConfig.class);
+
+    @Bean
+    public OrderShards orderShards(@Value("${order.sharding.enabled:false}") boolean enabled,
+                                   @Value("${order.sharding.urls:}") List<String> urls) {
+        if (!enabled) {
+            return OrderShards.single();
+        }
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("order.sharding.urls must list at least one datasource");
+        }
+        return new OrderShards(urls.size());
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "order.sharding.enabled", havingValue = "true")
+    public ShardRoutingDataSource dataSource(@Value("${order.sharding.urls}") List<String> urls,
+                                             @Value("${order.sharding.username:${spring.datasource.username}}") String username,
+                                             @Value("${order.sharding.password:${spring.datasource.password}}") String password,
+                                             @Value("${order.sharding.pool-size:10}") int poolSize) {
+        Map<Object, Object> shards = new LinkedHashMap<>();
+        for (int shard = 0; shard < urls.size(); shard++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(shard))
+                    .username(username)
+                    .password(password)
+                    .build();
+            dataSource.setPoolName("order-shard-" + shard);
+            dataSource.setMaximumPoolSize(poolSize);
+            shards.put(shard, dataSource);
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(shards);
+        routing.setDefaultTargetDataSource(shards.get(0));
+        return routing;
+    }
+
+    /**
+     * One-shot rebalancing: start with {@code --order.sharding.rebalance=true} after
+     * changing {@code order.sharding.urls}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = {"order.sharding.enabled", "order.sharding.rebalance"}, havingValue = "true")
+    public ApplicationRunner shardRebalanceRunner(OrderShards orderShards, ShardRoutingDataSource dataSource,
+                                                  @Value("${order.sharding.rebalance-batch-size:500}") int batchSize) {
+        return args -> {
+            long moved = new ShardRebalancer(orderShards, dataSource).rebalance(batchSize);
+            log.info("Shard rebalance moved {} orders across {} shards", moved, orderShards.count());
+        };
+    }
+}
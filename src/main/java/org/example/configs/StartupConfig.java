@@ -0,0 +1,38 @@
+package org.example.configs;
+
+import org.example.services.OrderArchiver;
+import org.example.services.OrderReadModel;
+import org.example.services.OrderService;
+import org.example.services.OrderWriteAheadLog;
+import org.example.services.StatusWriteBuffer;
+import org.example.sharding.ShardedLiquibase;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Beans that start work at boot (migrations, WAL draining, journal recovery,
+     * scheduled archiving, read model loading) stay eager under lazy initialization.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerOrderBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(ShardedLiquibase.class, OrderService.class, OrderArchiver.class,
+                StatusWriteBuffer.class, OrderWriteAheadLog.class, OrderReadModel.class);
+    }
+
+    /**
+     * Training runs for the class-data-sharing archive exit once started.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "order.startup.exit-on-ready", havingValue = "true")
+    public ApplicationListener<ApplicationReadyEvent> exitOnReady() {
+        return event -> System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.configs;
+
+import org.example.converters.CompactJsonApiResponseConverter;
+import org.example.converters.ProtobufApiResponseConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Ahead of the default Jackson converter, which also claims application/*+json
+        converters.add(0, new ProtobufApiResponseConverter());
+        converters.add(0, new CompactJsonApiResponseConverter());
+    }
+}
@@ -2,9 +2,12 @@ package org.example.constants;
 
 public class Constants {
     public static final String ORDER_CREATED = "Order created successfully";
+    public static final String ORDER_ACCEPTED = "Order accepted";
     public static final String FETCHED = "Fetched successfully";
     public static final String ORDER_DELETED = "Order deleted successfully";
     public static final String ORDER_UPDATED = "Order status updated successfully";
     public static final String USER_CREATED = "User created successfully";
     public static final String LOGIN_SUCCESS = "Login successful";
+    public static final String PROTOBUF_VALUE = "application/x-protobuf";
+    public static final String COMPACT_JSON_VALUE = "application/vnd.order-service.compact+json";
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package org.example.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.example.repositories.CachingCatalogClient;
+import org.example.services.CatalogPriceSnapshots;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Change notifications from the catalog service.
+ */
+@RestController
+@RequestMapping("/catalog")
+@RequiredArgsConstructor
+public class CatalogEventsController {
+
+    private final CatalogPriceSnapshots catalogPriceSnapshots;
+    private final CachingCatalogClient cachingCatalogClient;
+
+    @PostMapping("/restaurants/{restaurantId}/price-changes")
+    public ResponseEntity<Void> priceChanged(@PathVariable String restaurantId) {
+        cachingCatalogClient.evictRestaurant(restaurantId);
+        catalogPriceSnapshots.priceChanged(restaurantId);
+        return ResponseEntity.noContent().build();
+    }
+}
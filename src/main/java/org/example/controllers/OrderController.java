@@ -3,30 +3,39 @@ package org.example.controllers;
 import lombok.RequiredArgsConstructor;
 import org.example.dto.ApiResponse;
 import org.example.dto.OrderRequest;
+import org.example.limits.OrderRateLimiter;
 import org.example.services.OrderService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import static org.example.constants.Constants.COMPACT_JSON_VALUE;
+import static org.example.constants.Constants.PROTOBUF_VALUE;
+
 @RestController
-@RequestMapping("/orders")
+@RequestMapping(value = "/orders", produces = {MediaType.APPLICATION_JSON_VALUE, PROTOBUF_VALUE, COMPACT_JSON_VALUE})
 @RequiredArgsConstructor
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderRateLimiter orderRateLimiter;
 
     @PostMapping
     public ResponseEntity<ApiResponse> createOrder(@RequestBody OrderRequest orderRequest) {
+        orderRateLimiter.acquire(orderRequest.getUserId());
         return orderService.createOrder(orderRequest);
     }
 
     @GetMapping("/{orderId}")
-    public ResponseEntity<ApiResponse> getOrderById(@PathVariable String orderId) {
-        return orderService.getOrderById(orderId);
+    public ResponseEntity<ApiResponse> getOrderById(@PathVariable String orderId,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return orderService.getOrderById(orderId, ifNoneMatch);
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse> getAllOrders() {
-        return orderService.getAllOrders();
+    public ResponseEntity<ApiResponse> getAllOrders(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return orderService.getAllOrders(ifNoneMatch);
     }
 
     @PutMapping("/{orderId}")
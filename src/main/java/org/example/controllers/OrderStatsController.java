@@ -0,0 +1,40 @@
+package org.example.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.example.dto.ApiResponse;
+import org.example.services.OrderRollupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@RestController
+@RequestMapping(value = "/orders/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequiredArgsConstructor
+public class OrderStatsController {
+
+    private final OrderRollupService orderRollupService;
+
+    @GetMapping("/status")
+    public ResponseEntity<ApiResponse> getStatusBreakdown(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return orderRollupService.getStatusBreakdown(from, to);
+    }
+
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<ApiResponse> getUserTotals(@PathVariable String userId,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return orderRollupService.getUserTotals(userId, from, to);
+    }
+
+    @GetMapping("/timeline")
+    public ResponseEntity<ApiResponse> getTimeline(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                   @RequestParam(defaultValue = "HOURS") ChronoUnit granularity) {
+        return orderRollupService.getTimeline(from, to, granularity);
+    }
+}
@@ -2,13 +2,18 @@ package org.example.controllers;
 
 import lombok.RequiredArgsConstructor;
 import org.example.dto.ApiResponse;
+import org.example.dto.OrderHistoryQuery;
 import org.example.dto.UserRequest;
 import org.example.exceptions.InvalidUsernameAndPasswordException;
 import org.example.services.UserService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+
 @RestController
 @RequestMapping("/users")
 @RequiredArgsConstructor
@@ -31,8 +36,32 @@ public class UserController {
     }
 
     @GetMapping("/{userId}/orders/{orderId}")
-    public ResponseEntity<ApiResponse> getOrdersByUserId(@PathVariable String userId) {
-        return userService.getOrdersByUserId(userId);
+    public ResponseEntity<ApiResponse> getOrdersByUserId(@PathVariable String userId,
+                                                         @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return userService.getOrdersByUserId(userId, includeArchived);
+    }
+
+    @GetMapping("/{userId}/orders")
+    public ResponseEntity<ApiResponse> getOrderHistory(@PathVariable String userId,
+                                                       @RequestParam(required = false) String status,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "20") int limit,
+                                                       @RequestParam(defaultValue = "false") boolean includeItems,
+                                                       @RequestParam(defaultValue = "false") boolean includeArchived,
+                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        OrderHistoryQuery query = OrderHistoryQuery.builder()
+                .status(status)
+                .from(from)
+                .to(to)
+                .cursor(cursor)
+                .limit(limit)
+                .includeItems(includeItems)
+                .includeArchived(includeArchived)
+                .ifNoneMatch(ifNoneMatch)
+                .build();
+        return userService.getOrderHistory(userId, query);
     }
 
     @PostMapping("/login")
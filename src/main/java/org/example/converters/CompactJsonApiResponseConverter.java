@@ -0,0 +1,96 @@
+package org.example.converters;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.ApiResponse;
+import org.example.dto.OrderResponse;
+import org.example.dto.OrderSummary;
+import org.example.models.OrderStatus;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.example.constants.Constants.COMPACT_JSON_VALUE;
+
+/**
+ * JSON variant for internal consumers that drops the envelope timestamp, empty
+ * values and uses short property names for order payloads.
+ */
+public class CompactJsonApiResponseConverter extends MappingJackson2HttpMessageConverter {
+
+    public static final MediaType COMPACT_JSON = MediaType.parseMediaType(COMPACT_JSON_VALUE);
+
+    public CompactJsonApiResponseConverter() {
+        super(compactObjectMapper());
+        setSupportedMediaTypes(List.of(COMPACT_JSON));
+    }
+
+    public static ObjectMapper compactObjectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .serializationInclusion(JsonInclude.Include.NON_EMPTY)
+                .mixIn(ApiResponse.class, ApiResponseMixin.class)
+                .mixIn(OrderResponse.class, OrderResponseMixin.class)
+                .mixIn(OrderSummary.class, OrderSummaryMixin.class)
+                .build();
+    }
+
+    abstract static class ApiResponseMixin {
+        @JsonProperty("m")
+        abstract String getMessage();
+
+        @JsonProperty("s")
+        abstract HttpStatus getStatus();
+
+        @JsonProperty("d")
+        abstract Map<?, ?> getData();
+
+        @JsonIgnore
+        abstract LocalDate getTimestamp();
+    }
+
+    abstract static class OrderResponseMixin {
+        @JsonProperty("i")
+        abstract String getId();
+
+        @JsonProperty("u")
+        abstract String getUserId();
+
+        @JsonProperty("it")
+        abstract List<String> getItems();
+
+        @JsonProperty("t")
+        abstract BigDecimal getTotalPrice();
+
+        @JsonProperty("c")
+        abstract String getCurrency();
+
+        @JsonProperty("s")
+        abstract String getStatus();
+    }
+
+    abstract static class OrderSummaryMixin {
+        @JsonProperty("i")
+        abstract String getId();
+
+        @JsonProperty("s")
+        abstract OrderStatus getStatus();
+
+        @JsonProperty("t")
+        abstract BigDecimal getTotalPrice();
+
+        @JsonProperty("n")
+        abstract Integer getItemCount();
+
+        @JsonProperty("c")
+        abstract LocalDateTime getCreatedAt();
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.converters;
+
+import org.example.dto.ApiResponse;
+import org.example.dto.OrderResponse;
+import org.example.dto.OrderSummary;
+import org.example.models.Money;
+import proto.OrderPayloads;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Maps the order payloads carried inside an {@link ApiResponse} onto the protobuf
+ * messages from {@code order_payloads.proto}.
+ */
+public final class OrderProtoMapper {
+
+    private OrderProtoMapper() {
+    }
+
+    public static OrderPayloads.OrderEnvelope toEnvelope(ApiResponse response) {
+        OrderPayloads.OrderEnvelope.Builder builder = OrderPayloads.OrderEnvelope.newBuilder();
+        if (response.getMessage() != null) {
+            builder.setMessage(response.getMessage());
+        }
+        if (response.getStatus() != null) {
+            builder.setStatus(response.getStatus().value());
+        }
+        Map<?, ?> data = response.getData();
+        if (data == null) {
+            return builder.build();
+        }
+        Object order = data.get("order");
+        if (order != null) {
+            builder.setOrder(toPayload(order));
+        }
+        if (data.get("orders") instanceof Collection<?> orders) {
+            OrderPayloads.OrderListPayload.Builder list = OrderPayloads.OrderListPayload.newBuilder();
+            for (Object item : orders) {
+                list.addOrders(toPayload(item));
+            }
+            Object nextCursor = data.get("nextCursor");
+            if (nextCursor != null) {
+                list.setNextCursor(nextCursor.toString());
+            }
+            builder.setOrders(list);
+        }
+        return builder.build();
+    }
+
+    public static OrderPayloads.OrderPayload toPayload(Object value) {
+        OrderPayloads.OrderPayload.Builder builder = OrderPayloads.OrderPayload.newBuilder();
+        if (value instanceof OrderResponse order) {
+            setIfPresent(order.getId(), builder::setId);
+            setIfPresent(order.getUserId(), builder::setUserId);
+            setIfPresent(order.getStatus(), builder::setStatus);
+            if (order.getTotalPrice() != null) {
+                String currency = order.getCurrency() != null ? order.getCurrency() : Money.DEFAULT_CURRENCY;
+                builder.setTotalPrice(order.getTotalPrice().doubleValue())
+                        .setTotalPriceMinor(Money.toMinorUnits(order.getTotalPrice(), currency))
+                        .setCurrency(currency);
+            }
+            if (order.getItems() != null) {
+                builder.addAllItems(order.getItems());
+                builder.setItemCount(order.getItems().size());
+            }
+            return builder.build();
+        }
+        if (value instanceof OrderSummary summary) {
+            setIfPresent(summary.getId(), builder::setId);
+            if (summary.getStatus() != null) {
+                builder.setStatus(summary.getStatus().getLabel());
+            }
+            if (summary.getTotalPrice() != null) {
+                builder.setTotalPrice(summary.getTotalPrice().doubleValue());
+            }
+            if (summary.getItemCount() != null) {
+                builder.setItemCount(summary.getItemCount());
+            }
+            return builder.build();
+        }
+        throw new IllegalArgumentException("Unsupported payload type: " + value.getClass().getName());
+    }
+
+    private static void setIfPresent(String value, Consumer<String> setter) {
+        if (value != null) {
+            setter.accept(value);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.converters;
+
+import org.example.dto.ApiResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+
+import static org.example.constants.Constants.PROTOBUF_VALUE;
+
+/**
+ * Writes order {@link ApiResponse}s as {@code OrderEnvelope} protobuf messages for
+ * internal callers sending {@code Accept: application/x-protobuf}. The generated
+ * classes are protobuf-lite, so Spring's {@code ProtobufHttpMessageConverter} cannot be used.
+ */
+public class ProtobufApiResponseConverter extends AbstractHttpMessageConverter<ApiResponse> {
+
+    public static final MediaType PROTOBUF = MediaType.parseMediaType(PROTOBUF_VALUE);
+
+    public ProtobufApiResponseConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ApiResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ApiResponse readInternal(Class<? extends ApiResponse> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reading protobuf requests is not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(ApiResponse response, HttpOutputMessage outputMessage) throws IOException {
+        byte[] body;
+        try {
+            body = OrderProtoMapper.toEnvelope(response).toByteArray();
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotWritableException(e.getMessage(), e);
+        }
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+}
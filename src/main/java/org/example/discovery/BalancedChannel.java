@@ -0,0 +1,121 @@
+package org.example.discovery;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * gRPC channel that starts each call on the instance picked by a
+ * {@link ServiceBalancer}, over one plaintext connection per instance, and reports
+ * how the call ended: {@code UNAVAILABLE}, {@code DEADLINE_EXCEEDED},
+ * {@code RESOURCE_EXHAUSTED} and {@code INTERNAL} count as failures, cancelled
+ * calls are not judged, and any other status counts as an answer. A stream stays
+ * on the instance it started on. The registry's port is the instance's HTTP port,
+ * so the gRPC port is read from the instance's {@code portMetadataKey} metadata
+ * (Eureka's {@code gRPC_port} convention), else {@code defaultPort} is used.
+ * Connections to instances that leave the registry are shut down; without any
+ * registered instance calls use the fallback channel.
+ */
+public class BalancedChannel extends Channel {
+
+    private static final Set<Status.Code> FAILURES = Set.of(Status.Code.UNAVAILABLE, Status.Code.DEADLINE_EXCEEDED,
+            Status.Code.RESOURCE_EXHAUSTED, Status.Code.INTERNAL);
+
+    private final ServiceBalancer balancer;
+    private final ManagedChannel fallback;
+    private final String portMetadataKey;
+    private final int defaultPort;
+    private final Map<String, ManagedChannel> channels = new ConcurrentHashMap<>();
+
+    public BalancedChannel(ServiceBalancer balancer, ManagedChannel fallback, String portMetadataKey, int defaultPort) {
+        this.balancer = balancer;
+        this.fallback = fallback;
+        this.portMetadataKey = portMetadataKey;
+        this.defaultPort = defaultPort;
+        balancer.addListener(this::closeRemoved);
+    }
+
+    @Override
+    public <Q, R> ClientCall<Q, R> newCall(MethodDescriptor<Q, R> method, CallOptions callOptions) {
+        ServiceBalancer.Endpoint endpoint = balancer.choose();
+        if (endpoint == null) {
+            return fallback.newCall(method, callOptions);
+        }
+        int port = grpcPort(endpoint);
+        ManagedChannel channel = channels.computeIfAbsent(endpoint.uri().getHost() + ":" + port, authority -> ManagedChannelBuilder
+                .forAddress(endpoint.uri().getHost(), port)
+                .usePlaintext()
+                .build());
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(channel.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<R> responseListener, Metadata headers) {
+                // Counted from start, since only started calls are guaranteed an onClose
+                endpoint.started();
+                long start = System.nanoTime();
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        if (status.getCode() == Status.Code.CANCELLED) {
+                            // Cancelled by us (e.g. a losing hedge); says nothing about the instance
+                            endpoint.abandoned();
+                        } else if (FAILURES.contains(status.getCode())) {
+                            endpoint.failed(System.nanoTime() - start);
+                        } else {
+                            endpoint.succeeded(System.nanoTime() - start);
+                        }
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    @Override
+    public String authority() {
+        return fallback.authority();
+    }
+
+    private int grpcPort(ServiceBalancer.Endpoint endpoint) {
+        String port = endpoint.metadata().get(portMetadataKey);
+        if (port != null) {
+            try {
+                return Integer.parseInt(port.trim());
+            } catch (NumberFormatException e) {
+                // Fall through to the configured port
+            }
+        }
+        return defaultPort;
+    }
+
+    private void closeRemoved() {
+        Set<String> registered = new HashSet<>();
+        for (ServiceBalancer.Endpoint endpoint : balancer.endpoints()) {
+            registered.add(endpoint.uri().getHost() + ":" + grpcPort(endpoint));
+        }
+        channels.entrySet().removeIf(entry -> {
+            if (registered.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().shutdown();
+            return true;
+        });
+    }
+
+    /** Shuts down the per-instance connections; the fallback channel is its own bean. */
+    public void shutdown() {
+        channels.values().forEach(ManagedChannel::shutdown);
+        channels.clear();
+    }
+}
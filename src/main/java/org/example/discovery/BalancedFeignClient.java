@@ -0,0 +1,50 @@
+package org.example.discovery;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Feign engine decorator that sends each request to the instance picked by a
+ * {@link ServiceBalancer}, keeping the configured URL's path and query, and reports
+ * the outcome back: I/O errors and 5xx responses count as failures. Without any
+ * registered instance the request goes to the configured URL.
+ */
+public class BalancedFeignClient implements Client {
+
+    private final Client delegate;
+    private final ServiceBalancer balancer;
+
+    public BalancedFeignClient(Client delegate, ServiceBalancer balancer) {
+        this.delegate = delegate;
+        this.balancer = balancer;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        ServiceBalancer.Endpoint endpoint = balancer.choose();
+        if (endpoint == null) {
+            return delegate.execute(request, options);
+        }
+        Request routed = Request.create(request.httpMethod(), endpoint.resolve(URI.create(request.url())).toString(),
+                request.headers(), request.body(), request.charset(), request.requestTemplate());
+        endpoint.started();
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = delegate.execute(routed, options);
+        } catch (IOException | RuntimeException e) {
+            endpoint.failed(System.nanoTime() - start);
+            throw e;
+        }
+        if (response.status() >= 500) {
+            endpoint.failed(System.nanoTime() - start);
+        } else {
+            endpoint.succeeded(System.nanoTime() - start);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,208 @@
+package org.example.discovery;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side balancer over the registered instances of one service, using power
+ * of two choices: two random instances are compared and the one with the lower
+ * {@code (outstanding + 1) * average latency} is picked, so slow or busy replicas
+ * get less traffic without every caller converging on the same one. Callers report
+ * each request's outcome. A failure counts as {@code FAILURE_PENALTY} times the
+ * instance's average latency, or its own if longer, so an instance that fails fast
+ * does not look fast; after {@code ejectAfterFailures} consecutive failures an
+ * instance is skipped for {@code ejectNanos}, then tried again. If every instance
+ * is ejected, they are all considered anyway rather than failing outright.
+ */
+public final class ServiceBalancer {
+
+    private static final double LATENCY_WEIGHT = 0.2;
+    private static final double FAILURE_PENALTY = 4;
+    private static final int CHOICES = 2;
+
+    private final String serviceId;
+    private final int ejectAfterFailures;
+    private final long ejectNanos;
+    private final LongSupplier nanoClock;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private volatile List<Endpoint> endpoints = List.of();
+
+    public ServiceBalancer(String serviceId, int ejectAfterFailures, long ejectNanos, LongSupplier nanoClock) {
+        this.serviceId = serviceId;
+        this.ejectAfterFailures = ejectAfterFailures;
+        this.ejectNanos = ejectNanos;
+        this.nanoClock = nanoClock;
+    }
+
+    public String serviceId() {
+        return serviceId;
+    }
+
+    public List<Endpoint> endpoints() {
+        return endpoints;
+    }
+
+    /** Runs after every {@link #update}, e.g. to close connections to removed instances. */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Replaces the instance list with the registry's current view. Instances that are
+     * still registered keep their load, latency and health.
+     */
+    public synchronized void update(List<ServiceInstance> instances) {
+        Map<URI, Endpoint> current = new HashMap<>();
+        for (Endpoint endpoint : endpoints) {
+            current.put(endpoint.uri(), endpoint);
+        }
+        List<Endpoint> updated = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            URI uri = instance.getUri();
+            Endpoint endpoint = current.get(uri);
+            if (endpoint == null) {
+                endpoint = new Endpoint(uri);
+            }
+            endpoint.metadata = instance.getMetadata() == null ? Map.of() : Map.copyOf(instance.getMetadata());
+            updated.add(endpoint);
+        }
+        endpoints = List.copyOf(updated);
+        listeners.forEach(Runnable::run);
+    }
+
+    /** The instance for the next request, or {@code null} if none is registered. */
+    public Endpoint choose() {
+        List<Endpoint> candidates = endpoints;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        long now = nanoClock.getAsLong();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Endpoint best = null;
+        int compared = 0;
+        // A few extra draws still find a healthy pair when some instances are ejected
+        for (int draw = 0; draw < CHOICES * 3 && compared < CHOICES; draw++) {
+            Endpoint candidate = candidates.get(random.nextInt(candidates.size()));
+            if (!candidate.ejected(now)) {
+                best = best == null ? candidate : better(best, candidate);
+                compared++;
+            }
+        }
+        if (best == null) {
+            // Unlucky draws or mostly ejected instances: fall back to a scan
+            for (Endpoint candidate : candidates) {
+                if (!candidate.ejected(now)) {
+                    best = best == null ? candidate : better(best, candidate);
+                }
+            }
+        }
+        if (best != null) {
+            return best;
+        }
+        return better(candidates.get(random.nextInt(candidates.size())), candidates.get(random.nextInt(candidates.size())));
+    }
+
+    private static Endpoint better(Endpoint a, Endpoint b) {
+        if (a.averageLatencyNanos == 0 || b.averageLatencyNanos == 0) {
+            // No latency yet for a new instance: compare by load alone
+            return a.outstanding() <= b.outstanding() ? a : b;
+        }
+        return a.score() <= b.score() ? a : b;
+    }
+
+    /** One registered instance with its in-flight count, latency average and health. */
+    public final class Endpoint {
+        private final URI uri;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile double averageLatencyNanos;
+        private volatile long ejectedUntil;
+        private volatile Map<String, String> metadata = Map.of();
+
+        Endpoint(URI uri) {
+            this.uri = uri;
+            this.ejectedUntil = nanoClock.getAsLong();
+        }
+
+        public URI uri() {
+            return uri;
+        }
+
+        public String authority() {
+            return uri.getHost() + ":" + uri.getPort();
+        }
+
+        /** The instance's registry metadata, as of the last {@link #update}. */
+        public Map<String, String> metadata() {
+            return metadata;
+        }
+
+        /** {@code url} with its scheme, host and port replaced by this instance's. */
+        public URI resolve(URI url) {
+            String target = uri.getScheme() + "://" + uri.getRawAuthority() + url.getRawPath();
+            return URI.create(url.getRawQuery() == null ? target : target + "?" + url.getRawQuery());
+        }
+
+        public int outstanding() {
+            return outstanding.get();
+        }
+
+        /**
+         * Marks a request as sent; every call must be followed by {@link #succeeded},
+         * {@link #failed} or {@link #abandoned}.
+         */
+        public void started() {
+            outstanding.incrementAndGet();
+        }
+
+        public void succeeded(long latencyNanos) {
+            outstanding.decrementAndGet();
+            consecutiveFailures.set(0);
+            recordLatency(latencyNanos);
+        }
+
+        public void failed(long latencyNanos) {
+            outstanding.decrementAndGet();
+            double average = averageLatencyNanos;
+            // Without an average yet, a failure's own latency would only flatter the instance
+            if (average != 0) {
+                recordLatency((long) Math.max(latencyNanos, FAILURE_PENALTY * average));
+            }
+            if (consecutiveFailures.incrementAndGet() >= ejectAfterFailures) {
+                consecutiveFailures.set(0);
+                ejectedUntil = nanoClock.getAsLong() + ejectNanos;
+            }
+        }
+
+        /** The caller gave up on the request, which tells nothing about the instance. */
+        public void abandoned() {
+            outstanding.decrementAndGet();
+        }
+
+        boolean ejected(long now) {
+            return ejectedUntil - now > 0;
+        }
+
+        double score() {
+            return (outstanding.get() + 1) * averageLatencyNanos;
+        }
+
+        private void recordLatency(long latencyNanos) {
+            // Racing updates may drop a sample, which an average can afford
+            double average = averageLatencyNanos;
+            averageLatencyNanos = average == 0 ? latencyNanos : average + LATENCY_WEIGHT * (latencyNanos - average);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.discovery;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@link ServiceBalancer} per downstream service, fed from the discovery
+ * registry: Eureka in deployments, or the {@code spring.cloud.discovery.client.simple}
+ * instance list, an in-memory stand-in, for local runs and tests. Instance lists are
+ * refreshed every {@code order.discovery.refresh-interval-ms}. Unless
+ * {@code order.discovery.enabled=true}, and while a service has no registered
+ * instances, clients use their configured addresses.
+ */
+@Component
+public class ServiceBalancers {
+
+    private final DiscoveryClient discoveryClient;
+    private final boolean enabled;
+    private final int ejectAfterFailures;
+    private final long ejectNanos;
+    private final Map<String, ServiceBalancer> balancers = new ConcurrentHashMap<>();
+
+    public ServiceBalancers(DiscoveryClient discoveryClient,
+                            @Value("${order.discovery.enabled:false}") boolean enabled,
+                            @Value("${order.discovery.eject-after-failures:3}") int ejectAfterFailures,
+                            @Value("${order.discovery.eject-ms:10000}") long ejectMs) {
+        this.discoveryClient = discoveryClient;
+        this.enabled = enabled;
+        this.ejectAfterFailures = ejectAfterFailures;
+        this.ejectNanos = TimeUnit.MILLISECONDS.toNanos(ejectMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public ServiceBalancer forService(String serviceId) {
+        return balancers.computeIfAbsent(serviceId, id -> {
+            ServiceBalancer balancer = new ServiceBalancer(id, ejectAfterFailures, ejectNanos, System::nanoTime);
+            update(balancer);
+            return balancer;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${order.discovery.refresh-interval-ms:5000}")
+    public void refresh() {
+        balancers.values().forEach(this::update);
+    }
+
+    private void update(ServiceBalancer balancer) {
+        try {
+            balancer.update(discoveryClient.getInstances(balancer.serviceId()));
+        } catch (RuntimeException e) {
+            // Keep the last known instances until the registry answers again
+        }
+    }
+}
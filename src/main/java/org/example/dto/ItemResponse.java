@@ -1,10 +1,13 @@
 package org.example.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.example.models.Money;
+
 @Data
 @Builder
 @AllArgsConstructor
@@ -16,4 +19,20 @@ public class ItemResponse {
     private String description;
     private String restaurantId;
     private double price;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String currency;
+
+    public ItemResponse(String id, String name, String description, String restaurantId, double price) {
+        this(id, name, description, restaurantId, price, null);
+    }
+
+    @JsonIgnore
+    public String getCurrencyOrDefault() {
+        return currency != null ? currency : Money.DEFAULT_CURRENCY;
+    }
+
+    @JsonIgnore
+    public long getPriceInMinorUnits() {
+        return Money.toMinorUnits(price, getCurrencyOrDefault());
+    }
 }
@@ -0,0 +1,25 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderHistoryQuery {
+    private String userId;
+    private String status;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String cursor;
+    @Builder.Default
+    private int limit = 20;
+    private boolean includeItems;
+    private boolean includeArchived;
+    private String ifNoneMatch;
+}
@@ -1,16 +1,20 @@
 package org.example.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import org.example.models.Order;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class OrderResponse {
     private String id;
     private String userId;
     private List<String> items;
-    private Double totalPrice;
+    private BigDecimal totalPrice;
+    private String currency;
     private String status;
 
     public OrderResponse(Order order) {
@@ -18,6 +22,7 @@ public class OrderResponse {
         this.userId = order.getUserId();
         this.items = order.getItems();
         this.totalPrice = order.getTotalPrice();
-        this.status = order.getStatus();
+        this.currency = order.getCurrency();
+        this.status = order.getStatus() != null ? order.getStatus().getLabel() : null;
     }
 }
\ No newline at end of file
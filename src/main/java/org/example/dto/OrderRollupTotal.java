@@ -0,0 +1,19 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderRollupTotal {
+    private String key;
+    private LocalDateTime bucketStart;
+    private String currency;
+    private Long orderCount;
+    private BigDecimal revenue;
+}
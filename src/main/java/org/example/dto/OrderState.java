@@ -0,0 +1,20 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.models.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order's status and creation time, projected for status changes; the creation
+ * time picks the rollup bucket the order is counted in.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderState {
+    private OrderStatus status;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,24 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.models.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight view of an order used by the paged history endpoint. It is
+ * projected straight from the query, so the {@code items} collection is never loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+    private String id;
+    private OrderStatus status;
+    private BigDecimal totalPrice;
+    private Integer itemCount;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,22 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A restaurant's current menu prices from the catalog. {@code version} increases
+ * whenever any price of the restaurant changes.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RestaurantPrices {
+    private String restaurantId;
+    private long version;
+    private List<ItemResponse> items;
+}
@@ -0,0 +1,25 @@
+package org.example.events;
+
+import org.example.models.Order;
+import org.example.models.OrderStatus;
+
+import java.util.Collection;
+
+/**
+ * Application events for committed order writes, published after the write is
+ * visible so listeners can maintain derived state such as the read model.
+ */
+public sealed interface OrderEvent {
+
+    record Created(Order order) implements OrderEvent {
+    }
+
+    record StatusChanged(String orderId, OrderStatus status) implements OrderEvent {
+    }
+
+    record Deleted(String orderId) implements OrderEvent {
+    }
+
+    record Archived(Collection<String> orderIds) implements OrderEvent {
+    }
+}
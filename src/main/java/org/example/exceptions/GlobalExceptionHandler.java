@@ -1,6 +1,7 @@
 package org.example.exceptions;
 
 import org.example.dto.ApiResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -86,6 +87,25 @@ public class GlobalExceptionHandler {
         ));
     }
 
+    @ExceptionHandler(OrderStatusConflictException.class)
+    public ResponseEntity<Map<String, String>> handleOrderStatusConflictException(OrderStatusConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "message", ex.getMessage(),
+                "status", "Order status conflict"
+        ));
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Map<String, String>> handleTooManyRequestsException(TooManyRequestsException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(Map.of(
+                        "message", ex.getMessage(),
+                        "status", "Too many requests",
+                        "retryAfterSeconds", String.valueOf(ex.getRetryAfterSeconds())
+                ));
+    }
+
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<Map<String, String>> handleUserNotFoundException(UserNotFoundException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
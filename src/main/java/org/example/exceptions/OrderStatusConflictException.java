@@ -0,0 +1,7 @@
+package org.example.exceptions;
+
+public class OrderStatusConflictException extends RuntimeException {
+    public OrderStatusConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.exceptions;
+
+import java.util.concurrent.TimeUnit;
+
+public class TooManyRequestsException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterNanos) {
+        super(message);
+        this.retryAfterSeconds = Math.max(1L, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,228 @@
+package org.example.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, segmented journal with group commit. Segments are fixed-size
+ * memory-mapped files, so an append is a memory copy; {@link #append} then waits
+ * until the record is flushed to disk, and concurrent appenders share one flush,
+ * since whoever flushes covers everything written before it.
+ * <p>
+ * Records are framed as {@code [length][crc32c][payload]}; replay stops at the
+ * first empty, torn or corrupt record of a segment. A full segment is closed and a
+ * new one started. Callers free space by deleting segments they no longer need.
+ */
+public final class Journal implements Closeable {
+    public static final int DEFAULT_SEGMENT_BYTES = 16 * 1024 * 1024;
+    private static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final String prefix;
+    private final int segmentBytes;
+    private final Object writeLock = new Object();
+    private final Object syncLock = new Object();
+
+    private MappedByteBuffer mapped;
+    private long segment;
+    private int position;
+    private int synced;
+    // Logical offsets across all segments of this process
+    private long written;
+    private long durable;
+
+    public Journal(Path directory, String prefix) {
+        this(directory, prefix, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public Journal(Path directory, String prefix, int segmentBytes) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.segmentBytes = segmentBytes;
+        try {
+            Files.createDirectories(directory);
+            List<Long> existing = segments();
+            this.segment = existing.isEmpty() ? 0 : existing.get(existing.size() - 1) + 1;
+            this.mapped = map(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Durably appends a record and returns the segment it was written to.
+     */
+    public long append(byte[] payload) {
+        return append(payload, true);
+    }
+
+    /**
+     * Appends a record, waiting for it to reach disk only if {@code sync} is set. An
+     * unsynced record becomes durable with the next synced append or rotation.
+     */
+    public long append(byte[] payload, boolean sync) {
+        int length = HEADER_BYTES + payload.length;
+        if (payload.length == 0 || length > segmentBytes) {
+            throw new IllegalArgumentException("Record size must be between 1 and " + (segmentBytes - HEADER_BYTES) + " bytes");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        long end;
+        long target;
+        synchronized (writeLock) {
+            if (position + length > segmentBytes) {
+                rotate();
+            }
+            mapped.putInt(position, payload.length);
+            mapped.putInt(position + 4, (int) crc.getValue());
+            mapped.put(position + HEADER_BYTES, payload);
+            position += length;
+            written += length;
+            end = written;
+            target = segment;
+        }
+        if (sync) {
+            awaitDurable(end);
+        }
+        return target;
+    }
+
+    private void awaitDurable(long offset) {
+        synchronized (syncLock) {
+            if (durable >= offset) {
+                return;
+            }
+            MappedByteBuffer buffer;
+            long bufferSegment;
+            int from;
+            int to;
+            long upTo;
+            synchronized (writeLock) {
+                buffer = mapped;
+                bufferSegment = segment;
+                from = synced;
+                to = position;
+                upTo = written;
+            }
+            // Writers keep appending while this flush runs; a rotation in the meantime
+            // has already flushed everything before it
+            buffer.force(from, to - from);
+            synchronized (writeLock) {
+                if (segment == bufferSegment) {
+                    synced = Math.max(synced, to);
+                }
+            }
+            durable = upTo;
+        }
+    }
+
+    /**
+     * Flushes and closes the current segment, starts a new one and returns its id.
+     */
+    public long rotate() {
+        synchronized (writeLock) {
+            mapped.force();
+            segment++;
+            position = 0;
+            synced = 0;
+            try {
+                mapped = map(segment);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return segment;
+        }
+    }
+
+    public long currentSegment() {
+        synchronized (writeLock) {
+            return segment;
+        }
+    }
+
+    public void deleteSegmentsBefore(long segmentId) {
+        try {
+            for (long id : segments()) {
+                if (id < segmentId) {
+                    Files.deleteIfExists(path(id));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Feeds every intact record of every segment, oldest first, to {@code consumer}.
+     */
+    public void replay(Consumer<ByteBuffer> consumer) {
+        try {
+            for (long id : segments()) {
+                ByteBuffer data;
+                try (FileChannel channel = FileChannel.open(path(id), StandardOpenOption.READ)) {
+                    data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+                while (data.remaining() >= HEADER_BYTES) {
+                    int length = data.getInt();
+                    int checksum = data.getInt();
+                    if (length <= 0 || length > data.remaining()) {
+                        break;
+                    }
+                    ByteBuffer payload = data.slice(data.position(), length);
+                    CRC32C crc = new CRC32C();
+                    crc.update(payload.duplicate());
+                    if ((int) crc.getValue() != checksum) {
+                        break;
+                    }
+                    consumer.accept(payload);
+                    data.position(data.position() + length);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Long> segments() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "-*.log")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                ids.add(Long.parseLong(name.substring(prefix.length() + 1, name.length() - 4)));
+            }
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    private Path path(long id) {
+        return directory.resolve(String.format("%s-%020d.log", prefix, id));
+    }
+
+    private MappedByteBuffer map(long id) throws IOException {
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path(id), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (writeLock) {
+            mapped.force();
+        }
+    }
+}
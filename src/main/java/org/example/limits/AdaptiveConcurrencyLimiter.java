@@ -0,0 +1,91 @@
+package org.example.limits;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency-gradient concurrency limiter. The limit follows
+ * {@code limit * clamp(tolerance * longRtt / shortRtt, 0.5, 1) + sqrt(limit)}: it
+ * grows while recent latency stays near the long-term baseline and shrinks as soon
+ * as requests start queueing. Lower priorities only get a share of the limit, so
+ * they are shed first.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_RTT_WEIGHT = 0.1;
+    private static final double LONG_RTT_WEIGHT = 0.01;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double rttTolerance, double smoothing) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * Reserves a slot for a request of the given priority.
+     *
+     * @return the in-flight count when admitted (to pass to {@link #release}), or {@code -1} if shed
+     */
+    public int tryAcquire(RequestPriority priority) {
+        int allowed = Math.max(1, (int) (limit * priority.getLimitShare()));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    public void release(int inFlightAtStart, long rttNanos) {
+        inFlight.decrementAndGet();
+        onSample(inFlightAtStart, rttNanos);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(int inFlightAtStart, long rttNanos) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) * SHORT_RTT_WEIGHT;
+        longRttNanos += (rttNanos - longRttNanos) * LONG_RTT_WEIGHT;
+        // After a sustained latency drop, let the baseline catch up quickly
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        // Not enough load to learn anything about the limit
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * longRttNanos / shortRttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.limits;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Sheds load in front of the controllers with a 503 once the adaptive concurrency
+ * limit is reached. Runs before Spring Security so shed requests cost next to nothing.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String SHED_BODY = "{\"message\":\"Service is overloaded, please retry later.\",\"status\":\"Service unavailable\"}";
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitFilter(@Value("${order.concurrency-limit.enabled:true}") boolean enabled,
+                                  @Value("${order.concurrency-limit.initial:100}") int initialLimit,
+                                  @Value("${order.concurrency-limit.min:10}") int minLimit,
+                                  @Value("${order.concurrency-limit.max:1000}") int maxLimit,
+                                  @Value("${order.concurrency-limit.rtt-tolerance:1.5}") double rttTolerance,
+                                  @Value("${order.concurrency-limit.smoothing:0.2}") double smoothing) {
+        this.enabled = enabled;
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, rttTolerance, smoothing);
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !enabled || !(path.startsWith("/orders") || path.startsWith("/users"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        int inFlight = limiter.tryAcquire(classify(request));
+        if (inFlight < 0) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(SHED_BODY);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release(inFlight, System.nanoTime() - start);
+        }
+    }
+
+    static RequestPriority classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        if (path.startsWith("/orders")) {
+            String rest = path.length() > "/orders".length() ? path.substring("/orders/".length()) : "";
+            if (rest.isEmpty()) {
+                return HttpMethod.GET.matches(method) ? RequestPriority.BULK : RequestPriority.NORMAL;
+            }
+            if (rest.indexOf('/') < 0 && (HttpMethod.GET.matches(method) || HttpMethod.PUT.matches(method))) {
+                return RequestPriority.CRITICAL;
+            }
+            return RequestPriority.NORMAL;
+        }
+        if (HttpMethod.GET.matches(method) && path.matches("/users/[^/]+/orders(/.*)?")) {
+            return RequestPriority.BULK;
+        }
+        return RequestPriority.NORMAL;
+    }
+}
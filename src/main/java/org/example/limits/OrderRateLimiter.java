@@ -0,0 +1,77 @@
+package org.example.limits;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.exceptions.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control for {@code POST /orders}: a token bucket per user, kept in a
+ * size-bounded cache that evicts idle users, plus one global bucket.
+ */
+@Component
+public class OrderRateLimiter {
+
+    private final boolean enabled;
+    private final int userCapacity;
+    private final double userRefillPerSecond;
+    private final LongSupplier nanoClock;
+    private final Cache<String, TokenBucket> userBuckets;
+    private final TokenBucket globalBucket;
+
+    @Autowired
+    public OrderRateLimiter(@Value("${order.rate-limit.enabled:true}") boolean enabled,
+                            @Value("${order.rate-limit.user.capacity:10}") int userCapacity,
+                            @Value("${order.rate-limit.user.refill-per-second:1}") double userRefillPerSecond,
+                            @Value("${order.rate-limit.global.capacity:500}") int globalCapacity,
+                            @Value("${order.rate-limit.global.refill-per-second:200}") double globalRefillPerSecond,
+                            @Value("${order.rate-limit.max-tracked-users:100000}") long maxTrackedUsers) {
+        this(enabled, userCapacity, userRefillPerSecond, globalCapacity, globalRefillPerSecond, maxTrackedUsers, System::nanoTime);
+    }
+
+    public OrderRateLimiter(boolean enabled, int userCapacity, double userRefillPerSecond,
+                            int globalCapacity, double globalRefillPerSecond, long maxTrackedUsers,
+                            LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.userCapacity = userCapacity;
+        this.userRefillPerSecond = userRefillPerSecond;
+        this.nanoClock = nanoClock;
+        // A bucket idle for longer than it takes to refill is indistinguishable from a new one
+        Duration refillTime = Duration.ofNanos((long) (userCapacity / userRefillPerSecond * 1_000_000_000L));
+        this.userBuckets = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                .expireAfterAccess(refillTime.plusSeconds(1))
+                .build();
+        this.globalBucket = new TokenBucket(globalCapacity, globalRefillPerSecond, nanoClock);
+    }
+
+    /**
+     * Admits one order creation for {@code userId} or throws {@link TooManyRequestsException}.
+     */
+    public void acquire(String userId) {
+        if (!enabled) {
+            return;
+        }
+        TokenBucket userBucket = null;
+        if (userId != null) {
+            userBucket = userBuckets.get(userId, key -> new TokenBucket(userCapacity, userRefillPerSecond, nanoClock));
+            long wait = userBucket.tryAcquire();
+            if (wait > 0) {
+                throw new TooManyRequestsException("Too many orders for this user, please retry later.", wait);
+            }
+        }
+        long wait = globalBucket.tryAcquire();
+        if (wait > 0) {
+            // A global overload should not use up the user's own allowance
+            if (userBucket != null) {
+                userBucket.refund();
+            }
+            throw new TooManyRequestsException("Order service is busy, please retry later.", wait);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.limits;
+
+/**
+ * Load-shedding classes, each allowed to use a share of the current concurrency limit.
+ */
+public enum RequestPriority {
+    /** Order status reads and status updates. */
+    CRITICAL(1.0),
+    /** Order creation and user endpoints. */
+    NORMAL(0.8),
+    /** List and history reads. */
+    BULK(0.5);
+
+    private final double limitShare;
+
+    RequestPriority(double limitShare) {
+        this.limitShare = limitShare;
+    }
+
+    public double getLimitShare() {
+        return limitShare;
+    }
+}
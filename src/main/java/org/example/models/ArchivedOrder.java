@@ -0,0 +1,60 @@
+package org.example.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A terminal order moved out of {@code orders} by the archiver. Read-only.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "orders_archive")
+public class ArchivedOrder {
+    @Id
+    private String id;
+
+    private String userId;
+
+    @ElementCollection
+    @CollectionTable(name = "order_items_archive", joinColumns = @JoinColumn(name = "order_id"))
+    @Column(name = "items")
+    private List<String> items;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal totalPrice;
+
+    private String currency;
+
+    private OrderStatus status;
+
+    private LocalDateTime createdAt;
+
+    private Long version;
+
+    private LocalDateTime archivedAt;
+
+    public Order toOrder() {
+        return Order.builder()
+                .id(id)
+                .userId(userId)
+                .items(items)
+                .totalPrice(totalPrice)
+                .currency(currency)
+                .status(status)
+                .createdAt(createdAt)
+                .version(version)
+                .build();
+    }
+}
@@ -1,11 +1,23 @@
 package org.example.models;
 
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.MethodDescriptor;
+import org.example.discovery.BalancedChannel;
+import org.example.discovery.ServiceBalancers;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import proto.FulfillmentServiceGrpc;
 
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class GrpcClientConfig {
 
@@ -16,8 +28,39 @@ public class GrpcClientConfig {
                 .build();
     }
 
+    // Balances calls across registered fulfillment instances; managedChannel is the fallback
+    @Bean
+    @Primary
+    public Channel fulfillmentChannel(ManagedChannel managedChannel,
+                                      ObjectProvider<ServiceBalancers> serviceBalancers,
+                                      @Value("${order.fulfillment.service-id:fulfillment-service}") String serviceId,
+                                      @Value("${order.fulfillment.grpc-port-metadata:gRPC_port}") String grpcPortMetadata,
+                                      @Value("${order.fulfillment.grpc-port:50051}") int grpcPort) {
+        ServiceBalancers balancers = serviceBalancers.getIfAvailable();
+        if (balancers == null || !balancers.isEnabled()) {
+            return managedChannel;
+        }
+        return new BalancedChannel(balancers.forService(serviceId), managedChannel, grpcPortMetadata, grpcPort);
+    }
+
+    // Calls that set no deadline of their own get this one, so a hung replica cannot hold a caller
     @Bean
-    public FulfillmentServiceGrpc.FulfillmentServiceBlockingStub fulfillmentServiceBlockingStub(ManagedChannel managedChannel) {
-        return FulfillmentServiceGrpc.newBlockingStub(managedChannel);
+    public FulfillmentServiceGrpc.FulfillmentServiceBlockingStub fulfillmentServiceBlockingStub(Channel fulfillmentChannel,
+                                                                                                @Value("${order.fulfillment.deadline-ms:3000}") long deadlineMs) {
+        return FulfillmentServiceGrpc.newBlockingStub(fulfillmentChannel)
+                .withInterceptors(defaultDeadline(deadlineMs));
+    }
+
+    static ClientInterceptor defaultDeadline(long deadlineMs) {
+        return new ClientInterceptor() {
+            @Override
+            public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                                       CallOptions callOptions, Channel next) {
+                if (callOptions.getDeadline() == null) {
+                    callOptions = callOptions.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS);
+                }
+                return next.newCall(method, callOptions);
+            }
+        };
     }
-}
\ No newline at end of file
+}
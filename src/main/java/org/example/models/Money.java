@@ -0,0 +1,47 @@
+package org.example.models;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Fixed-point money helpers. Amounts are carried as {@code long} minor units
+ * (cents for USD) and only turned into {@link BigDecimal} at the persistence edge.
+ */
+public final class Money {
+
+    public static final String DEFAULT_CURRENCY = "USD";
+
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L};
+    private static final ConcurrentMap<String, Integer> FRACTION_DIGITS = new ConcurrentHashMap<>();
+
+    private Money() {
+    }
+
+    public static int fractionDigits(String currency) {
+        return FRACTION_DIGITS.computeIfAbsent(currency, code -> {
+            int digits = Currency.getInstance(code).getDefaultFractionDigits();
+            if (digits < 0 || digits >= POWERS_OF_TEN.length) {
+                throw new IllegalArgumentException("Unsupported currency: " + code);
+            }
+            return digits;
+        });
+    }
+
+    /**
+     * Converts a decimal amount received as a double into minor units, rounding to
+     * the nearest minor unit to absorb binary representation error.
+     */
+    public static long toMinorUnits(double amount, String currency) {
+        return Math.round(amount * POWERS_OF_TEN[fractionDigits(currency)]);
+    }
+
+    public static long toMinorUnits(BigDecimal amount, String currency) {
+        return amount.movePointRight(fractionDigits(currency)).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minorUnits, String currency) {
+        return BigDecimal.valueOf(minorUnits, fractionDigits(currency));
+    }
+}
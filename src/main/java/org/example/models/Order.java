@@ -5,7 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -16,7 +19,8 @@ import java.util.List;
 @Table(name = "orders")
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @GeneratedValue(generator = "order-id")
+    @GenericGenerator(name = "order-id", type = OrderIdGenerator.class)
     private String id;
 
     @Column(nullable = false)
@@ -25,9 +29,25 @@ public class Order {
     @ElementCollection
     private List<String> items;
 
-    @Column(nullable = false)
-    private Double totalPrice;
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal totalPrice;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
 
     @Column(nullable = false)
-    private String status;
+    private OrderStatus status;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Version
+    private Long version;
+
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
 }
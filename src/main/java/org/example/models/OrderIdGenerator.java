@@ -0,0 +1,21 @@
+package org.example.models;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.util.UUID;
+
+/**
+ * Random UUID ids, except that an id assigned up front (an order accepted into the
+ * write-ahead log before it reached the database) is kept.
+ */
+public class OrderIdGenerator implements IdentifierGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        if (object instanceof Order order && order.getId() != null) {
+            return order.getId();
+        }
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class OrderRollupId implements Serializable {
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private RollupDimension dimension;
+
+    @Column(name = "dimension_key")
+    private String dimensionKey;
+
+    private LocalDateTime bucketStart;
+
+    @Column(length = 3)
+    private String currency;
+
+    private short stripe;
+}
@@ -0,0 +1,117 @@
+package org.example.models;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Order lifecycle. Each status has a stable {@code code} stored in the
+ * {@code orders.status} smallint column and a {@code label} used on the API.
+ * The transition table is built once, so checks never touch the database.
+ */
+public enum OrderStatus {
+    PENDING((short) 1, "Pending"),
+    ASSIGNED((short) 2, "Assigned"),
+    SHIPPED((short) 3, "Shipped"),
+    DELIVERED((short) 4, "Delivered"),
+    CANCELLED((short) 5, "Cancelled"),
+    MISPLACED((short) 6, "Misplaced");
+
+    private static final OrderStatus[] BY_CODE;
+    private static final boolean[][] TRANSITIONS;
+    private static final Set<OrderStatus>[] SOURCES;
+
+    static {
+        OrderStatus[] values = values();
+        BY_CODE = new OrderStatus[values.length + 1];
+        for (OrderStatus status : values) {
+            BY_CODE[status.code] = status;
+        }
+
+        TRANSITIONS = new boolean[values.length][values.length];
+        allow(PENDING, ASSIGNED, SHIPPED, DELIVERED, CANCELLED, MISPLACED);
+        allow(ASSIGNED, SHIPPED, DELIVERED, CANCELLED, MISPLACED);
+        allow(SHIPPED, DELIVERED, MISPLACED);
+        allow(MISPLACED, SHIPPED, DELIVERED, CANCELLED);
+
+        @SuppressWarnings("unchecked")
+        Set<OrderStatus>[] sources = new Set[values.length];
+        for (OrderStatus to : values) {
+            EnumSet<OrderStatus> from = EnumSet.noneOf(OrderStatus.class);
+            for (OrderStatus candidate : values) {
+                if (TRANSITIONS[candidate.ordinal()][to.ordinal()]) {
+                    from.add(candidate);
+                }
+            }
+            sources[to.ordinal()] = Collections.unmodifiableSet(from);
+        }
+        SOURCES = sources;
+    }
+
+    private final short code;
+    private final String label;
+
+    OrderStatus(short code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    @JsonValue
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isTerminal() {
+        for (boolean allowed : TRANSITIONS[ordinal()]) {
+            if (allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return TRANSITIONS[ordinal()][target.ordinal()];
+    }
+
+    /**
+     * Statuses an order may be in for a move to this status to be allowed.
+     */
+    public Set<OrderStatus> allowedSources() {
+        return SOURCES[ordinal()];
+    }
+
+    public static OrderStatus fromCode(short code) {
+        if (code <= 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+            throw new IllegalArgumentException("Unknown order status code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    /**
+     * Parses a label or constant name case-insensitively; returns {@code null} if unknown.
+     */
+    public static OrderStatus parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (OrderStatus status : values()) {
+            if (status.label.equalsIgnoreCase(value) || status.name().equalsIgnoreCase(value)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    private static void allow(OrderStatus from, OrderStatus... targets) {
+        for (OrderStatus to : targets) {
+            TRANSITIONS[from.ordinal()][to.ordinal()] = true;
+        }
+    }
+}
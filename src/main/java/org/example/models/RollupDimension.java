@@ -0,0 +1,33 @@
+package org.example.models;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * What an {@link OrderRollup} row aggregates and how wide its time buckets are.
+ * {@code TOTAL} and {@code STATUS} rows are hot, so their updates are spread over
+ * several stripe rows per bucket.
+ */
+public enum RollupDimension {
+    /** Orders created and revenue, key {@code all}. */
+    TOTAL(ChronoUnit.HOURS, 8),
+    /** Orders created, keyed by the label of their current status. */
+    STATUS(ChronoUnit.HOURS, 8),
+    /** Orders created and revenue per user, keyed by user id. */
+    USER(ChronoUnit.DAYS, 1);
+
+    private final ChronoUnit granularity;
+    private final int stripes;
+
+    RollupDimension(ChronoUnit granularity, int stripes) {
+        this.granularity = granularity;
+        this.stripes = stripes;
+    }
+
+    public ChronoUnit getGranularity() {
+        return granularity;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+}
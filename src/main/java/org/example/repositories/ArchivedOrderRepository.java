@@ -0,0 +1,46 @@
+package org.example.repositories;
+
+import org.example.dto.OrderSummary;
+import org.example.models.ArchivedOrder;
+import org.example.models.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, String> {
+    @EntityGraph(attributePaths = "items")
+    List<ArchivedOrder> findAllByUserId(String userId);
+
+    /**
+     * Same page as {@link OrderRepository#findOrderSummaries}, over {@code orders_archive},
+     * so history can merge both tables on one {@code (createdAt, id)} cursor.
+     */
+    @Query("""
+            select new org.example.dto.OrderSummary(o.id, o.status, o.totalPrice, size(o.items), o.createdAt)
+            from ArchivedOrder o
+            where o.userId = :userId
+              and (:status is null or o.status = :status)
+              and (:from is null or o.createdAt >= :from)
+              and (:to is null or o.createdAt < :to)
+              and (:afterCreatedAt is null
+                   or o.createdAt < :afterCreatedAt
+                   or (o.createdAt = :afterCreatedAt and o.id < :afterId))
+            order by o.createdAt desc, o.id desc
+            """)
+    List<OrderSummary> findOrderSummaries(@Param("userId") String userId,
+                                          @Param("status") OrderStatus status,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                          @Param("afterId") String afterId,
+                                          Pageable pageable);
+
+    @Query("select distinct o from ArchivedOrder o left join fetch o.items where o.id in :ids")
+    List<ArchivedOrder> findAllWithItemsByIdIn(@Param("ids") Collection<String> ids);
+}
@@ -0,0 +1,98 @@
+package org.example.repositories;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.discovery.ServiceBalancer;
+import org.example.discovery.ServiceBalancers;
+import org.example.dto.ItemResponse;
+import org.example.dto.RestaurantPrices;
+import org.example.exceptions.InternalServerErrorException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link CatalogClient} on the shared catalog
+ * {@link HttpClient}: calls return at once and complete on the client's executor,
+ * so a basket's items can be fetched concurrently over pooled (and, with HTTP/2,
+ * multiplexed) connections. A 404 completes with {@code null}, which callers
+ * treat as an unknown item; other error responses complete exceptionally.
+ */
+@Component
+public class AsyncCatalogClient {
+
+    private final HttpClient catalogHttpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final Duration readTimeout;
+    private final ServiceBalancer balancer;
+
+    public AsyncCatalogClient(HttpClient catalogHttpClient,
+                              ObjectMapper objectMapper,
+                              @Value("${order.catalog.url:http://localhost:8081}") String baseUrl,
+                              @Value("${order.catalog.http.read-timeout-ms:2000}") long readTimeoutMs,
+                              ServiceBalancers serviceBalancers,
+                              @Value("${order.catalog.service-id:catalog-service}") String serviceId) {
+        this.catalogHttpClient = catalogHttpClient;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+        this.balancer = serviceBalancers.isEnabled() ? serviceBalancers.forService(serviceId) : null;
+    }
+
+    public CompletableFuture<ItemResponse> getItemById(String itemId) {
+        return get("/items/" + encode(itemId), ItemResponse.class);
+    }
+
+    public CompletableFuture<RestaurantPrices> getRestaurantPrices(String restaurantId) {
+        return get("/restaurants/" + encode(restaurantId) + "/prices", RestaurantPrices.class);
+    }
+
+    private <T> CompletableFuture<T> get(String path, Class<T> type) {
+        ServiceBalancer.Endpoint endpoint = balancer == null ? null : balancer.choose();
+        URI uri = URI.create(baseUrl + path);
+        HttpRequest request = HttpRequest.newBuilder(endpoint == null ? uri : endpoint.resolve(uri))
+                .timeout(readTimeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        CompletableFuture<HttpResponse<byte[]>> response = catalogHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (endpoint != null) {
+            endpoint.started();
+            long start = System.nanoTime();
+            response = response.whenComplete((reply, failure) -> {
+                if (failure != null || reply.statusCode() >= 500) {
+                    endpoint.failed(System.nanoTime() - start);
+                } else {
+                    endpoint.succeeded(System.nanoTime() - start);
+                }
+            });
+        }
+        return response.thenApply(reply -> {
+            if (reply.statusCode() == 404) {
+                return null;
+            }
+            if (reply.statusCode() != 200) {
+                throw new InternalServerErrorException("Catalog returned " + reply.statusCode() + " for " + path);
+            }
+            try {
+                return objectMapper.readValue(reply.body(), type);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static String encode(String segment) {
+        return URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
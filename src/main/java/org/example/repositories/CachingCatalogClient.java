@@ -0,0 +1,312 @@
+package org.example.repositories;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.example.dto.ItemResponse;
+import org.example.dto.RestaurantPrices;
+import org.example.sharding.OrderShards;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Near-cache in front of the catalog's {@code getItemById}. Entries live for
+ * {@code order.item-cache.ttl-ms} from when they were fetched, and a restaurant's
+ * items are evicted as soon as the catalog reports a price change for it, so the
+ * TTL only bounds staleness when such a notification is lost. Its five-minute
+ * default matches {@code order.price-snapshot.max-age-ms}, the price age already
+ * accepted for snapshot pricing. The cache is written
+ * to {@code order.item-cache.file} on shutdown and read back at startup, keeping
+ * each entry's fetch time, so a restart does not reset expiry. After startup the
+ * most-ordered items of the last {@code warm-up-days} that are not cached yet are
+ * fetched in the background, one at a time, before traffic asks for them.
+ */
+@Primary
+@Component
+public class CachingCatalogClient implements CatalogClient, DisposableBean {
+    private static final int MAGIC = 0x49544d43;
+    private static final int FORMAT_VERSION = 1;
+
+    private final CatalogClient catalogClient;
+    private final AsyncCatalogClient asyncCatalogClient;
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderShards orderShards;
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final Path file;
+    private final int warmUpItems;
+    private final int warmUpDays;
+    private final Cache<String, CachedItem> items;
+
+    record CachedItem(ItemResponse item, long fetchedAtMillis) {
+    }
+
+    public CachingCatalogClient(@Qualifier("remoteCatalogClient") CatalogClient catalogClient,
+                                AsyncCatalogClient asyncCatalogClient,
+                                JdbcTemplate jdbcTemplate,
+                                OrderShards orderShards,
+                                @Value("${order.item-cache.enabled:true}") boolean enabled,
+                                @Value("${order.item-cache.ttl-ms:300000}") long ttlMillis,
+                                @Value("${order.item-cache.max-items:50000}") long maxItems,
+                                @Value("${order.item-cache.file:data/item-cache.bin}") Path file,
+                                @Value("${order.item-cache.warm-up-items:1000}") int warmUpItems,
+                                @Value("${order.item-cache.warm-up-days:7}") int warmUpDays) {
+        this.catalogClient = catalogClient;
+        this.asyncCatalogClient = asyncCatalogClient;
+        this.jdbcTemplate = jdbcTemplate;
+        this.orderShards = orderShards;
+        this.enabled = enabled;
+        this.ttlMillis = ttlMillis;
+        this.file = file;
+        this.warmUpItems = warmUpItems;
+        this.warmUpDays = warmUpDays;
+        this.items = Caffeine.newBuilder()
+                .maximumSize(maxItems)
+                .expireAfter(new Expiry<String, CachedItem>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedItem value, long currentTime) {
+                        long remaining = value.fetchedAtMillis() + ttlMillis - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remaining));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedItem value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedItem value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        if (enabled) {
+            load();
+        }
+    }
+
+    @Override
+    public ItemResponse getItemById(String itemId) {
+        if (!enabled) {
+            return catalogClient.getItemById(itemId);
+        }
+        CachedItem cached = items.get(itemId, this::fetch);
+        return cached == null ? null : cached.item();
+    }
+
+    /**
+     * Serves cached items and fetches the misses concurrently through
+     * {@link AsyncCatalogClient}, so a basket costs one catalog round trip rather than
+     * one per missing item.
+     */
+    @Override
+    public List<ItemResponse> getItemsById(List<String> itemIds) {
+        List<CompletableFuture<ItemResponse>> lookups = new ArrayList<>(itemIds.size());
+        for (String itemId : itemIds) {
+            CachedItem cached = enabled ? items.getIfPresent(itemId) : null;
+            lookups.add(cached != null
+                    ? CompletableFuture.completedFuture(cached.item())
+                    : asyncCatalogClient.getItemById(itemId).thenApply(item -> cache(itemId, item)));
+        }
+        List<ItemResponse> result = new ArrayList<>(lookups.size());
+        try {
+            for (CompletableFuture<ItemResponse> lookup : lookups) {
+                result.add(lookup.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    private ItemResponse cache(String itemId, ItemResponse item) {
+        if (enabled && item != null) {
+            items.put(itemId, new CachedItem(item, System.currentTimeMillis()));
+        }
+        return item;
+    }
+
+    @Override
+    public RestaurantPrices getRestaurantPrices(String restaurantId) {
+        return catalogClient.getRestaurantPrices(restaurantId);
+    }
+
+    /**
+     * Drops the cached items of {@code restaurantId}, so the next lookup fetches its
+     * current prices.
+     */
+    public void evictRestaurant(String restaurantId) {
+        items.asMap().values().removeIf(cached -> restaurantId.equals(cached.item().getRestaurantId()));
+    }
+
+    private CachedItem fetch(String itemId) {
+        ItemResponse item = catalogClient.getItemById(itemId);
+        // Unknown items are not cached
+        return item == null ? null : new CachedItem(item, System.currentTimeMillis());
+    }
+
+    public long size() {
+        return items.estimatedSize();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWarmUp() {
+        if (!enabled || warmUpItems <= 0) {
+            return;
+        }
+        Thread warmer = new Thread(() -> {
+            try {
+                warmUp();
+            } catch (RuntimeException e) {
+                // Warm-up is an optimisation; the cache still fills on demand
+            }
+        }, "catalog-cache-warm-up");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    /**
+     * Fetches the most-ordered recent items that are not cached yet and returns how
+     * many were fetched.
+     */
+    public int warmUp() {
+        Timestamp since = Timestamp.valueOf(LocalDateTime.now().minusDays(warmUpDays));
+        Map<String, Long> counts = new HashMap<>();
+        for (Map.Entry<String, Long> count : orderShards.gather(() -> jdbcTemplate.query(
+                "select i.items, count(*) from order_items i join orders o on o.id = i.order_id"
+                        + " where o.created_at >= ? group by i.items order by count(*) desc limit ?",
+                (row, rowNum) -> Map.entry(row.getString(1), row.getLong(2)), since, warmUpItems))) {
+            counts.merge(count.getKey(), count.getValue(), Long::sum);
+        }
+        List<String> popular = counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(warmUpItems)
+                .map(Map.Entry::getKey)
+                .toList();
+        int fetched = 0;
+        for (String itemId : popular) {
+            if (items.getIfPresent(itemId) != null) {
+                continue;
+            }
+            try {
+                CachedItem item = fetch(itemId);
+                if (item != null) {
+                    items.put(itemId, item);
+                    fetched++;
+                }
+            } catch (RuntimeException e) {
+                // Best effort: the item is fetched on first use instead
+            }
+        }
+        return fetched;
+    }
+
+    @Override
+    public void destroy() {
+        if (enabled) {
+            save();
+        }
+    }
+
+    /**
+     * Writes unexpired entries to a temporary file and moves it into place, so a
+     * crash mid-write leaves the previous snapshot.
+     */
+    public void save() {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try {
+                Map<String, CachedItem> snapshot = Map.copyOf(items.asMap());
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(FORMAT_VERSION);
+                    out.writeInt(snapshot.size());
+                    for (CachedItem cached : snapshot.values()) {
+                        ItemResponse item = cached.item();
+                        out.writeLong(cached.fetchedAtMillis());
+                        out.writeUTF(item.getId());
+                        writeNullable(out, item.getName());
+                        writeNullable(out, item.getDescription());
+                        writeNullable(out, item.getRestaurantId());
+                        out.writeDouble(item.getPrice());
+                        writeNullable(out, item.getCurrency());
+                    }
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                // Gone after a successful move; otherwise a failed write must not leave it behind
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Loads a snapshot written by {@link #save}; entries past their TTL are skipped,
+     * and a missing, foreign-format or unreadable file is ignored.
+     */
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        long expiredBefore = System.currentTimeMillis() - ttlMillis;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long fetchedAt = in.readLong();
+                ItemResponse item = new ItemResponse(in.readUTF(), readNullable(in), readNullable(in),
+                        readNullable(in), in.readDouble(), readNullable(in));
+                if (fetchedAt > expiredBefore) {
+                    items.put(item.getId(), new CachedItem(item, fetchedAt));
+                }
+            }
+        } catch (IOException e) {
+            // A truncated snapshot keeps the entries read so far
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
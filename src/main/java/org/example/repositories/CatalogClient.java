@@ -1,12 +1,33 @@
 package org.example.repositories;
 
 import org.example.dto.ItemResponse;
+import org.example.dto.RestaurantPrices;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 
-@FeignClient(name = "catalog-service", url = "http://localhost:8081")
+import java.util.ArrayList;
+import java.util.List;
+
+// Not primary: callers get CachingCatalogClient, which delegates to this client
+@FeignClient(name = "catalog-service", url = "${order.catalog.url:http://localhost:8081}", qualifiers = "remoteCatalogClient", primary = false)
 public interface CatalogClient {
     @GetMapping("/items/{itemId}")
     ItemResponse getItemById(@PathVariable("itemId") String itemId);
+
+    @GetMapping("/restaurants/{restaurantId}/prices")
+    RestaurantPrices getRestaurantPrices(@PathVariable("restaurantId") String restaurantId);
+
+    /**
+     * Looks up a basket's items, in request order, with {@code null} for unknown
+     * items. Fetched one at a time here; {@link CachingCatalogClient} fetches
+     * cache misses concurrently.
+     */
+    default List<ItemResponse> getItemsById(List<String> itemIds) {
+        List<ItemResponse> items = new ArrayList<>(itemIds.size());
+        for (String itemId : itemIds) {
+            items.add(getItemById(itemId));
+        }
+        return items;
+    }
 }
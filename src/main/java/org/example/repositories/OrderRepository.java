@@ -1,11 +1,88 @@
 package org.example.repositories;
 
 
+import org.example.dto.OrderState;
+import org.example.dto.OrderSummary;
 import org.example.models.Order;
+import org.example.models.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Order lookups fetch {@code items} in the same query: orders read on shard scatter
+ * threads, or with open-in-view off, are detached by the time items are read.
+ */
 public interface OrderRepository extends JpaRepository<Order, String> {
+    @Override
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findById(String id);
+
+    @Override
+    @EntityGraph(attributePaths = "items")
+    List<Order> findAll();
+
+    @EntityGraph(attributePaths = "items")
     List<Order> findAllByUserId(String userId);
-}
\ No newline at end of file
+
+    @Query("""
+            select new org.example.dto.OrderSummary(o.id, o.status, o.totalPrice, size(o.items), o.createdAt)
+            from Order o
+            where o.userId = :userId
+              and (:status is null or o.status = :status)
+              and (:from is null or o.createdAt >= :from)
+              and (:to is null or o.createdAt < :to)
+              and (:afterCreatedAt is null
+                   or o.createdAt < :afterCreatedAt
+                   or (o.createdAt = :afterCreatedAt and o.id < :afterId))
+            order by o.createdAt desc, o.id desc
+            """)
+    List<OrderSummary> findOrderSummaries(@Param("userId") String userId,
+                                          @Param("status") OrderStatus status,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                          @Param("afterId") String afterId,
+                                          Pageable pageable);
+
+    /**
+     * Moves an order to {@code status} in a single statement, only if its current
+     * status is still {@code expected}. Returns the number of rows updated.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Order o
+            set o.status = :status, o.version = o.version + 1
+            where o.id = :id and o.status = :expected
+            """)
+    int transitionStatus(@Param("id") String id,
+                         @Param("expected") OrderStatus expected,
+                         @Param("status") OrderStatus status);
+
+    /**
+     * Moves each of {@code ids} still in {@code expected} to {@code status}; used to
+     * flush buffered status changes in one statement per batch.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Order o set o.status = :status, o.version = o.version + 1
+            where o.id in :ids and o.status = :expected
+            """)
+    int transitionStatuses(@Param("ids") Collection<String> ids,
+                           @Param("expected") OrderStatus expected,
+                           @Param("status") OrderStatus status);
+
+    @Query("select new org.example.dto.OrderState(o.status, o.createdAt) from Order o where o.id = :id")
+    Optional<OrderState> findStateById(@Param("id") String id);
+
+    @Query("select distinct o from Order o left join fetch o.items where o.id in :ids")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<String> ids);
+}
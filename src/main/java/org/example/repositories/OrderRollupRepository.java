@@ -0,0 +1,49 @@
+package org.example.repositories;
+
+import org.example.dto.OrderRollupTotal;
+import org.example.models.OrderRollup;
+import org.example.models.OrderRollupId;
+import org.example.models.RollupDimension;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, OrderRollupId> {
+
+    @Modifying
+    @Query("""
+            update OrderRollup r
+            set r.orderCount = r.orderCount + :count, r.revenue = r.revenue + :revenue
+            where r.id.dimension = :#{#id.dimension}
+              and r.id.dimensionKey = :#{#id.dimensionKey}
+              and r.id.bucketStart = :#{#id.bucketStart}
+              and r.id.currency = :#{#id.currency}
+              and r.id.stripe = :#{#id.stripe}
+            """)
+    int increment(@Param("id") OrderRollupId id, @Param("count") long count, @Param("revenue") BigDecimal revenue);
+
+    /**
+     * Sums a dimension's rows between {@code from} (inclusive) and {@code to}
+     * (exclusive), folding stripes together. Returns one row per key, bucket and currency.
+     */
+    @Query("""
+            select new org.example.dto.OrderRollupTotal(r.id.dimensionKey, r.id.bucketStart, r.id.currency,
+                                                        sum(r.orderCount), sum(r.revenue))
+            from OrderRollup r
+            where r.id.dimension = :dimension
+              and (:key is null or r.id.dimensionKey = :key)
+              and r.id.bucketStart >= :from
+              and r.id.bucketStart < :to
+            group by r.id.dimensionKey, r.id.bucketStart, r.id.currency
+            order by r.id.bucketStart
+            """)
+    List<OrderRollupTotal> sumByBucket(@Param("dimension") RollupDimension dimension,
+                                       @Param("key") String key,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+}
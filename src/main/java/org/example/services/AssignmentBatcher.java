@@ -0,0 +1,216 @@
+package org.example.services;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.example.exceptions.InternalServerErrorException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import proto.Fulfillment;
+import proto.FulfillmentServiceGrpc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional micro-batching of {@code AssignOrder} calls into {@code AssignOrders}.
+ * One dispatcher thread drains queued assignments into batches of up to
+ * {@code max-batch}. The batch window adapts to load: a lone request is sent at
+ * once, and only while the previous batch carried more than one request does the
+ * dispatcher wait up to {@code max-wait-ms} to fill the next. With
+ * {@code concurrency} batches in flight the dispatcher waits for a free slot, so
+ * slow fulfillment responses grow batches instead of queueing RPCs. If fulfillment
+ * does not implement {@code AssignOrders}, requests are sent one by one.
+ */
+@Component
+public class AssignmentBatcher implements DisposableBean {
+
+    private final FulfillmentServiceGrpc.FulfillmentServiceBlockingStub fulfillmentServiceBlockingStub;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final long timeoutMs;
+    private final BlockingQueue<PendingAssignment> queue = new LinkedBlockingQueue<>();
+    private final Semaphore inFlight;
+    private final ExecutorService senders;
+    private final Thread dispatcher;
+    private volatile boolean batchSupported = true;
+    private volatile boolean running = true;
+
+    record PendingAssignment(Fulfillment.AssignOrderRequest request, CompletableFuture<Fulfillment.AssignOrderResponse> response) {
+    }
+
+    public AssignmentBatcher(FulfillmentServiceGrpc.FulfillmentServiceBlockingStub fulfillmentServiceBlockingStub,
+                             @Value("${order.assign-batch.enabled:false}") boolean enabled,
+                             @Value("${order.assign-batch.max-batch:64}") int maxBatch,
+                             @Value("${order.assign-batch.max-wait-ms:2}") long maxWaitMs,
+                             @Value("${order.assign-batch.concurrency:4}") int concurrency,
+                             @Value("${order.assign-batch.timeout-ms:5000}") long timeoutMs) {
+        this.fulfillmentServiceBlockingStub = fulfillmentServiceBlockingStub;
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.timeoutMs = timeoutMs;
+        this.inFlight = new Semaphore(concurrency);
+        if (enabled) {
+            this.senders = Executors.newFixedThreadPool(concurrency, runnable -> {
+                Thread thread = new Thread(runnable, "assign-batch-sender");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.dispatcher = new Thread(this::dispatch, "assign-batch-dispatcher");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        } else {
+            this.senders = null;
+            this.dispatcher = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues an assignment and waits up to {@code timeout-ms} for its own result.
+     * A request that times out before it is sent is dropped, but one already on its
+     * way to fulfillment is not recalled: a timeout does not mean the order was not
+     * assigned, only that the answer did not arrive in time.
+     */
+    public Fulfillment.AssignOrderResponse assign(Fulfillment.AssignOrderRequest request) {
+        CompletableFuture<Fulfillment.AssignOrderResponse> response = new CompletableFuture<>();
+        queue.add(new PendingAssignment(request, response));
+        try {
+            return response.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new InternalServerErrorException("Failed to assign order to a delivery person.");
+        }
+    }
+
+    private void dispatch() {
+        int lastBatchSize = 0;
+        while (running) {
+            try {
+                List<PendingAssignment> batch = new ArrayList<>(maxBatch);
+                batch.add(queue.take());
+                queue.drainTo(batch, maxBatch - 1);
+                if (lastBatchSize > 1) {
+                    long deadline = System.nanoTime() + maxWaitNanos;
+                    while (batch.size() < maxBatch) {
+                        PendingAssignment next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                        queue.drainTo(batch, maxBatch - batch.size());
+                    }
+                }
+                // Callers that already timed out are not sent at all
+                batch.removeIf(pending -> pending.response().isDone());
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                lastBatchSize = batch.size();
+                inFlight.acquire();
+                senders.execute(() -> {
+                    try {
+                        send(batch);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void send(List<PendingAssignment> queued) {
+        // Waiting for a free slot may have outlasted some callers' timeouts
+        List<PendingAssignment> batch = queued.stream().filter(pending -> !pending.response().isDone()).toList();
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            if (batch.size() == 1 || !batchSupported) {
+                for (PendingAssignment pending : batch) {
+                    sendOne(pending);
+                }
+                return;
+            }
+            Fulfillment.AssignOrdersRequest.Builder request = Fulfillment.AssignOrdersRequest.newBuilder();
+            for (PendingAssignment pending : batch) {
+                request.addAssignments(pending.request());
+            }
+            Fulfillment.AssignOrdersResponse response;
+            try {
+                response = fulfillmentServiceBlockingStub.assignOrders(request.build());
+            } catch (StatusRuntimeException e) {
+                if (e.getStatus().getCode() != Status.Code.UNIMPLEMENTED) {
+                    throw e;
+                }
+                batchSupported = false;
+                for (PendingAssignment pending : batch) {
+                    sendOne(pending);
+                }
+                return;
+            }
+            Map<String, String> statuses = new HashMap<>();
+            for (Fulfillment.AssignOrderResult result : response.getResultsList()) {
+                statuses.put(result.getOrderId(), result.getStatus());
+            }
+            for (PendingAssignment pending : batch) {
+                String status = statuses.get(pending.request().getOrderId());
+                if (status == null) {
+                    pending.response().completeExceptionally(
+                            new InternalServerErrorException("Failed to assign order to a delivery person."));
+                } else {
+                    pending.response().complete(Fulfillment.AssignOrderResponse.newBuilder().setStatus(status).build());
+                }
+            }
+        } catch (RuntimeException e) {
+            for (PendingAssignment pending : batch) {
+                pending.response().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void sendOne(PendingAssignment pending) {
+        if (pending.response().isDone()) {
+            return;
+        }
+        try {
+            pending.response().complete(fulfillmentServiceBlockingStub.assignOrder(pending.request()));
+        } catch (RuntimeException e) {
+            pending.response().completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        dispatcher.interrupt();
+        senders.shutdown();
+        PendingAssignment pending;
+        while ((pending = queue.poll()) != null) {
+            pending.response().completeExceptionally(new InternalServerErrorException("Order service is shutting down."));
+        }
+    }
+}
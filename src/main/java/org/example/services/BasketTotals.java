@@ -0,0 +1,27 @@
+package org.example.services;
+
+import org.example.dto.ItemResponse;
+
+import java.util.List;
+
+/**
+ * Totals a priced basket in minor units with a plain indexed loop, so pricing does
+ * no boxing, streams or intermediate decimals.
+ */
+public final class BasketTotals {
+
+    private BasketTotals() {
+    }
+
+    public static long totalMinorUnits(List<ItemResponse> items, String currency) {
+        long total = 0;
+        for (int i = 0, size = items.size(); i < size; i++) {
+            ItemResponse item = items.get(i);
+            if (!currency.equals(item.getCurrencyOrDefault())) {
+                throw new IllegalArgumentException("Basket mixes currencies " + currency + " and " + item.getCurrencyOrDefault());
+            }
+            total = Math.addExact(total, item.getPriceInMinorUnits());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,197 @@
+package org.example.services;
+
+import org.example.dto.ItemResponse;
+import org.example.dto.RestaurantPrices;
+import org.example.repositories.CatalogClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Versioned per-restaurant price snapshots, so repeat baskets are priced without
+ * calling the catalog. Restaurants are tracked once an order has been priced live
+ * with one of their items, then refreshed every {@code refresh-interval-ms} or when
+ * the catalog reports a change. A snapshot older than {@code max-age-ms}, or one
+ * the catalog has reported changed, is not used, so a catalog outage falls back to
+ * live pricing rather than stale prices.
+ */
+@Component
+public class CatalogPriceSnapshots {
+
+    private final CatalogClient catalogClient;
+    private final boolean enabled;
+    private final long maxAgeNanos;
+    private final int maxRestaurants;
+    private final Map<String, PriceSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, String> restaurantByItem = new ConcurrentHashMap<>();
+    private final Set<String> tracked = ConcurrentHashMap.newKeySet();
+
+    public record PriceQuote(String currency, long totalMinorUnits) {
+    }
+
+    /**
+     * One restaurant's prices as parallel arrays sorted by item id. A {@code changed}
+     * snapshot is kept only for its version, until a newer one replaces it.
+     */
+    record PriceSnapshot(long version, long fetchedAt, String[] itemIds, long[] minorUnits, String[] currencies,
+                         boolean changed) {
+
+        static PriceSnapshot of(RestaurantPrices prices, long fetchedAt) {
+            ItemResponse[] items = prices.getItems().toArray(ItemResponse[]::new);
+            Arrays.sort(items, Comparator.comparing(ItemResponse::getId));
+            String[] itemIds = new String[items.length];
+            long[] minorUnits = new long[items.length];
+            String[] currencies = new String[items.length];
+            for (int i = 0; i < items.length; i++) {
+                itemIds[i] = items[i].getId();
+                minorUnits[i] = items[i].getPriceInMinorUnits();
+                currencies[i] = items[i].getCurrencyOrDefault().intern();
+            }
+            return new PriceSnapshot(prices.getVersion(), fetchedAt, itemIds, minorUnits, currencies, false);
+        }
+
+        PriceSnapshot markChanged() {
+            return new PriceSnapshot(version, fetchedAt, itemIds, minorUnits, currencies, true);
+        }
+
+        int indexOf(String itemId) {
+            return Arrays.binarySearch(itemIds, itemId);
+        }
+    }
+
+    public CatalogPriceSnapshots(CatalogClient catalogClient,
+                                 @Value("${order.price-snapshot.enabled:false}") boolean enabled,
+                                 @Value("${order.price-snapshot.max-age-ms:300000}") long maxAgeMs,
+                                 @Value("${order.price-snapshot.max-restaurants:10000}") int maxRestaurants) {
+        this.catalogClient = catalogClient;
+        this.enabled = enabled;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMs);
+        this.maxRestaurants = maxRestaurants;
+    }
+
+    /**
+     * Prices a basket from fresh snapshots only; {@code null} if any item is not
+     * covered by one or the basket mixes currencies, in which case the caller prices
+     * it live.
+     */
+    public PriceQuote quote(List<String> itemIds) {
+        if (!enabled) {
+            return null;
+        }
+        long now = System.nanoTime();
+        String currency = null;
+        long total = 0;
+        for (int i = 0, size = itemIds.size(); i < size; i++) {
+            String itemId = itemIds.get(i);
+            String restaurantId = restaurantByItem.get(itemId);
+            PriceSnapshot snapshot = restaurantId == null ? null : snapshots.get(restaurantId);
+            if (snapshot == null || snapshot.changed() || now - snapshot.fetchedAt() > maxAgeNanos) {
+                return null;
+            }
+            int index = snapshot.indexOf(itemId);
+            if (index < 0) {
+                return null;
+            }
+            if (currency == null) {
+                currency = snapshot.currencies()[index];
+            } else if (!currency.equals(snapshot.currencies()[index])) {
+                return null;
+            }
+            total = Math.addExact(total, snapshot.minorUnits()[index]);
+        }
+        return currency == null ? null : new PriceQuote(currency, total);
+    }
+
+    /**
+     * Starts tracking the restaurants of live-priced items; their snapshots are
+     * fetched on the next refresh.
+     */
+    public void observe(List<ItemResponse> items) {
+        if (!enabled) {
+            return;
+        }
+        for (ItemResponse item : items) {
+            String restaurantId = item.getRestaurantId();
+            if (restaurantId != null && !tracked.contains(restaurantId) && tracked.size() < maxRestaurants) {
+                tracked.add(restaurantId);
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${order.price-snapshot.refresh-interval-ms:60000}",
+            fixedDelayString = "${order.price-snapshot.refresh-interval-ms:60000}")
+    public void refreshAll() {
+        if (!enabled) {
+            return;
+        }
+        for (String restaurantId : tracked) {
+            refresh(restaurantId);
+        }
+    }
+
+    /**
+     * Handles a catalog change notification: the restaurant's snapshot stops being
+     * used at once, and is fetched again. Until a newer version is stored, its
+     * baskets are priced live, even if the fetch fails.
+     */
+    public boolean priceChanged(String restaurantId) {
+        if (!enabled) {
+            return false;
+        }
+        synchronized (this) {
+            snapshots.computeIfPresent(restaurantId, (id, snapshot) -> snapshot.markChanged());
+        }
+        return refresh(restaurantId);
+    }
+
+    /**
+     * Fetches one restaurant's prices. Returns whether a snapshot was stored or
+     * confirmed current; on failure the previous snapshot is kept until it ages out.
+     */
+    public boolean refresh(String restaurantId) {
+        if (!enabled) {
+            return false;
+        }
+        RestaurantPrices prices;
+        try {
+            prices = catalogClient.getRestaurantPrices(restaurantId);
+        } catch (RuntimeException e) {
+            return false;
+        }
+        if (prices == null || prices.getItems() == null) {
+            return false;
+        }
+        tracked.add(restaurantId);
+        PriceSnapshot next = PriceSnapshot.of(prices, System.nanoTime());
+        synchronized (this) {
+            PriceSnapshot previous = snapshots.get(restaurantId);
+            // An older version can arrive after a newer one; never go backwards, and
+            // replace a snapshot reported changed only with a newer version
+            if (previous != null && (next.version() < previous.version()
+                    || previous.changed() && next.version() == previous.version())) {
+                return false;
+            }
+            snapshots.put(restaurantId, next);
+            for (String itemId : next.itemIds()) {
+                restaurantByItem.put(itemId, restaurantId);
+            }
+            if (previous != null) {
+                // Items dropped from the menu stop resolving to this restaurant
+                for (String itemId : previous.itemIds()) {
+                    if (next.indexOf(itemId) < 0) {
+                        restaurantByItem.remove(itemId, restaurantId);
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,201 @@
+package org.example.services;
+
+import org.example.events.OrderEvent;
+import org.example.models.OrderStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import proto.Fulfillment;
+import proto.FulfillmentServiceGrpc;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Picks the delivery person for new orders from the couriers in
+ * {@code order.delivery.people}, least-loaded first. Available couriers are kept in
+ * a skip list ordered by (open orders, id), so a pick is O(log n); each courier's
+ * load changes under {@link ConcurrentHashMap#compute}, so concurrent picks never
+ * hand out the same slot twice. Loads are seeded and periodically corrected from
+ * fulfillment's {@code GetOrdersByDeliveryPerson}, and released when an order is
+ * delivered, cancelled or deleted. Without couriers, or when everyone is at
+ * {@code max-load}, orders go to {@code default-person-id} and fulfillment balances.
+ */
+@Component
+public class DeliveryAssignmentEngine {
+    private static final Courier LEAST = new Courier(Integer.MIN_VALUE, "");
+
+    private final FulfillmentServiceGrpc.FulfillmentServiceBlockingStub fulfillmentServiceBlockingStub;
+    private final List<String> people;
+    private final int maxLoad;
+    private final String defaultPersonId;
+    private final ConcurrentSkipListSet<Courier> available = new ConcurrentSkipListSet<>(
+            Comparator.comparingInt(Courier::load).thenComparing(Courier::id));
+    private final Map<String, Integer> loads = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> unavailable = new ConcurrentHashMap<>();
+    private final Map<String, String> courierByOrder = new ConcurrentHashMap<>();
+
+    record Courier(int load, String id) {
+    }
+
+    public DeliveryAssignmentEngine(FulfillmentServiceGrpc.FulfillmentServiceBlockingStub fulfillmentServiceBlockingStub,
+                                    @Value("${order.delivery.people:}") List<String> people,
+                                    @Value("${order.delivery.max-load:5}") int maxLoad,
+                                    @Value("${order.delivery.default-person-id:some-delivery-person-id}") String defaultPersonId) {
+        this.fulfillmentServiceBlockingStub = fulfillmentServiceBlockingStub;
+        this.people = people.stream().filter(id -> !id.isBlank()).map(String::trim).distinct().toList();
+        this.maxLoad = maxLoad;
+        this.defaultPersonId = defaultPersonId;
+        for (String id : this.people) {
+            setLoad(id, 0);
+        }
+    }
+
+    /**
+     * Assigns an order to the least-loaded available courier and returns its id. An
+     * order that already holds a slot, such as one replayed from the write-ahead log
+     * after a failed delivery, keeps its courier instead of taking a second slot.
+     */
+    public String assign(String orderId) {
+        String courier = courierByOrder.computeIfAbsent(orderId, id -> pick());
+        return courier == null ? defaultPersonId : courier;
+    }
+
+    /**
+     * Assigns a burst of orders in one pass, spreading them across the least-loaded
+     * couriers; the result is in the order of {@code orderIds}.
+     */
+    public List<String> assignAll(List<String> orderIds) {
+        List<String> couriers = new ArrayList<>(orderIds.size());
+        for (String orderId : orderIds) {
+            couriers.add(assign(orderId));
+        }
+        return couriers;
+    }
+
+    /**
+     * Frees the courier slot held by an order, e.g. when its assignment failed.
+     */
+    public void release(String orderId) {
+        String courier = courierByOrder.remove(orderId);
+        if (courier != null) {
+            loads.computeIfPresent(courier, (id, load) -> reindex(id, load, Math.max(0, load - 1)));
+        }
+    }
+
+    public void setAvailable(String courierId, boolean isAvailable) {
+        loads.computeIfPresent(courierId, (id, load) -> {
+            if (isAvailable) {
+                unavailable.remove(id);
+                available.add(new Courier(load, id));
+            } else {
+                unavailable.put(id, Boolean.TRUE);
+                available.remove(new Courier(load, id));
+            }
+            return load;
+        });
+    }
+
+    public int loadOf(String courierId) {
+        return loads.getOrDefault(courierId, 0);
+    }
+
+    private String pick() {
+        while (true) {
+            Courier first = available.ceiling(LEAST);
+            if (first == null || first.load() >= maxLoad) {
+                return null;
+            }
+            boolean[] won = new boolean[1];
+            loads.computeIfPresent(first.id(), (id, load) -> {
+                // Lost a race if the load moved since first() was read; pick again
+                if (load != first.load() || unavailable.containsKey(id)) {
+                    return load;
+                }
+                won[0] = true;
+                return reindex(id, load, load + 1);
+            });
+            if (won[0]) {
+                return first.id();
+            }
+        }
+    }
+
+    private void setLoad(String courierId, int load) {
+        loads.compute(courierId, (id, current) -> reindex(id, current, load));
+    }
+
+    // Called inside compute for the courier, so index updates for one courier never interleave.
+    // Adds before removing, so a concurrent pick never sees the courier missing.
+    private Integer reindex(String id, Integer from, int to) {
+        if (!unavailable.containsKey(id)) {
+            available.add(new Courier(to, id));
+        }
+        if (from != null && from != to) {
+            available.remove(new Courier(from, id));
+        }
+        return to;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startSeeding() {
+        if (people.isEmpty()) {
+            return;
+        }
+        Thread seeder = new Thread(this::reseed, "delivery-load-seed");
+        seeder.setDaemon(true);
+        seeder.start();
+    }
+
+    /**
+     * Replaces each courier's load with its open orders as reported by fulfillment;
+     * couriers fulfillment cannot answer for keep their current load.
+     */
+    @Scheduled(initialDelayString = "${order.delivery.reseed-interval-ms:300000}",
+            fixedDelayString = "${order.delivery.reseed-interval-ms:300000}")
+    public void reseed() {
+        Map<String, String> open = new HashMap<>();
+        Set<String> answered = new HashSet<>();
+        for (String courier : people) {
+            List<Fulfillment.Order> orders;
+            try {
+                orders = fulfillmentServiceBlockingStub.getOrdersByDeliveryPerson(
+                        Fulfillment.GetOrdersByDeliveryPersonRequest.newBuilder().setDeliveryPersonId(courier).build()).getOrdersList();
+            } catch (RuntimeException e) {
+                continue;
+            }
+            int load = 0;
+            for (Fulfillment.Order order : orders) {
+                OrderStatus status = OrderStatus.parse(order.getStatus());
+                if (status == null || !status.isTerminal()) {
+                    open.put(order.getOrderId(), courier);
+                    load++;
+                }
+            }
+            answered.add(courier);
+            setLoad(courier, load);
+        }
+        courierByOrder.putAll(open);
+        // Orders closed without passing through this instance would otherwise be held forever
+        courierByOrder.entrySet().removeIf(entry -> !open.containsKey(entry.getKey()) && answered.contains(entry.getValue()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        if (event instanceof OrderEvent.StatusChanged changed && changed.status().isTerminal()) {
+            release(changed.orderId());
+        } else if (event instanceof OrderEvent.Deleted deleted) {
+            release(deleted.orderId());
+        }
+    }
+}
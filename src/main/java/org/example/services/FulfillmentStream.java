@@ -0,0 +1,270 @@
+package org.example.services;
+
+import io.grpc.Channel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import proto.Fulfillment;
+import proto.FulfillmentServiceGrpc;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional fulfillment client that sends {@code AssignOrder}, {@code GetOrderStatus}
+ * and {@code UpdateOrderStatus} over one long-lived bidirectional {@code Exchange}
+ * stream, matching replies to callers by correlation id. Writes respect the
+ * stream's flow control (queued until the transport is ready) and at most
+ * {@code max-in-flight} calls are outstanding; a queued request whose caller has
+ * already given up is not written. A broken stream fails its outstanding calls and
+ * is reopened by the next call after {@code reconnect-ms}; until then, and
+ * permanently if fulfillment does not implement {@code Exchange}, calls go through
+ * the unary stub. A stream that stops answering without breaking, e.g. behind a
+ * dropped connection, is cancelled and treated as broken after
+ * {@code max-timeouts} calls in a row time out.
+ */
+@Component
+public class FulfillmentStream implements DisposableBean {
+
+    private final FulfillmentServiceGrpc.FulfillmentServiceStub asyncStub;
+    private final FulfillmentServiceGrpc.FulfillmentServiceBlockingStub fulfillmentServiceBlockingStub;
+    private final boolean enabled;
+    private final long timeoutMs;
+    private final long reconnectNanos;
+    private final int maxTimeouts;
+    private final Semaphore inFlight;
+    private final AtomicLong correlationIds = new AtomicLong();
+    private final Object streamLock = new Object();
+    private Connection connection;
+    private long reconnectAt;
+    private volatile boolean unsupported;
+
+    public FulfillmentStream(Channel fulfillmentChannel,
+                             FulfillmentServiceGrpc.FulfillmentServiceBlockingStub fulfillmentServiceBlockingStub,
+                             @Value("${order.fulfillment-stream.enabled:false}") boolean enabled,
+                             @Value("${order.fulfillment-stream.timeout-ms:5000}") long timeoutMs,
+                             @Value("${order.fulfillment-stream.max-in-flight:1000}") int maxInFlight,
+                             @Value("${order.fulfillment-stream.reconnect-ms:1000}") long reconnectMs,
+                             @Value("${order.fulfillment-stream.max-timeouts:3}") int maxTimeouts) {
+        this.asyncStub = FulfillmentServiceGrpc.newStub(fulfillmentChannel);
+        this.fulfillmentServiceBlockingStub = fulfillmentServiceBlockingStub;
+        this.enabled = enabled;
+        this.timeoutMs = timeoutMs;
+        this.reconnectNanos = TimeUnit.MILLISECONDS.toNanos(reconnectMs);
+        this.maxTimeouts = maxTimeouts;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Fulfillment.AssignOrderResponse assignOrder(Fulfillment.AssignOrderRequest request) {
+        Fulfillment.FulfillmentEnvelope reply = call(Fulfillment.FulfillmentEnvelope.newBuilder().setAssignOrder(request));
+        return reply == null ? fulfillmentServiceBlockingStub.assignOrder(request) : reply.getAssignOrderResult();
+    }
+
+    public Fulfillment.GetOrderStatusResponse getOrderStatus(Fulfillment.GetOrderStatusRequest request) {
+        Fulfillment.FulfillmentEnvelope reply = call(Fulfillment.FulfillmentEnvelope.newBuilder().setGetOrderStatus(request));
+        return reply == null ? fulfillmentServiceBlockingStub.getOrderStatus(request) : reply.getGetOrderStatusResult();
+    }
+
+    public Fulfillment.UpdateOrderStatusResponse updateOrderStatus(Fulfillment.UpdateOrderStatusRequest request) {
+        Fulfillment.FulfillmentEnvelope reply = call(Fulfillment.FulfillmentEnvelope.newBuilder().setUpdateOrderStatus(request));
+        return reply == null ? fulfillmentServiceBlockingStub.updateOrderStatus(request) : reply.getUpdateOrderStatusResult();
+    }
+
+    /**
+     * Sends one request over the stream and waits for its reply; {@code null} if no
+     * stream is available, or it closed before the request was written, in which case
+     * nothing was sent.
+     */
+    private Fulfillment.FulfillmentEnvelope call(Fulfillment.FulfillmentEnvelope.Builder request) {
+        Connection stream = connection();
+        if (stream == null) {
+            return null;
+        }
+        try {
+            if (!inFlight.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw Status.RESOURCE_EXHAUSTED.withDescription("Too many fulfillment calls in flight").asRuntimeException();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Status.CANCELLED.withCause(e).asRuntimeException();
+        }
+        long correlationId = correlationIds.incrementAndGet();
+        CompletableFuture<Fulfillment.FulfillmentEnvelope> reply = new CompletableFuture<>();
+        stream.pending.put(correlationId, reply);
+        reply.whenComplete((result, failure) -> {
+            stream.pending.remove(correlationId);
+            inFlight.release();
+        });
+        Fulfillment.FulfillmentEnvelope envelope = request.setCorrelationId(correlationId).build();
+        stream.send(envelope);
+        if (stream.closed) {
+            // Closed before the request was registered, so the close sweep missed it
+            if (stream.withdraw(envelope)) {
+                // Never written, so it is safe to send as a unary call
+                reply.cancel(false);
+                return null;
+            }
+            reply.completeExceptionally(Status.UNAVAILABLE.withDescription("Fulfillment stream closed").asRuntimeException());
+        }
+        Fulfillment.FulfillmentEnvelope result;
+        try {
+            result = reply.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof StatusRuntimeException cause) {
+                if (cause.getStatus().getCode() == Status.Code.UNIMPLEMENTED) {
+                    // Fulfillment never saw the request, so it is safe to resend as a unary call
+                    return null;
+                }
+                throw cause;
+            }
+            if (e.getCause() instanceof TimeoutException && stream.timeouts.incrementAndGet() >= maxTimeouts) {
+                stream.cancel();
+                closed(stream, Status.DEADLINE_EXCEEDED.withDescription(maxTimeouts + " fulfillment stream calls in a row timed out")
+                        .asRuntimeException());
+            }
+            throw Status.DEADLINE_EXCEEDED.withCause(e.getCause()).asRuntimeException();
+        }
+        if (result.getBodyCase() == Fulfillment.FulfillmentEnvelope.BodyCase.ERROR) {
+            throw Status.INTERNAL.withDescription(result.getError()).asRuntimeException();
+        }
+        return result;
+    }
+
+    private Connection connection() {
+        if (!enabled || unsupported) {
+            return null;
+        }
+        synchronized (streamLock) {
+            if (connection == null && System.nanoTime() - reconnectAt >= 0) {
+                Connection opened = new Connection();
+                connection = opened;
+                asyncStub.exchange(opened);
+            }
+            return connection;
+        }
+    }
+
+    private void closed(Connection stream, Throwable cause) {
+        synchronized (streamLock) {
+            if (connection == stream) {
+                connection = null;
+                reconnectAt = System.nanoTime() + reconnectNanos;
+            }
+        }
+        StatusRuntimeException failure;
+        if (Status.fromThrowable(cause).getCode() == Status.Code.UNIMPLEMENTED) {
+            unsupported = true;
+            failure = Status.UNIMPLEMENTED.withCause(cause).asRuntimeException();
+        } else {
+            failure = Status.UNAVAILABLE.withDescription("Fulfillment stream closed").withCause(cause).asRuntimeException();
+        }
+        for (CompletableFuture<Fulfillment.FulfillmentEnvelope> reply : stream.pending.values()) {
+            reply.completeExceptionally(failure);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        Connection stream;
+        synchronized (streamLock) {
+            stream = connection;
+            connection = null;
+            // Calls during shutdown go straight to the unary stub
+            unsupported = true;
+        }
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private final class Connection implements ClientResponseObserver<Fulfillment.FulfillmentEnvelope, Fulfillment.FulfillmentEnvelope> {
+        private final Map<Long, CompletableFuture<Fulfillment.FulfillmentEnvelope>> pending = new ConcurrentHashMap<>();
+        private final Queue<Fulfillment.FulfillmentEnvelope> outbound = new ConcurrentLinkedQueue<>();
+        // Calls timed out since the last reply
+        private final AtomicInteger timeouts = new AtomicInteger();
+        private ClientCallStreamObserver<Fulfillment.FulfillmentEnvelope> requests;
+        private volatile boolean closed;
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<Fulfillment.FulfillmentEnvelope> requests) {
+            this.requests = requests;
+            requests.setOnReadyHandler(this::drain);
+        }
+
+        void send(Fulfillment.FulfillmentEnvelope envelope) {
+            outbound.add(envelope);
+            drain();
+        }
+
+        // StreamObserver is not thread-safe, so writes are serialised here
+        private synchronized void drain() {
+            while (!closed && requests.isReady()) {
+                Fulfillment.FulfillmentEnvelope next = outbound.poll();
+                if (next == null) {
+                    return;
+                }
+                // Unregistered once the caller's reply completed, typically by timing out
+                if (pending.containsKey(next.getCorrelationId())) {
+                    requests.onNext(next);
+                }
+            }
+        }
+
+        // Takes back a request not yet written; holds the drain lock so none is in progress
+        synchronized boolean withdraw(Fulfillment.FulfillmentEnvelope envelope) {
+            return outbound.remove(envelope);
+        }
+
+        synchronized void close() {
+            if (!closed) {
+                closed = true;
+                requests.onCompleted();
+            }
+        }
+
+        synchronized void cancel() {
+            if (!closed) {
+                closed = true;
+                requests.cancel("Fulfillment stream stopped answering", null);
+            }
+        }
+
+        @Override
+        public void onNext(Fulfillment.FulfillmentEnvelope reply) {
+            timeouts.set(0);
+            CompletableFuture<Fulfillment.FulfillmentEnvelope> caller = pending.get(reply.getCorrelationId());
+            if (caller != null) {
+                caller.complete(reply);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            closed = true;
+            closed(this, t);
+        }
+
+        @Override
+        public void onCompleted() {
+            closed = true;
+            closed(this, Status.UNAVAILABLE.withDescription("Fulfillment closed the stream").asRuntimeException());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.services;
+
+import org.example.events.OrderEvent;
+import org.example.models.OrderStatus;
+import org.example.sharding.OrderShards;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Moves delivered and cancelled orders older than {@code order.archive.after-days}
+ * from {@code orders} to {@code orders_archive} in small batches, so the hot table
+ * and its indexes only hold recent and open orders. On PostgreSQL the archive is
+ * range-partitioned by year and the partition for each batch is created on demand.
+ */
+@Component
+@ConditionalOnProperty(name = "order.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderArchiver {
+    private static final String TERMINAL_CODES = terminalCodes();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderShards orderShards;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int afterDays;
+    private final int batchSize;
+    private volatile Boolean partitioned;
+
+    public OrderArchiver(JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         OrderShards orderShards,
+                         ApplicationEventPublisher eventPublisher,
+                         @Value("${order.archive.after-days:90}") int afterDays,
+                         @Value("${order.archive.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.orderShards = orderShards;
+        this.eventPublisher = eventPublisher;
+        this.afterDays = afterDays;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${order.archive.initial-delay-ms:60000}",
+            fixedDelayString = "${order.archive.interval-ms:600000}")
+    public void archiveTerminalOrders() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+        for (int shard = 0; shard < orderShards.count(); shard++) {
+            orderShards.runOnShard(shard, () -> archiveBefore(cutoff));
+        }
+    }
+
+    /**
+     * Returns the number of orders archived on the current shard.
+     */
+    public long archiveBefore(LocalDateTime cutoff) {
+        long archived = 0;
+        int moved;
+        do {
+            // Short transactions: one batch each, so locks on orders are held briefly
+            Integer batch = transactionTemplate.execute(tx -> archiveBatch(cutoff));
+            moved = batch == null ? 0 : batch;
+            archived += moved;
+        } while (moved == batchSize);
+        return archived;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "select id, created_at from orders where status in (" + TERMINAL_CODES + ") and created_at < ?"
+                        + " order by created_at limit ?",
+                Timestamp.valueOf(cutoff), batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Object> ids = new ArrayList<>(rows.size());
+        Set<Integer> years = new TreeSet<>();
+        for (Map<String, Object> row : rows) {
+            ids.add(row.get("id"));
+            years.add(((Timestamp) row.get("created_at")).toLocalDateTime().getYear());
+        }
+        if (isPartitioned()) {
+            for (int year : years) {
+                createPartitionIfMissing(year);
+            }
+        }
+        String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Object[] args = ids.toArray();
+        jdbcTemplate.update("insert into orders_archive (id, user_id, total_price, currency, status, created_at, version, archived_at)"
+                + " select id, user_id, total_price, currency, status, created_at, version, current_timestamp"
+                + " from orders where id in (" + in + ")", args);
+        jdbcTemplate.update("insert into order_items_archive (order_id, items)"
+                + " select order_id, items from order_items where order_id in (" + in + ")", args);
+        jdbcTemplate.update("delete from order_items where order_id in (" + in + ")", args);
+        int deleted = jdbcTemplate.update("delete from orders where id in (" + in + ")", args);
+        eventPublisher.publishEvent(new OrderEvent.Archived(ids.stream().map(Object::toString).toList()));
+        return deleted;
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            partitioned = "PostgreSQL".equals(product);
+        }
+        return partitioned;
+    }
+
+    private void createPartitionIfMissing(int year) {
+        jdbcTemplate.execute("create table if not exists orders_archive_y" + year
+                + " partition of orders_archive for values from ('" + year + "-01-01') to ('" + (year + 1) + "-01-01')");
+    }
+
+    private static String terminalCodes() {
+        List<String> codes = new ArrayList<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            if (status.isTerminal()) {
+                codes.add(Short.toString(status.getCode()));
+            }
+        }
+        return String.join(", ", codes);
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.services;
+
+import org.example.dto.OrderSummary;
+import org.example.models.Order;
+
+import java.util.Collection;
+
+/**
+ * Weak ETags for order reads, derived from the order state being served so they
+ * can be checked before response serialization. For a single open order that state
+ * includes the status fulfillment reports, so a status changed in fulfillment but
+ * not yet written back still invalidates the tag. Weak because the same state is
+ * served as JSON, compact JSON or protobuf.
+ */
+final class OrderETags {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private OrderETags() {
+    }
+
+    static String of(Order order) {
+        return format(mix(FNV_OFFSET, order));
+    }
+
+    static String ofOrders(Collection<Order> orders) {
+        long hash = mix(FNV_OFFSET, orders.size());
+        for (Order order : orders) {
+            hash = mix(hash, order);
+        }
+        return format(hash);
+    }
+
+    static String ofSummaries(Collection<OrderSummary> summaries, boolean includeItems, boolean hasMore) {
+        long hash = mix(FNV_OFFSET, summaries.size());
+        hash = mix(hash, includeItems ? 1 : 0);
+        hash = mix(hash, hasMore ? 1 : 0);
+        for (OrderSummary summary : summaries) {
+            hash = mix(hash, summary.getId());
+            hash = mix(hash, summary.getStatus() != null ? summary.getStatus().getCode() : -1);
+            hash = mix(hash, summary.getTotalPrice() != null ? summary.getTotalPrice().hashCode() : 0L);
+            hash = mix(hash, summary.getItemCount() != null ? summary.getItemCount() : -1);
+        }
+        return format(hash);
+    }
+
+    /**
+     * Weak comparison of an {@code If-None-Match} header value against an ETag.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || stripWeak(value).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long mix(long hash, Order order) {
+        hash = mix(hash, order.getId());
+        hash = mix(hash, order.getVersion() != null ? order.getVersion() : -1L);
+        hash = mix(hash, order.getStatus() != null ? order.getStatus().getCode() : -1);
+        hash = mix(hash, order.getTotalPrice() != null ? order.getTotalPrice().hashCode() : 0L);
+        return mix(hash, order.getItems() != null ? order.getItems().size() : -1);
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return mix(hash, -1L);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return mix(hash, value.length());
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = (hash ^ (value & 0xff)) * FNV_PRIME;
+            value >>>= 8;
+        }
+        return hash;
+    }
+
+    private static String format(long hash) {
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
@@ -0,0 +1,258 @@
+package org.example.services;
+
+import org.example.dto.OrderResponse;
+import org.example.events.OrderEvent;
+import org.example.models.Order;
+import org.example.models.OrderStatus;
+import org.example.sharding.OrderShards;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional in-memory read side for order lookups by id and by user. It is loaded
+ * from the database with plain JDBC after startup and kept current from
+ * {@link OrderEvent}s, and holds ready-made responses and ETags, so hits involve
+ * no Hibernate session, entity loading or response copying.
+ * <p>
+ * Events are local to this instance, so with several instances writing orders
+ * each one only sees its own changes; enable it only where one instance writes.
+ */
+@Component
+public class OrderReadModel {
+    private static final int FETCH_SIZE = 1000;
+    private static final int PRICE_SCALE = 4;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final OrderShards orderShards;
+    private final boolean enabled;
+    private final Map<String, OrderView> byId = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> byUser = new ConcurrentHashMap<>();
+    private final Object buildLock = new Object();
+    private List<OrderEvent> duringBuild;
+    private volatile boolean ready;
+
+    /**
+     * An order as served: the order, its response body and its ETag.
+     */
+    public record OrderView(Order order, OrderResponse response, String etag) {
+
+        static OrderView of(Order order) {
+            return new OrderView(order, new OrderResponse(order), OrderETags.of(order));
+        }
+    }
+
+    public OrderReadModel(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          OrderShards orderShards,
+                          @Value("${order.read-model.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Drivers such as PostgreSQL only honour the fetch size with autocommit off
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.orderShards = orderShards;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public OrderView get(String orderId) {
+        return byId.get(orderId);
+    }
+
+    public List<OrderView> getByUser(String userId) {
+        Set<String> ids = byUser.get(userId);
+        if (ids == null) {
+            return List.of();
+        }
+        List<OrderView> views = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            OrderView view = byId.get(id);
+            if (view != null) {
+                views.add(view);
+            }
+        }
+        return views;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBuilding() {
+        if (!enabled) {
+            return;
+        }
+        Thread builder = new Thread(this::build, "order-read-model-build");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Loads every order and then applies the events that arrived meanwhile.
+     */
+    public void build() {
+        synchronized (buildLock) {
+            duringBuild = new ArrayList<>();
+        }
+        for (int shard = 0; shard < orderShards.count(); shard++) {
+            orderShards.runOnShard(shard, () -> readOnlyTransaction.executeWithoutResult(tx -> loadShard()));
+        }
+        synchronized (buildLock) {
+            replay(duringBuild);
+            duringBuild = null;
+            ready = true;
+        }
+    }
+
+    /**
+     * Applies events buffered during the build. A loaded row may already include some
+     * of them, and status events carry no version, so an order's status changes up to
+     * the last one matching its loaded status are skipped and the rest bump the
+     * loaded version once each.
+     */
+    private void replay(List<OrderEvent> events) {
+        Map<String, Integer> lastLoaded = new HashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            if (events.get(i) instanceof OrderEvent.StatusChanged changed) {
+                OrderView loaded = byId.get(changed.orderId());
+                if (loaded != null && loaded.order().getStatus() == changed.status()) {
+                    lastLoaded.put(changed.orderId(), i);
+                }
+            }
+        }
+        for (int i = 0; i < events.size(); i++) {
+            OrderEvent event = events.get(i);
+            if (event instanceof OrderEvent.Created created && byId.containsKey(created.order().getId())) {
+                continue;
+            }
+            if (event instanceof OrderEvent.StatusChanged changed && i <= lastLoaded.getOrDefault(changed.orderId(), -1)) {
+                continue;
+            }
+            apply(event);
+        }
+    }
+
+    private void loadShard() {
+        Map<String, List<String>> items = new HashMap<>();
+        query("select order_id, items from order_items", row -> {
+            items.computeIfAbsent(row.getString("order_id"), id -> new ArrayList<>()).add(row.getString("items"));
+        });
+        query("select id, user_id, total_price, currency, status, created_at, version from orders", row -> {
+            String id = row.getString("id");
+            Order order = Order.builder()
+                    .id(id)
+                    .userId(row.getString("user_id"))
+                    .items(items.getOrDefault(id, List.of()))
+                    .totalPrice(row.getBigDecimal("total_price"))
+                    .currency(row.getString("currency"))
+                    .status(OrderStatus.fromCode(row.getShort("status")))
+                    .createdAt(row.getTimestamp("created_at").toLocalDateTime())
+                    .version(row.getObject("version", Long.class))
+                    .build();
+            // Events seen meanwhile are buffered and replayed on top once loading ends
+            byId.put(id, OrderView.of(order));
+            index(order.getUserId(), id);
+        });
+    }
+
+    /**
+     * Streams {@code sql} in batches of {@value #FETCH_SIZE} rows; callers run it in a
+     * read-only transaction. The fetch size is set per statement, since the
+     * {@link JdbcTemplate} bean is shared.
+     */
+    private void query(String sql, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, handler);
+    }
+
+    /**
+     * Events published inside a transaction are applied once it commits; during a
+     * build they are only buffered.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (buildLock) {
+            if (duringBuild != null) {
+                duringBuild.add(event);
+                return;
+            }
+        }
+        apply(event);
+    }
+
+    private void apply(OrderEvent event) {
+        if (event instanceof OrderEvent.Created created) {
+            Order source = created.order();
+            Order order = snapshot(source, source.getStatus(), source.getVersion());
+            byId.put(order.getId(), OrderView.of(order));
+            index(order.getUserId(), order.getId());
+        } else if (event instanceof OrderEvent.StatusChanged changed) {
+            byId.computeIfPresent(changed.orderId(), (id, view) -> OrderView.of(withStatus(view.order(), changed.status())));
+        } else if (event instanceof OrderEvent.Deleted deleted) {
+            remove(deleted.orderId());
+        } else if (event instanceof OrderEvent.Archived archived) {
+            archived.orderIds().forEach(this::remove);
+        }
+    }
+
+    private void index(String userId, String orderId) {
+        byUser.computeIfAbsent(userId, user -> ConcurrentHashMap.newKeySet()).add(orderId);
+    }
+
+    private void remove(String orderId) {
+        OrderView removed = byId.remove(orderId);
+        if (removed != null) {
+            byUser.computeIfPresent(removed.order().getUserId(), (user, ids) -> {
+                ids.remove(orderId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static Order withStatus(Order order, OrderStatus status) {
+        // Mirrors the version bump of the conditional status UPDATE
+        return snapshot(order, status, order.getVersion() == null ? null : order.getVersion() + 1);
+    }
+
+    /**
+     * Copies an order so later changes to the caller's entity cannot leak into the
+     * model, with the price at column scale so ETags match a database load.
+     */
+    private static Order snapshot(Order order, OrderStatus status, Long version) {
+        return Order.builder()
+                .id(order.getId())
+                .userId(order.getUserId())
+                .items(List.copyOf(order.getItems()))
+                .totalPrice(order.getTotalPrice().setScale(PRICE_SCALE))
+                .currency(order.getCurrency())
+                .status(status)
+                .createdAt(order.getCreatedAt())
+                .version(version)
+                .build();
+    }
+
+    public int size() {
+        return byId.size();
+    }
+}
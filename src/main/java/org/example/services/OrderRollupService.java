@@ -0,0 +1,201 @@
+package org.example.services;
+
+import org.example.dto.ApiResponse;
+import org.example.dto.OrderRollupTotal;
+import org.example.models.Order;
+import org.example.models.OrderRollup;
+import org.example.models.OrderRollupId;
+import org.example.models.OrderStatus;
+import org.example.models.RollupDimension;
+import org.example.repositories.OrderRollupRepository;
+import org.example.sharding.OrderShards;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.example.constants.Constants.FETCHED;
+
+/**
+ * Keeps the {@code order_rollups} counters in step with order writes and answers
+ * aggregate queries from them, so dashboards read a handful of bucket rows instead
+ * of scanning {@code orders}. Increments run inside the caller's transaction, so
+ * rollup rows live on the same shard as the orders they count.
+ * <p>
+ * Status rows hold the current distribution: each order is counted once, under its
+ * current status, in the bucket of its creation time.
+ */
+@Service
+public class OrderRollupService {
+    static final String TOTAL_KEY = "all";
+    private static final long MAX_RANGE_DAYS = 366;
+
+    private final OrderRollupRepository orderRollupRepository;
+    private final OrderShards orderShards;
+    private final TransactionTemplate newTransaction;
+
+    public OrderRollupService(OrderRollupRepository orderRollupRepository, OrderShards orderShards,
+                              PlatformTransactionManager transactionManager) {
+        this.orderRollupRepository = orderRollupRepository;
+        this.orderShards = orderShards;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void recordCreated(Order order) {
+        LocalDateTime at = order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+        BigDecimal revenue = order.getTotalPrice();
+        increment(RollupDimension.TOTAL, TOTAL_KEY, at, order.getCurrency(), revenue);
+        increment(RollupDimension.USER, order.getUserId(), at, order.getCurrency(), revenue);
+        increment(RollupDimension.STATUS, OrderStatus.PENDING.getLabel(), at, "", BigDecimal.ZERO);
+    }
+
+    /**
+     * Takes a deleted order back out of the buckets it is counted in.
+     */
+    public void recordDeleted(Order order) {
+        LocalDateTime at = order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+        BigDecimal revenue = order.getTotalPrice() != null ? order.getTotalPrice().negate() : BigDecimal.ZERO;
+        increment(RollupDimension.TOTAL, TOTAL_KEY, at, order.getCurrency(), -1, revenue);
+        increment(RollupDimension.USER, order.getUserId(), at, order.getCurrency(), -1, revenue);
+        if (order.getStatus() != null) {
+            increment(RollupDimension.STATUS, order.getStatus().getLabel(), at, "", -1, BigDecimal.ZERO);
+        }
+    }
+
+    /**
+     * Moves an order created at {@code createdAt} from the {@code from} count to the
+     * {@code to} count of its bucket.
+     */
+    public void recordStatusChange(OrderStatus from, OrderStatus to, LocalDateTime createdAt) {
+        recordStatusChanges(from, to, createdAt, 1);
+    }
+
+    public void recordStatusChanges(OrderStatus from, OrderStatus to, LocalDateTime createdAt, long count) {
+        increment(RollupDimension.STATUS, from.getLabel(), createdAt, "", -count, BigDecimal.ZERO);
+        increment(RollupDimension.STATUS, to.getLabel(), createdAt, "", count, BigDecimal.ZERO);
+    }
+
+    /**
+     * The status bucket an order created at {@code createdAt} is counted in; orders
+     * in the same bucket can share one {@link #recordStatusChanges} call.
+     */
+    public static LocalDateTime statusBucket(LocalDateTime createdAt) {
+        return createdAt.truncatedTo(RollupDimension.STATUS.getGranularity());
+    }
+
+    private void increment(RollupDimension dimension, String key, LocalDateTime at, String currency, BigDecimal revenue) {
+        increment(dimension, key, at, currency, 1, revenue);
+    }
+
+    private void increment(RollupDimension dimension, String key, LocalDateTime at, String currency, long count, BigDecimal revenue) {
+        short stripe = (short) (dimension.getStripes() == 1 ? 0 : ThreadLocalRandom.current().nextInt(dimension.getStripes()));
+        OrderRollupId id = new OrderRollupId(dimension, key, at.truncatedTo(dimension.getGranularity()), currency, stripe);
+        if (orderRollupRepository.increment(id, count, revenue) == 0) {
+            // First write to this bucket: create the zero row on the side so a lost
+            // insert race cannot poison the caller's transaction, then increment it.
+            createIfAbsent(id);
+            orderRollupRepository.increment(id, count, revenue);
+        }
+    }
+
+    private void createIfAbsent(OrderRollupId id) {
+        try {
+            newTransaction.executeWithoutResult(tx -> {
+                if (!orderRollupRepository.existsById(id)) {
+                    orderRollupRepository.save(new OrderRollup(id, 0, BigDecimal.ZERO));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another writer created the row first.
+        }
+    }
+
+    public ResponseEntity<ApiResponse> getStatusBreakdown(LocalDateTime from, LocalDateTime to) {
+        checkRange(from, to);
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status.getLabel(), 0L);
+        }
+        for (OrderRollupTotal row : orderShards.gather(
+                () -> orderRollupRepository.sumByBucket(RollupDimension.STATUS, null, from, to))) {
+            counts.merge(row.getKey(), row.getOrderCount(), Long::sum);
+        }
+        return fetched(Map.of("from", from, "to", to, "statuses", counts));
+    }
+
+    public ResponseEntity<ApiResponse> getUserTotals(String userId, LocalDateTime from, LocalDateTime to) {
+        checkRange(from, to);
+        List<OrderRollupTotal> rows = orderShards.forUser(userId, () -> orderRollupRepository.sumByBucket(
+                RollupDimension.USER, userId, from.truncatedTo(ChronoUnit.DAYS), to));
+        return fetched(Map.of("userId", userId, "from", from, "to", to, "totals", foldByCurrency(rows, null)));
+    }
+
+    /**
+     * Orders and revenue per time bucket. {@code granularity} is {@code HOURS} or
+     * {@code DAYS}; day buckets are folded from the hourly rows.
+     */
+    public ResponseEntity<ApiResponse> getTimeline(LocalDateTime from, LocalDateTime to, ChronoUnit granularity) {
+        checkRange(from, to);
+        if (granularity != ChronoUnit.HOURS && granularity != ChronoUnit.DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Granularity must be HOURS or DAYS");
+        }
+        List<OrderRollupTotal> rows = orderShards.gather(() -> orderRollupRepository.sumByBucket(
+                RollupDimension.TOTAL, TOTAL_KEY, from.truncatedTo(ChronoUnit.HOURS), to));
+        return fetched(Map.of("from", from, "to", to, "granularity", granularity.name(),
+                "buckets", foldByCurrency(rows, granularity)));
+    }
+
+    /**
+     * Sums rows per currency, and per bucket when {@code granularity} is set.
+     */
+    static List<OrderRollupTotal> foldByCurrency(List<OrderRollupTotal> rows, ChronoUnit granularity) {
+        Map<LocalDateTime, Map<String, OrderRollupTotal>> folded = new TreeMap<>();
+        LocalDateTime allTime = LocalDateTime.MIN;
+        for (OrderRollupTotal row : rows) {
+            LocalDateTime bucket = granularity == null ? allTime : row.getBucketStart().truncatedTo(granularity);
+            OrderRollupTotal total = folded.computeIfAbsent(bucket, b -> new LinkedHashMap<>())
+                    .computeIfAbsent(row.getCurrency(), c -> new OrderRollupTotal(
+                            null, granularity == null ? null : bucket, c, 0L, BigDecimal.ZERO));
+            total.setOrderCount(total.getOrderCount() + row.getOrderCount());
+            total.setRevenue(total.getRevenue().add(row.getRevenue()));
+        }
+        List<OrderRollupTotal> result = new ArrayList<>();
+        for (Map<String, OrderRollupTotal> byCurrency : folded.values()) {
+            result.addAll(byCurrency.values());
+        }
+        return result;
+    }
+
+    private static void checkRange(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_RANGE_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+    }
+
+    private static ResponseEntity<ApiResponse> fetched(Map<String, Object> data) {
+        ApiResponse response = ApiResponse.builder()
+                .message(FETCHED)
+                .status(HttpStatus.OK)
+                .data(data)
+                .build();
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+}
@@ -1,94 +1,299 @@
 package org.example.services;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.example.dto.ApiResponse;
 import org.example.dto.ItemResponse;
+import org.example.dto.OrderCursor;
+import org.example.dto.OrderHistoryQuery;
 import org.example.dto.OrderRequest;
 import org.example.dto.OrderResponse;
+import org.example.dto.OrderState;
+import org.example.dto.OrderSummary;
+import org.example.events.OrderEvent;
 import org.example.exceptions.InternalServerErrorException;
 import org.example.exceptions.OrderIsMisplacedException;
 import org.example.exceptions.OrderNotFoundException;
+import org.example.exceptions.OrderStatusConflictException;
+import org.example.models.ArchivedOrder;
+import org.example.models.Money;
 import org.example.models.Order;
+import org.example.models.OrderStatus;
+import org.example.repositories.ArchivedOrderRepository;
 import org.example.repositories.CatalogClient;
 import org.example.repositories.OrderRepository;
+import org.example.sharding.OrderShards;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 import proto.Fulfillment;
 import proto.FulfillmentServiceGrpc;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.example.constants.Constants.*;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final int MAX_STATUS_UPDATE_ATTEMPTS = 3;
+
     private final OrderRepository orderRepository;
     private final CatalogClient catalogClient;
     private final FulfillmentServiceGrpc.FulfillmentServiceBlockingStub fulfillmentServiceBlockingStub;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderRollupService orderRollupService;
+    private final OrderShards orderShards;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final StatusWriteBuffer statusWriteBuffer;
+    private final OrderWriteAheadLog orderWriteAheadLog;
+    private final OrderReadModel orderReadModel;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogPriceSnapshots catalogPriceSnapshots;
+    private final DeliveryAssignmentEngine deliveryAssignmentEngine;
+    private final AssignmentBatcher assignmentBatcher;
+    private final FulfillmentStream fulfillmentStream;
+    private final StatusReadHedger statusReadHedger;
+
+    @PostConstruct
+    void startWriteAheadLog() {
+        orderWriteAheadLog.start(this::persistAndAssign);
+    }
 
     public ResponseEntity<ApiResponse> createOrder(OrderRequest request) {
         if (request == null || request.getItems() == null || request.getItems().isEmpty() || request.getUserId() == null) {
             throw new IllegalArgumentException("Invalid order request");
         }
-        List<ItemResponse> itemResponses = new ArrayList<>();
-        for (String itemId : request.getItems()) {
-            ItemResponse itemResponse = catalogClient.getItemById(itemId);
-            if (itemResponse == null) {
-                throw new InternalServerErrorException("Item not found: " + itemId);
-            }
-            itemResponses.add(itemResponse);
+        // Repeat baskets are usually covered by fresh price snapshots
+        CatalogPriceSnapshots.PriceQuote quote = catalogPriceSnapshots.quote(request.getItems());
+        if (quote == null) {
+            quote = priceLive(request.getItems());
         }
-        double totalPrice = itemResponses.stream().mapToDouble(ItemResponse::getPrice).sum();
         Order order = Order.builder()
                 .userId(request.getUserId())
                 .items(request.getItems())
-                .totalPrice(totalPrice)
-                .status("Pending")
+                .totalPrice(Money.toDecimal(quote.totalMinorUnits(), quote.currency()))
+                .currency(quote.currency())
+                .status(OrderStatus.PENDING)
                 .build();
-        orderRepository.save(order);
+        if (orderWriteAheadLog.isEnabled()) {
+            // Acknowledge once journaled; the log drains into persistAndAssign
+            order.setId(UUID.randomUUID().toString());
+            order.setCreatedAt(LocalDateTime.now());
+            if (orderWriteAheadLog.append(order)) {
+                ApiResponse response = ApiResponse.builder()
+                        .message(ORDER_ACCEPTED)
+                        .status(HttpStatus.ACCEPTED)
+                        .data(Map.of("order", new OrderResponse(order)))
+                        .build();
+                return ResponseEntity.status(response.getStatus()).body(response);
+            }
+            // The log's backlog is full: store this one synchronously, which fails
+            // rather than queueing if the database is still down
+        }
+        persistAndAssign(order);
+        ApiResponse response = ApiResponse.builder()
+                .message(ORDER_CREATED)
+                .status(HttpStatus.CREATED)
+                .data(Map.of("order", new OrderResponse(order)))
+                .build();
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    private CatalogPriceSnapshots.PriceQuote priceLive(List<String> itemIds) {
+        List<ItemResponse> itemResponses = catalogClient.getItemsById(itemIds);
+        for (int i = 0; i < itemResponses.size(); i++) {
+            if (itemResponses.get(i) == null) {
+                throw new InternalServerErrorException("Item not found: " + itemIds.get(i));
+            }
+        }
+        catalogPriceSnapshots.observe(itemResponses);
+        String currency = itemResponses.get(0).getCurrencyOrDefault();
+        return new CatalogPriceSnapshots.PriceQuote(currency, BasketTotals.totalMinorUnits(itemResponses, currency));
+    }
+
+    /**
+     * Saves a new order with its rollups, then assigns it. An order replayed from the
+     * write-ahead log that is already stored is only assigned again.
+     */
+    private void persistAndAssign(Order order) {
+        orderShards.runForUser(order.getUserId(), () -> transactionTemplate.executeWithoutResult(tx -> {
+            if (order.getId() != null && orderRepository.existsById(order.getId())) {
+                return;
+            }
+            orderRepository.save(order);
+            orderRollupService.recordCreated(order);
+            eventPublisher.publishEvent(new OrderEvent.Created(order));
+        }));
         // Call the FulfillmentService to assign the order
         Fulfillment.AssignOrderRequest assignOrderRequest = Fulfillment.AssignOrderRequest.newBuilder()
                 .setOrderId(order.getId())
-                .setDeliveryPersonId("some-delivery-person-id") // You might want to determine this dynamically
+                .setDeliveryPersonId(deliveryAssignmentEngine.assign(order.getId()))
                 .build();
-        Fulfillment.AssignOrderResponse assignOrderResponse = fulfillmentServiceBlockingStub.assignOrder(assignOrderRequest);
+        Fulfillment.AssignOrderResponse assignOrderResponse;
+        try {
+            if (assignmentBatcher.isEnabled()) {
+                assignOrderResponse = assignmentBatcher.assign(assignOrderRequest);
+            } else if (fulfillmentStream.isEnabled()) {
+                assignOrderResponse = fulfillmentStream.assignOrder(assignOrderRequest);
+            } else {
+                assignOrderResponse = fulfillmentServiceBlockingStub.assignOrder(assignOrderRequest);
+            }
+        } catch (RuntimeException e) {
+            deliveryAssignmentEngine.release(order.getId());
+            throw e;
+        }
         if (!"ASSIGNED".equals(assignOrderResponse.getStatus())) {
+            deliveryAssignmentEngine.release(order.getId());
             throw new InternalServerErrorException("Failed to assign order to a delivery person.");
         }
+    }
+
+    public ResponseEntity<ApiResponse> getOrderById(String orderId) {
+        return getOrderById(orderId, null);
+    }
+
+    /**
+     * Fetches an order, answering {@code 304 Not Modified} straight from the stored
+     * order when {@code ifNoneMatch} still matches, without calling fulfillment.
+     * Orders still in the write-ahead log or already archived are served as they are.
+     * Once the {@link OrderReadModel} is loaded, orders it holds are served from it.
+     */
+    public ResponseEntity<ApiResponse> getOrderById(String orderId, String ifNoneMatch) {
+        if (orderReadModel.isReady()) {
+            OrderReadModel.OrderView view = orderReadModel.get(orderId);
+            if (view != null) {
+                return viewedOrder(view, ifNoneMatch);
+            }
+        }
+        Optional<Order> hot = orderShards.findFirst(() -> orderRepository.findById(orderId));
+        if (hot.isEmpty()) {
+            Order accepted = orderWriteAheadLog.pending(orderId);
+            if (accepted != null) {
+                return storedOrder(accepted, ifNoneMatch);
+            }
+            return storedOrder(orderShards.findFirst(() -> archivedOrderRepository.findById(orderId))
+                    .map(ArchivedOrder::toOrder)
+                    .orElseThrow(() -> new OrderNotFoundException("Order not found")), ifNoneMatch);
+        }
+        Order order = hot.get();
+        applyPendingStatus(order);
+        if (!isSettled(order.getStatus())) {
+            // Fulfillment may have moved the order on, so the ETag must cover the status it reports
+            OrderStatus reportedStatus = OrderStatus.parse(fulfillmentStatus(Fulfillment.GetOrderStatusRequest.newBuilder()
+                    .setOrderId(orderId)
+                    .build()).getStatus());
+            if (reportedStatus != null) {
+                order.setStatus(reportedStatus);
+            }
+        }
+        String etag = OrderETags.of(order);
+        if (OrderETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         ApiResponse response = ApiResponse.builder()
-                .message(ORDER_CREATED)
-                .status(HttpStatus.CREATED)
+                .message(FETCHED)
+                .status(HttpStatus.OK)
                 .data(Map.of("order", new OrderResponse(order)))
                 .build();
-        return ResponseEntity.status(response.getStatus()).body(response);
+        return ResponseEntity.status(response.getStatus()).eTag(etag).body(response);
     }
 
-    public ResponseEntity<ApiResponse> getOrderById(String orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new OrderNotFoundException("Order not found"));
-        // Call the FulfillmentService to get the order status
-        Fulfillment.GetOrderStatusRequest getOrderStatusRequest = Fulfillment.GetOrderStatusRequest.newBuilder()
-                .setOrderId(orderId)
+    /**
+     * A closed order's status can no longer change in fulfillment, so its stored
+     * state alone decides the ETag and no fulfillment call is needed.
+     */
+    private static boolean isSettled(OrderStatus status) {
+        return status != null && status.isTerminal();
+    }
+
+    private ResponseEntity<ApiResponse> viewedOrder(OrderReadModel.OrderView view, String ifNoneMatch) {
+        OrderResponse body = view.response();
+        String etag = view.etag();
+        OrderStatus reportedStatus = isSettled(view.order().getStatus()) ? null : OrderStatus.parse(fulfillmentStatus(
+                Fulfillment.GetOrderStatusRequest.newBuilder().setOrderId(view.order().getId()).build()).getStatus());
+        if (reportedStatus != null && reportedStatus != view.order().getStatus()) {
+            // The cached response is shared, so only a differing status costs a copy
+            Order reported = Order.builder()
+                    .id(view.order().getId())
+                    .userId(view.order().getUserId())
+                    .items(view.order().getItems())
+                    .totalPrice(view.order().getTotalPrice())
+                    .currency(view.order().getCurrency())
+                    .status(reportedStatus)
+                    .version(view.order().getVersion())
+                    .build();
+            body = new OrderResponse(reported);
+            etag = OrderETags.of(reported);
+        }
+        if (OrderETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        ApiResponse response = ApiResponse.builder()
+                .message(FETCHED)
+                .status(HttpStatus.OK)
+                .data(Map.of("order", body))
                 .build();
-        Fulfillment.GetOrderStatusResponse getOrderStatusResponse = fulfillmentServiceBlockingStub.getOrderStatus(getOrderStatusRequest);
-        order.setStatus(getOrderStatusResponse.getStatus());
+        return ResponseEntity.status(response.getStatus()).eTag(etag).body(response);
+    }
+
+    private ResponseEntity<ApiResponse> storedOrder(Order order, String ifNoneMatch) {
+        String etag = OrderETags.of(order);
+        if (OrderETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         ApiResponse response = ApiResponse.builder()
                 .message(FETCHED)
                 .status(HttpStatus.OK)
                 .data(Map.of("order", new OrderResponse(order)))
                 .build();
-        return ResponseEntity.status(response.getStatus()).body(response);
+        return ResponseEntity.status(response.getStatus()).eTag(etag).body(response);
     }
 
     public ResponseEntity<ApiResponse> getOrdersByUserId(String userId) {
-        List<Order> orders = orderRepository.findAllByUserId(userId);
+        return getOrdersByUserId(userId, false);
+    }
+
+    /**
+     * Lists a user's orders. Archived orders live in {@code orders_archive} and are
+     * only appended, after the user's current orders, when {@code includeArchived} is set.
+     */
+    public ResponseEntity<ApiResponse> getOrdersByUserId(String userId, boolean includeArchived) {
         List<OrderResponse> responses = new ArrayList<>();
-        for (Order order : orders) {
-            responses.add(new OrderResponse(order));
+        if (orderReadModel.isReady()) {
+            for (OrderReadModel.OrderView view : orderReadModel.getByUser(userId)) {
+                responses.add(view.response());
+            }
+        } else {
+            List<Order> orders = orderShards.forUser(userId, () -> orderRepository.findAllByUserId(userId));
+            for (Order order : orders) {
+                applyPendingStatus(order);
+                responses.add(new OrderResponse(order));
+            }
+        }
+        if (includeArchived) {
+            for (ArchivedOrder archived : orderShards.forUser(userId, () -> archivedOrderRepository.findAllByUserId(userId))) {
+                responses.add(new OrderResponse(archived.toOrder()));
+            }
         }
         ApiResponse response = ApiResponse.builder()
                 .message(FETCHED)
@@ -98,8 +303,133 @@ public class OrderService {
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
+    /**
+     * Returns one page of a user's order history, newest first, using keyset
+     * pagination on {@code (createdAt, id)}. Pages are summaries unless
+     * {@code includeItems} is set, in which case items are fetched for that page only.
+     * With {@code includeArchived}, archived orders are merged into the same pages.
+     */
+    public ResponseEntity<ApiResponse> getOrderHistory(OrderHistoryQuery query) {
+        if (query == null || query.getUserId() == null) {
+            throw new IllegalArgumentException("Invalid order history request");
+        }
+        int limit = Math.max(1, Math.min(query.getLimit(), MAX_HISTORY_PAGE_SIZE));
+        OrderStatus status = parseStatusFilter(query.getStatus());
+        OrderCursor after = query.getCursor() == null || query.getCursor().isEmpty()
+                ? null
+                : OrderCursor.decode(query.getCursor());
+        List<OrderSummary> summaries = orderShards.forUser(query.getUserId(), () -> orderRepository.findOrderSummaries(
+                query.getUserId(),
+                status,
+                query.getFrom(),
+                query.getTo(),
+                after != null ? after.createdAt() : null,
+                after != null ? after.id() : null,
+                PageRequest.of(0, limit + 1)));
+        if (query.isIncludeArchived()) {
+            // Both tables are read up to a full page on the shared cursor, then merged
+            List<OrderSummary> archived = orderShards.forUser(query.getUserId(), () -> archivedOrderRepository.findOrderSummaries(
+                    query.getUserId(),
+                    status,
+                    query.getFrom(),
+                    query.getTo(),
+                    after != null ? after.createdAt() : null,
+                    after != null ? after.id() : null,
+                    PageRequest.of(0, limit + 1)));
+            summaries = newestFirst(summaries, archived, limit + 1);
+        }
+
+        boolean hasMore = summaries.size() > limit;
+        List<OrderSummary> page = hasMore ? summaries.subList(0, limit) : summaries;
+        if (statusWriteBuffer.isEnabled()) {
+            for (OrderSummary summary : page) {
+                OrderStatus buffered = statusWriteBuffer.pendingStatus(summary.getId());
+                if (buffered != null) {
+                    summary.setStatus(buffered);
+                }
+            }
+        }
+        String etag = OrderETags.ofSummaries(page, query.isIncludeItems(), hasMore);
+        if (OrderETags.matches(query.getIfNoneMatch(), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("orders", query.isIncludeItems()
+                ? orderShards.forUser(query.getUserId(), () -> loadFullOrders(page, query.isIncludeArchived()))
+                : page);
+        if (hasMore) {
+            data.put("nextCursor", OrderCursor.of(page.get(page.size() - 1)).encode());
+        }
+        ApiResponse response = ApiResponse.builder()
+                .message(FETCHED)
+                .status(HttpStatus.OK)
+                .data(data)
+                .build();
+        return ResponseEntity.status(response.getStatus()).eTag(etag).body(response);
+    }
+
+    private void applyPendingStatus(Order order) {
+        OrderStatus buffered = statusWriteBuffer.pendingStatus(order.getId());
+        if (buffered != null) {
+            order.setStatus(buffered);
+        }
+    }
+
+    private static OrderStatus parseStatusFilter(String status) {
+        if (status == null || status.isEmpty()) {
+            return null;
+        }
+        OrderStatus parsed = OrderStatus.parse(status);
+        if (parsed == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown order status: " + status);
+        }
+        return parsed;
+    }
+
+    private static List<OrderSummary> newestFirst(List<OrderSummary> hot, List<OrderSummary> archived, int limit) {
+        List<OrderSummary> merged = new ArrayList<>(hot.size() + archived.size());
+        merged.addAll(hot);
+        merged.addAll(archived);
+        merged.sort(Comparator.comparing(OrderSummary::getCreatedAt).thenComparing(OrderSummary::getId).reversed());
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    private List<OrderResponse> loadFullOrders(List<OrderSummary> page, boolean includeArchived) {
+        if (page.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Order> ordersById = orderRepository.findAllWithItemsByIdIn(
+                        page.stream().map(OrderSummary::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        if (includeArchived && ordersById.size() < page.size()) {
+            List<String> missing = page.stream().map(OrderSummary::getId).filter(id -> !ordersById.containsKey(id)).toList();
+            for (ArchivedOrder archived : archivedOrderRepository.findAllWithItemsByIdIn(missing)) {
+                ordersById.put(archived.getId(), archived.toOrder());
+            }
+        }
+        List<OrderResponse> responses = new ArrayList<>(page.size());
+        for (OrderSummary summary : page) {
+            Order order = ordersById.get(summary.getId());
+            if (order != null) {
+                responses.add(new OrderResponse(order));
+            }
+        }
+        return responses;
+    }
+
     public ResponseEntity<ApiResponse> getAllOrders() {
-        List<Order> orders = orderRepository.findAll();
+        return getAllOrders(null);
+    }
+
+    public ResponseEntity<ApiResponse> getAllOrders(String ifNoneMatch) {
+        List<Order> orders = orderShards.gather(orderRepository::findAll);
+        orders.forEach(this::applyPendingStatus);
+        String etag = OrderETags.ofOrders(orders);
+        if (OrderETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         List<OrderResponse> responses = new ArrayList<>();
         for (Order order : orders) {
             responses.add(new OrderResponse(order));
@@ -109,13 +439,22 @@ public class OrderService {
                 .status(HttpStatus.OK)
                 .data(Map.of("orders", responses))
                 .build();
-        return ResponseEntity.status(response.getStatus()).body(response);
+        return ResponseEntity.status(response.getStatus()).eTag(etag).body(response);
     }
 
     public ResponseEntity<ApiResponse> deleteOrder(String orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new OrderNotFoundException("Order not found"));
-        orderRepository.delete(order);
+        int shard = orderShards.locate(() -> orderRepository.existsById(orderId));
+        if (shard < 0) {
+            throw new OrderNotFoundException("Order not found");
+        }
+        // The rollups lose the order's count and revenue in the same transaction
+        orderShards.runOnShard(shard, () -> transactionTemplate.executeWithoutResult(tx -> {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new OrderNotFoundException("Order not found"));
+            orderRepository.delete(order);
+            orderRollupService.recordDeleted(order);
+        }));
+        eventPublisher.publishEvent(new OrderEvent.Deleted(orderId));
         ApiResponse response = ApiResponse.builder()
                 .message(ORDER_DELETED)
                 .status(HttpStatus.OK)
@@ -123,23 +462,64 @@ public class OrderService {
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
+    /**
+     * Updates the status with a conditional UPDATE rather than find/modify/save. The
+     * target is checked against the {@link OrderStatus} transition table before any
+     * write, and the UPDATE only applies if the status read just before it is still
+     * current; lock conflicts and lost races are retried a few times. Fulfillment is
+     * told after commit, so no row lock or connection is held across the call; if it
+     * fails, the order is moved back unless it has changed again since. With
+     * write-behind enabled the change is handed to {@link StatusWriteBuffer} instead
+     * and written later.
+     */
     public ResponseEntity<ApiResponse> updateOrderStatus(String orderId, String status) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new OrderNotFoundException("Order not found"));
-        if (status.equals("Misplaced")) {
+        OrderStatus target = OrderStatus.parse(status);
+        if (target == OrderStatus.MISPLACED) {
             throw new OrderIsMisplacedException("The order has been marked as misplaced.");
         }
-        // Call the FulfillmentService to update the order status
-        Fulfillment.UpdateOrderStatusRequest updateOrderStatusRequest = Fulfillment.UpdateOrderStatusRequest.newBuilder()
-                .setOrderId(orderId)
-                .setStatus(status)
-                .build();
-        Fulfillment.UpdateOrderStatusResponse updateOrderStatusResponse = fulfillmentServiceBlockingStub.updateOrderStatus(updateOrderStatusRequest);
-        if (!"UPDATED".equals(updateOrderStatusResponse.getStatus())) {
-            throw new InternalServerErrorException("Failed to update order status.");
+        if (target == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown order status: " + status);
+        }
+        if (target.allowedSources().isEmpty()) {
+            throw new OrderStatusConflictException("Orders cannot be moved to " + target.getLabel() + ".");
+        }
+        if (statusWriteBuffer.isEnabled()) {
+            statusWriteBuffer.submit(orderId, target, () -> notifyFulfillment(orderId, target));
+            eventPublisher.publishEvent(new OrderEvent.StatusChanged(orderId, target));
+            return statusUpdated(orderId, target);
+        }
+        int shard = orderShards.locate(() -> orderRepository.existsById(orderId));
+        if (shard < 0) {
+            throw new OrderNotFoundException("Order not found");
+        }
+        OrderState previous = writeStatus(shard, orderId, target);
+        try {
+            notifyFulfillment(orderId, target);
+        } catch (RuntimeException e) {
+            orderShards.runOnShard(shard, () -> transactionTemplate.executeWithoutResult(tx -> revertStatus(orderId, target, previous)));
+            throw e;
+        }
+        return statusUpdated(orderId, target);
+    }
+
+    private OrderState writeStatus(int shard, String orderId, OrderStatus target) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return orderShards.onShard(shard, () -> transactionTemplate.execute(tx -> transitionStatus(orderId, target)));
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= MAX_STATUS_UPDATE_ATTEMPTS) {
+                    throw new OrderStatusConflictException("Order is being updated concurrently, please retry.");
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextLong(1, 10L * attempt)));
+            }
         }
-        order.setStatus(status);
-        orderRepository.save(order);
+    }
+
+    private ResponseEntity<ApiResponse> statusUpdated(String orderId, OrderStatus target) {
+        Order order = Order.builder()
+                .id(orderId)
+                .status(target)
+                .build();
         ApiResponse response = ApiResponse.builder()
                 .message(ORDER_UPDATED)
                 .status(HttpStatus.OK)
@@ -147,4 +527,54 @@ public class OrderService {
                 .build();
         return ResponseEntity.status(response.getStatus()).body(response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Moves the order to {@code target} and returns the state it left.
+     */
+    private OrderState transitionStatus(String orderId, OrderStatus target) {
+        OrderState current = orderRepository.findStateById(orderId)
+                .orElseThrow(() -> new OrderNotFoundException("Order not found"));
+        if (!current.getStatus().canTransitionTo(target)) {
+            throw new OrderStatusConflictException("Cannot move a " + current.getStatus().getLabel()
+                    + " order to " + target.getLabel() + ".");
+        }
+        if (orderRepository.transitionStatus(orderId, current.getStatus(), target) == 0) {
+            throw new OptimisticLockingFailureException("Order " + orderId + " changed status while being updated");
+        }
+        eventPublisher.publishEvent(new OrderEvent.StatusChanged(orderId, target));
+        // Last, so the hot rollup rows are locked only until commit
+        orderRollupService.recordStatusChange(current.getStatus(), target, current.getCreatedAt());
+        return current;
+    }
+
+    private void revertStatus(String orderId, OrderStatus target, OrderState previous) {
+        // A newer change since the commit wins over the revert
+        if (orderRepository.transitionStatus(orderId, target, previous.getStatus()) > 0) {
+            eventPublisher.publishEvent(new OrderEvent.StatusChanged(orderId, previous.getStatus()));
+            orderRollupService.recordStatusChange(target, previous.getStatus(), previous.getCreatedAt());
+        }
+    }
+
+    private void notifyFulfillment(String orderId, OrderStatus target) {
+        // Call the FulfillmentService to update the order status
+        Fulfillment.UpdateOrderStatusRequest updateOrderStatusRequest = Fulfillment.UpdateOrderStatusRequest.newBuilder()
+                .setOrderId(orderId)
+                .setStatus(target.getLabel())
+                .build();
+        Fulfillment.UpdateOrderStatusResponse updateOrderStatusResponse = fulfillmentStream.isEnabled()
+                ? fulfillmentStream.updateOrderStatus(updateOrderStatusRequest)
+                : fulfillmentServiceBlockingStub.updateOrderStatus(updateOrderStatusRequest);
+        if (!"UPDATED".equals(updateOrderStatusResponse.getStatus())) {
+            throw new InternalServerErrorException("Failed to update order status.");
+        }
+    }
+
+    private Fulfillment.GetOrderStatusResponse fulfillmentStatus(Fulfillment.GetOrderStatusRequest request) {
+        if (statusReadHedger.isEnabled()) {
+            return statusReadHedger.getOrderStatus(request);
+        }
+        return fulfillmentStream.isEnabled()
+                ? fulfillmentStream.getOrderStatus(request)
+                : fulfillmentServiceBlockingStub.getOrderStatus(request);
+    }
+}
@@ -0,0 +1,354 @@
+package org.example.services;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.example.journal.Journal;
+import org.example.models.Order;
+import org.example.models.OrderStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Optional write-ahead log for new orders. An accepted order is appended to a local
+ * journal and acknowledged once the journal's group commit has flushed it; a
+ * background thread then hands orders, oldest first, to the database sink,
+ * retrying with backoff while the database or fulfillment is unavailable. Orders not
+ * yet drained are replayed on startup, so the sink must tolerate seeing an order twice.
+ * <p>
+ * An order whose delivery fails for any other reason, or still fails after
+ * {@code order.wal.max-attempts}, is moved to a separate dead-letter journal and
+ * logged, so one bad order cannot hold up the ones behind it.
+ * <p>
+ * At most {@code order.wal.max-queued} orders wait to be drained; past that,
+ * {@link #append} refuses new ones so a long outage cannot exhaust the heap.
+ */
+@Component
+public class OrderWriteAheadLog implements DisposableBean {
+    private static final byte ACCEPTED = 1;
+    private static final byte DRAINED = 2;
+    private static final long REPLAYED_SEGMENT = -1;
+    private static final Logger log = LoggerFactory.getLogger(OrderWriteAheadLog.class);
+
+    private final boolean enabled;
+    private final long maxBackoffMillis;
+    private final int maxAttempts;
+    private final int maxQueued;
+    private final Journal journal;
+    private final Journal deadLetterJournal;
+    private final List<Order> deadLetters = new CopyOnWriteArrayList<>();
+    private final Map<String, Accepted> undrained = new ConcurrentHashMap<>();
+    private final BlockingQueue<Order> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger appending = new AtomicInteger();
+    private volatile boolean running;
+    private Thread drainer;
+    private Consumer<Order> sink;
+
+    private record Accepted(Order order, long segment) {
+    }
+
+    public OrderWriteAheadLog(@Value("${order.wal.enabled:false}") boolean enabled,
+                              @Value("${order.wal.dir:data/wal}") String dir,
+                              @Value("${order.wal.segment-bytes:16777216}") int segmentBytes,
+                              @Value("${order.wal.max-backoff-ms:5000}") long maxBackoffMillis,
+                              @Value("${order.wal.max-attempts:100}") int maxAttempts,
+                              @Value("${order.wal.max-queued:100000}") int maxQueued) {
+        this.enabled = enabled;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.maxAttempts = maxAttempts;
+        this.maxQueued = maxQueued;
+        this.journal = enabled ? new Journal(Path.of(dir), "orders", segmentBytes) : null;
+        this.deadLetterJournal = enabled ? new Journal(Path.of(dir), "dead-letter", segmentBytes) : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replays undrained orders and starts draining to {@code sink}.
+     */
+    public synchronized void start(Consumer<Order> sink) {
+        if (!enabled || running) {
+            return;
+        }
+        this.sink = sink;
+        Map<String, Order> replayed = new LinkedHashMap<>();
+        journal.replay(record -> {
+            if (record.get(0) == ACCEPTED) {
+                Order order = decode(record);
+                replayed.put(order.getId(), order);
+            } else {
+                replayed.remove(decodeDrainedId(record));
+            }
+        });
+        for (Order order : replayed.values()) {
+            undrained.put(order.getId(), new Accepted(order, REPLAYED_SEGMENT));
+            queue.add(order);
+        }
+        deadLetterJournal.replay(record -> deadLetters.add(decode(record)));
+        running = true;
+        drainer = new Thread(this::drain, "order-wal-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * Returns {@code true} once {@code order}, which must already have its id, is on
+     * disk, or {@code false} without writing it if {@code max-queued} orders are
+     * still waiting to be drained. Concurrent appends may overshoot the cap slightly.
+     */
+    public boolean append(Order order) {
+        if (undrained.size() >= maxQueued) {
+            return false;
+        }
+        appending.incrementAndGet();
+        try {
+            long segment = journal.append(encode(order));
+            undrained.put(order.getId(), new Accepted(order, segment));
+            queue.add(order);
+            return true;
+        } finally {
+            appending.decrementAndGet();
+        }
+    }
+
+    /**
+     * An accepted order that has not reached the database yet, or {@code null}.
+     */
+    public Order pending(String orderId) {
+        if (!enabled) {
+            return null;
+        }
+        Accepted accepted = undrained.get(orderId);
+        return accepted == null ? null : accepted.order();
+    }
+
+    public int backlog() {
+        return undrained.size();
+    }
+
+    /**
+     * Orders given up on, oldest first; they stay in the dead-letter journal for
+     * manual replay and are not delivered again.
+     */
+    public List<Order> deadLetters() {
+        return List.copyOf(deadLetters);
+    }
+
+    private void drain() {
+        while (running) {
+            Order order;
+            try {
+                order = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (order == null) {
+                checkpoint();
+                continue;
+            }
+            if (!deliver(order)) {
+                return;
+            }
+            // Unsynced: losing the marker in a crash only means one redundant delivery
+            journal.append(encodeDrained(order.getId()), false);
+            undrained.remove(order.getId());
+            if (queue.isEmpty()) {
+                checkpoint();
+            }
+        }
+    }
+
+    /**
+     * Delivers {@code order} or dead-letters it; returns {@code false} only when stopping.
+     */
+    private boolean deliver(Order order) {
+        long backoff = 50;
+        for (int attempt = 1; running; attempt++) {
+            try {
+                sink.accept(order);
+                return true;
+            } catch (RuntimeException e) {
+                if (!isTransient(e) || attempt >= maxAttempts) {
+                    deadLetter(order, attempt, e);
+                    return true;
+                }
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return false;
+                }
+                backoff = Math.min(backoff * 2, maxBackoffMillis);
+            }
+        }
+        return false;
+    }
+
+    private void deadLetter(Order order, int attempts, RuntimeException cause) {
+        deadLetterJournal.append(encode(order));
+        deadLetters.add(order);
+        log.error("Moved order {} to the dead-letter journal after {} delivery attempts", order.getId(), attempts, cause);
+    }
+
+    /**
+     * Failures worth retrying: the database or fulfillment being briefly unreachable.
+     */
+    static boolean isTransient(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException) {
+                return true;
+            }
+            if (cause instanceof StatusRuntimeException grpc && grpc.getStatus().getCode() == Status.Code.UNAVAILABLE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkpoint() {
+        // Read the segment before checking for appends in progress: any append that
+        // starts afterwards lands in this segment or a later one.
+        long oldest = journal.currentSegment();
+        if (appending.get() != 0) {
+            return;
+        }
+        for (Accepted accepted : undrained.values()) {
+            oldest = Math.min(oldest, accepted.segment());
+        }
+        if (oldest > 0) {
+            journal.deleteSegmentsBefore(oldest);
+        }
+    }
+
+    static byte[] encode(Order order) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(ACCEPTED);
+            out.writeUTF(order.getId());
+            out.writeUTF(order.getUserId());
+            out.writeUTF(order.getTotalPrice().toPlainString());
+            out.writeUTF(order.getCurrency());
+            out.writeShort(order.getStatus().getCode());
+            out.writeUTF(order.getCreatedAt().toString());
+            out.writeInt(order.getItems().size());
+            for (String item : order.getItems()) {
+                out.writeUTF(item);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Order decode(ByteBuffer record) {
+        try (DataInputStream in = new DataInputStream(new ByteBufferInputStream(record))) {
+            in.readByte();
+            Order order = Order.builder()
+                    .id(in.readUTF())
+                    .userId(in.readUTF())
+                    .totalPrice(new BigDecimal(in.readUTF()))
+                    .currency(in.readUTF())
+                    .status(OrderStatus.fromCode(in.readShort()))
+                    .createdAt(LocalDateTime.parse(in.readUTF()))
+                    .build();
+            int itemCount = in.readInt();
+            List<String> items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                items.add(in.readUTF());
+            }
+            order.setItems(items);
+            return order;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] encodeDrained(String orderId) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(DRAINED);
+            out.writeUTF(orderId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String decodeDrainedId(ByteBuffer record) {
+        try (DataInputStream in = new DataInputStream(new ByteBufferInputStream(record))) {
+            in.readByte();
+            return in.readUTF();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer.duplicate();
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, count);
+            return count;
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        if (drainer != null) {
+            drainer.interrupt();
+            drainer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        journal.close();
+        deadLetterJournal.close();
+    }
+}
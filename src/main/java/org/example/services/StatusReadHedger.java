@@ -0,0 +1,172 @@
+package org.example.services;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.grpc.Channel;
+import io.grpc.Status;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import proto.Fulfillment;
+import proto.FulfillmentServiceGrpc;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Optional hedging of {@code GetOrderStatus}, which is a read and safe to repeat.
+ * If the first call has not answered after the recent p95 latency of first calls
+ * (never less than {@code min-delay-ms}), a second identical call is sent; the
+ * first successful reply wins and the other call is cancelled. A first call
+ * cancelled that way is sampled at the time it lost, a lower bound, so slow calls
+ * stay in the window the delay is computed from. Hedges draw from a budget that earns
+ * {@code budget-percent} of a hedge per call and holds at most
+ * {@code max-burst} hedges, so hedge traffic stays within that share of status
+ * reads even when fulfillment is slow across the board. No call is hedged until
+ * the latency window holds {@code WARM_UP_SAMPLES} samples.
+ */
+@Component
+public class StatusReadHedger {
+
+    static final int WARM_UP_SAMPLES = 100;
+    private static final int WINDOW = 1024;
+    private static final int RECOMPUTE_EVERY = 64;
+    private static final long MILLI_HEDGES = 1000;
+
+    private final FulfillmentServiceGrpc.FulfillmentServiceFutureStub futureStub;
+    private final boolean enabled;
+    private final long timeoutMs;
+    private final long minDelayNanos;
+    private final long earnedPerCall;
+    private final long maxBudget;
+    private final AtomicLong budget = new AtomicLong();
+    private final AtomicLongArray latencies = new AtomicLongArray(WINDOW);
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private volatile long hedgeDelayNanos = Long.MAX_VALUE;
+
+    public StatusReadHedger(Channel fulfillmentChannel,
+                            @Value("${order.status-hedge.enabled:false}") boolean enabled,
+                            @Value("${order.status-hedge.timeout-ms:5000}") long timeoutMs,
+                            @Value("${order.status-hedge.min-delay-ms:5}") long minDelayMs,
+                            @Value("${order.status-hedge.budget-percent:5}") double budgetPercent,
+                            @Value("${order.status-hedge.max-burst:10}") int maxBurst) {
+        this.futureStub = FulfillmentServiceGrpc.newFutureStub(fulfillmentChannel);
+        this.enabled = enabled;
+        this.timeoutMs = timeoutMs;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMs);
+        this.earnedPerCall = Math.round(budgetPercent * MILLI_HEDGES / 100);
+        this.maxBudget = maxBurst * MILLI_HEDGES;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Number of hedge calls sent so far. */
+    public long hedges() {
+        return hedges.get();
+    }
+
+    /** Current wait before a hedge is sent; {@code Long.MAX_VALUE} while warming up. */
+    public long hedgeDelayNanos() {
+        return hedgeDelayNanos;
+    }
+
+    public Fulfillment.GetOrderStatusResponse getOrderStatus(Fulfillment.GetOrderStatusRequest request) {
+        budget.updateAndGet(available -> Math.min(maxBudget, available + earnedPerCall));
+        Race race = new Race();
+        race.send(request);
+        try {
+            try {
+                return race.winner.get(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (budget.getAndUpdate(available -> available >= MILLI_HEDGES ? available - MILLI_HEDGES : available) >= MILLI_HEDGES) {
+                    hedges.incrementAndGet();
+                    race.send(request);
+                }
+            }
+            return race.winner.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw Status.fromThrowable(e.getCause()).asRuntimeException();
+        } catch (TimeoutException e) {
+            throw Status.DEADLINE_EXCEEDED.withDescription("Order status not received in time").asRuntimeException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Status.CANCELLED.withCause(e).asRuntimeException();
+        } finally {
+            race.cancel();
+        }
+    }
+
+    private void record(long latencyNanos) {
+        long n = samples.getAndIncrement();
+        latencies.set((int) (n % WINDOW), latencyNanos);
+        if (n + 1 >= WARM_UP_SAMPLES && (n + 1) % RECOMPUTE_EVERY == 0) {
+            int size = (int) Math.min(n + 1, WINDOW);
+            long[] window = new long[size];
+            for (int i = 0; i < size; i++) {
+                window[i] = latencies.get(i);
+            }
+            Arrays.sort(window);
+            hedgeDelayNanos = Math.max(minDelayNanos, window[(int) (size * 0.95)]);
+        }
+    }
+
+    /** The calls for one read; the first success or the last failure settles it. */
+    private final class Race {
+        private final CompletableFuture<Fulfillment.GetOrderStatusResponse> winner = new CompletableFuture<>();
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final ListenableFuture<?>[] calls = new ListenableFuture<?>[2];
+        private int sent;
+
+        void send(Fulfillment.GetOrderStatusRequest request) {
+            if (winner.isDone()) {
+                return;
+            }
+            outstanding.incrementAndGet();
+            // Only first calls are sampled; a hedge's latency starts late and says little
+            boolean sampled = sent == 0;
+            long start = System.nanoTime();
+            ListenableFuture<Fulfillment.GetOrderStatusResponse> call = futureStub
+                    .withDeadlineAfter(timeoutMs, TimeUnit.MILLISECONDS)
+                    .getOrderStatus(request);
+            calls[sent++] = call;
+            call.addListener(() -> settle(call, start, sampled), Runnable::run);
+        }
+
+        private void settle(ListenableFuture<Fulfillment.GetOrderStatusResponse> call, long start, boolean sampled) {
+            try {
+                Fulfillment.GetOrderStatusResponse response = call.get();
+                if (sampled) {
+                    record(System.nanoTime() - start);
+                }
+                winner.complete(response);
+            } catch (ExecutionException | CancellationException e) {
+                if (sampled && e instanceof CancellationException) {
+                    record(System.nanoTime() - start);
+                }
+                if (outstanding.decrementAndGet() == 0) {
+                    winner.completeExceptionally(e instanceof ExecutionException ? e.getCause() : e);
+                }
+            } catch (InterruptedException e) {
+                // The call is done, so get() cannot block
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void cancel() {
+            for (int i = 0; i < sent; i++) {
+                calls[i].cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package org.example.services;
+
+import jakarta.annotation.PostConstruct;
+import org.example.dto.OrderState;
+import org.example.exceptions.OrderNotFoundException;
+import org.example.exceptions.OrderStatusConflictException;
+import org.example.journal.Journal;
+import org.example.models.OrderStatus;
+import org.example.repositories.OrderRepository;
+import org.example.sharding.OrderShards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind for order status changes. Accepted transitions are
+ * journaled to local disk, kept in memory and written to {@code orders} in batched
+ * conditional UPDATEs when the buffer fills or the flush interval passes. Reads
+ * overlay {@link #pendingStatus} on what they load, and the journal is replayed on
+ * startup, so an accepted change survives a crash before its flush.
+ * <p>
+ * The buffer assumes it is the only writer of order statuses; a row changed behind
+ * its back fails the flush's {@code status = expected} check and the buffered change is
+ * dropped, logged and counted in {@link #droppedUpdates}.
+ */
+@Component
+public class StatusWriteBuffer implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(StatusWriteBuffer.class);
+    private static final int LOCK_STRIPES = 256;
+    private static final int MAX_IDS_PER_UPDATE = 500;
+    // Status code of the marker journaled once an order's buffered change is written or dropped
+    private static final short FLUSHED = 0;
+
+    private final OrderRepository orderRepository;
+    private final OrderRollupService orderRollupService;
+    private final OrderShards orderShards;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Map<String, PendingStatus> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final AtomicInteger appending = new AtomicInteger();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Object flushLock = new Object();
+    private final Journal journal;
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * @param base       status in the database when the order was first buffered
+     * @param status     latest accepted status
+     * @param createdAt  the order's creation time, which picks its rollup bucket
+     * @param shard      shard holding the order
+     * @param segment    journal segment holding the latest record
+     */
+    record PendingStatus(OrderStatus base, OrderStatus status, LocalDateTime createdAt, int shard, long segment) {
+    }
+
+    // Orders written by one UPDATE and counted by one rollup change
+    private record FlushGroup(OrderStatus base, OrderStatus target, LocalDateTime bucket) {
+    }
+
+    public StatusWriteBuffer(OrderRepository orderRepository,
+                             OrderRollupService orderRollupService,
+                             OrderShards orderShards,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${order.status-write-behind.enabled:false}") boolean enabled,
+                             @Value("${order.status-write-behind.journal-dir:data/journal}") String journalDir,
+                             @Value("${order.status-write-behind.batch-size:500}") int batchSize,
+                             @Value("${order.status-write-behind.flush-interval-ms:50}") long flushIntervalMs) {
+        this.orderRepository = orderRepository;
+        this.orderRollupService = orderRollupService;
+        this.orderShards = orderShards;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        if (enabled) {
+            this.journal = new Journal(Path.of(journalDir), "status");
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "status-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.journal = null;
+            this.flusher = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replays transitions journaled before the last shutdown and flushes them.
+     */
+    @PostConstruct
+    public void recover() {
+        if (!enabled) {
+            return;
+        }
+        Map<String, OrderStatus> replayed = new LinkedHashMap<>();
+        journal.replay(record -> {
+            short code = record.getShort(0);
+            if (code == FLUSHED) {
+                replayed.remove(decodeOrderId(record));
+            } else {
+                replayed.put(decodeOrderId(record), OrderStatus.fromCode(code));
+            }
+        });
+        long segment = journal.rotate();
+        for (Map.Entry<String, OrderStatus> entry : replayed.entrySet()) {
+            String orderId = entry.getKey();
+            int shard = orderShards.locate(() -> orderRepository.existsById(orderId));
+            if (shard < 0) {
+                continue;
+            }
+            orderShards.onShard(shard, () -> orderRepository.findStateById(orderId))
+                    .filter(current -> current.getStatus() != entry.getValue())
+                    .ifPresent(current -> pending.put(orderId, new PendingStatus(
+                            current.getStatus(), entry.getValue(), current.getCreatedAt(), shard, segment - 1)));
+        }
+        flushQuietly();
+    }
+
+    /**
+     * Accepts {@code orderId} moving to {@code target}, checked against the buffered
+     * status or else the stored one. {@code beforeAccept} runs once the transition is
+     * known to be valid and before it is journaled; if it throws, nothing is buffered.
+     * It runs outside the order's lock, so the transition is checked again afterwards
+     * and can still be refused if another change to the order was accepted meanwhile.
+     */
+    public void submit(String orderId, OrderStatus target, Runnable beforeAccept) {
+        ReentrantLock lock = lockFor(orderId);
+        PendingStatus seen;
+        OrderStatus base;
+        LocalDateTime createdAt;
+        int shard;
+        lock.lock();
+        try {
+            seen = pending.get(orderId);
+            if (seen != null) {
+                base = seen.base();
+                createdAt = seen.createdAt();
+                shard = seen.shard();
+                checkTransition(seen.status(), target);
+            } else {
+                shard = orderShards.locate(() -> orderRepository.existsById(orderId));
+                if (shard < 0) {
+                    throw new OrderNotFoundException("Order not found");
+                }
+                OrderState stored = orderShards.onShard(shard, () -> orderRepository.findStateById(orderId))
+                        .orElseThrow(() -> new OrderNotFoundException("Order not found"));
+                base = stored.getStatus();
+                createdAt = stored.getCreatedAt();
+                checkTransition(base, target);
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Usually a remote call; holding the stripe across it would stall other orders on it
+        beforeAccept.run();
+        lock.lock();
+        try {
+            PendingStatus current = pending.get(orderId);
+            if (current != seen) {
+                if (current != null) {
+                    base = current.base();
+                    shard = current.shard();
+                    checkTransition(current.status(), target);
+                } else {
+                    // Flushed meanwhile, so the stored status is now the one last buffered
+                    base = seen.status();
+                    checkTransition(base, target);
+                }
+            }
+            appending.incrementAndGet();
+            try {
+                long segment = journal.append(encode(orderId, target));
+                pending.put(orderId, new PendingStatus(base, target, createdAt, shard, segment));
+            } finally {
+                appending.decrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (pending.size() >= batchSize && flushQueued.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    private ReentrantLock lockFor(String orderId) {
+        return locks[(orderId.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+    }
+
+    private static void checkTransition(OrderStatus from, OrderStatus target) {
+        if (!from.canTransitionTo(target)) {
+            throw new OrderStatusConflictException("Cannot move a " + from.getLabel()
+                    + " order to " + target.getLabel() + ".");
+        }
+    }
+
+    /**
+     * The accepted but not yet written status of an order, or {@code null}.
+     */
+    public OrderStatus pendingStatus(String orderId) {
+        if (!enabled) {
+            return null;
+        }
+        PendingStatus current = pending.get(orderId);
+        return current == null ? null : current.status();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Entries stay buffered and journaled; the next tick retries
+        }
+    }
+
+    /**
+     * Buffered changes dropped because their order's stored status was no longer the
+     * expected one when flushed.
+     */
+    public long droppedUpdates() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes everything buffered so far, one UPDATE per shard, base and target
+     * status, rollup bucket and at most {@value #MAX_IDS_PER_UPDATE} ids. Each written order gets a
+     * flushed marker in the journal instead of a new segment per flush, so segments
+     * roll over only when full and replay skips what was already written. A change
+     * accepted for an order while its previous one was being written is rebased onto
+     * that write, so its own UPDATE expects the status the row now has.
+     */
+    public void flush() {
+        flushQueued.set(false);
+        synchronized (flushLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            long boundary = journal.currentSegment();
+            Map<String, PendingStatus> snapshot = new HashMap<>(pending);
+            Map<Integer, Map<FlushGroup, List<String>>> byShard = new HashMap<>();
+            for (Map.Entry<String, PendingStatus> entry : snapshot.entrySet()) {
+                PendingStatus status = entry.getValue();
+                FlushGroup group = new FlushGroup(status.base(), status.status(),
+                        OrderRollupService.statusBucket(status.createdAt()));
+                byShard.computeIfAbsent(status.shard(), s -> new HashMap<>())
+                        .computeIfAbsent(group, k -> new ArrayList<>())
+                        .add(entry.getKey());
+            }
+            for (Map.Entry<Integer, Map<FlushGroup, List<String>>> shard : byShard.entrySet()) {
+                orderShards.runOnShard(shard.getKey(), () -> transactionTemplate.executeWithoutResult(tx -> {
+                    for (Map.Entry<FlushGroup, List<String>> group : shard.getValue().entrySet()) {
+                        OrderStatus base = group.getKey().base();
+                        OrderStatus target = group.getKey().target();
+                        List<String> ids = group.getValue();
+                        long updated = 0;
+                        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_UPDATE) {
+                            updated += orderRepository.transitionStatuses(
+                                    ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_UPDATE)), base, target);
+                        }
+                        if (updated > 0) {
+                            orderRollupService.recordStatusChanges(base, target, group.getKey().bucket(), updated);
+                        }
+                        if (updated < ids.size()) {
+                            dropped.addAndGet(ids.size() - updated);
+                            log.warn("Dropped {} buffered {} -> {} status changes on shard {}: the stored status changed",
+                                    ids.size() - updated, base, target, shard.getKey());
+                        }
+                    }
+                }));
+            }
+            for (Map.Entry<String, PendingStatus> entry : snapshot.entrySet()) {
+                ReentrantLock lock = lockFor(entry.getKey());
+                lock.lock();
+                try {
+                    // Under the order's lock, so the marker cannot land after a newer transition
+                    if (pending.remove(entry.getKey(), entry.getValue())) {
+                        journal.append(encodeFlushed(entry.getKey()), false);
+                    } else {
+                        // Accepted while this flush ran; it now follows the status just written
+                        pending.computeIfPresent(entry.getKey(), (id, newer) -> new PendingStatus(
+                                entry.getValue().status(), newer.status(), newer.createdAt(), newer.shard(), newer.segment()));
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            // A submit between its journal append and buffer put may still reference an
+            // older segment; keep the journal whole until none is in progress.
+            if (appending.get() == 0) {
+                long oldest = boundary;
+                for (PendingStatus status : pending.values()) {
+                    oldest = Math.min(oldest, status.segment());
+                }
+                journal.deleteSegmentsBefore(oldest);
+            }
+        }
+    }
+
+    private static byte[] encode(String orderId, OrderStatus status) {
+        byte[] id = orderId.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(2 + id.length).putShort(status.getCode()).put(id).array();
+    }
+
+    private static byte[] encodeFlushed(String orderId) {
+        byte[] id = orderId.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(2 + id.length).putShort(FLUSHED).put(id).array();
+    }
+
+    private static String decodeOrderId(ByteBuffer record) {
+        byte[] id = new byte[record.remaining() - 2];
+        record.get(2, id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void destroy() {
+        if (enabled) {
+            flusher.shutdown();
+            flushQuietly();
+            journal.close();
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package org.example.services;
 import lombok.RequiredArgsConstructor;
 import org.example.dto.ApiResponse;
+import org.example.dto.OrderHistoryQuery;
+import org.example.dto.OrderResponse;
 import org.example.dto.UserRequest;
 import org.example.dto.UserResponse;
 import org.example.exceptions.InvalidUsernameAndPasswordException;
+import org.example.models.ArchivedOrder;
 import org.example.models.Order;
 import org.example.models.User;
+import org.example.repositories.ArchivedOrderRepository;
 import org.example.repositories.OrderRepository;
 import org.example.repositories.UserRepository;
+import org.example.sharding.OrderShards;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,6 +20,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import static org.example.constants.Constants.*;
@@ -23,6 +29,9 @@ import static org.example.constants.Constants.*;
 public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final OrderRepository orderRepository; // Assuming you have an OrderRepository
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderService orderService;
+    private final OrderShards orderShards;
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
@@ -77,9 +86,20 @@ public class UserService implements UserDetailsService {
         return ResponseEntity.ok(response);
     }
     public ResponseEntity<ApiResponse> getOrdersByUserId(String userId) {
+        return getOrdersByUserId(userId, false);
+    }
+    public ResponseEntity<ApiResponse> getOrdersByUserId(String userId, boolean includeArchived) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-        List<Order> orders = orderRepository.findAllByUserId(userId);
+        List<OrderResponse> orders = new ArrayList<>();
+        for (Order order : orderShards.forUser(userId, () -> orderRepository.findAllByUserId(userId))) {
+            orders.add(new OrderResponse(order));
+        }
+        if (includeArchived) {
+            for (ArchivedOrder archived : orderShards.forUser(userId, () -> archivedOrderRepository.findAllByUserId(userId))) {
+                orders.add(new OrderResponse(archived.toOrder()));
+            }
+        }
         ApiResponse response = ApiResponse.builder()
                 .message(FETCHED)
                 .status(HttpStatus.OK)
@@ -87,6 +107,13 @@ public class UserService implements UserDetailsService {
                 .build();
         return ResponseEntity.ok(response);
     }
+    public ResponseEntity<ApiResponse> getOrderHistory(String userId, OrderHistoryQuery query) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        query.setUserId(userId);
+        return orderService.getOrderHistory(query);
+    }
     private void validateUserCredentials(String username, String password) {
         if (username == null || username.trim().isEmpty()) {
             throw new InvalidUsernameAndPasswordException("Username cannot be null or empty");
@@ -0,0 +1,155 @@
+package org.example.sharding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Routes order work to the shard owning a user, and fans cross-shard reads out in
+ * parallel. Orders live on {@code hash(userId) mod count}; lookups by order id have
+ * no user, so they ask every shard. With a single shard every call runs inline.
+ */
+public final class OrderShards implements AutoCloseable {
+    private final int count;
+    private final ExecutorService scatterExecutor;
+
+    public OrderShards(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.count = count;
+        if (count == 1) {
+            this.scatterExecutor = null;
+        } else {
+            AtomicInteger threads = new AtomicInteger();
+            this.scatterExecutor = Executors.newFixedThreadPool(count, runnable -> {
+                Thread thread = new Thread(runnable, "order-shard-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public static OrderShards single() {
+        return new OrderShards(1);
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int shardFor(String userId) {
+        if (count == 1) {
+            return 0;
+        }
+        // String.hashCode is fixed by the JLS, so placement is stable across JVMs;
+        // the murmur3 finalizer spreads its low bits before the modulo.
+        int h = userId.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return Math.floorMod(h, count);
+    }
+
+    public <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = ShardContext.enter(shard);
+        try {
+            return work.get();
+        } finally {
+            ShardContext.exit(previous);
+        }
+    }
+
+    public void runOnShard(int shard, Runnable work) {
+        onShard(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> T forUser(String userId, Supplier<T> work) {
+        return onShard(shardFor(userId), work);
+    }
+
+    public void runForUser(String userId, Runnable work) {
+        runOnShard(shardFor(userId), work);
+    }
+
+    /**
+     * Runs {@code query} on every shard and concatenates the results in shard order.
+     */
+    public <T> List<T> gather(Supplier<? extends Collection<? extends T>> query) {
+        if (count == 1) {
+            return new ArrayList<>(onShard(0, query));
+        }
+        List<T> results = new ArrayList<>();
+        for (Collection<? extends T> shardResult : scatter(query)) {
+            results.addAll(shardResult);
+        }
+        return results;
+    }
+
+    /**
+     * Returns the first present result, asking all shards at once.
+     */
+    public <T> Optional<T> findFirst(Supplier<Optional<T>> lookup) {
+        if (count == 1) {
+            return onShard(0, lookup);
+        }
+        for (Optional<T> result : scatter(lookup)) {
+            if (result.isPresent()) {
+                return result;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the first shard for which {@code probe} holds, or -1. A single shard is
+     * returned without probing.
+     */
+    public int locate(BooleanSupplier probe) {
+        if (count == 1) {
+            return 0;
+        }
+        List<Boolean> hits = scatter(probe::getAsBoolean);
+        return hits.indexOf(Boolean.TRUE);
+    }
+
+    private <T> List<T> scatter(Supplier<T> work) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> onShard(target, work), scatterExecutor));
+        }
+        List<T> results = new ArrayList<>(count);
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdown();
+        }
+    }
+}
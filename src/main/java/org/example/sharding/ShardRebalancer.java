@@ -0,0 +1,143 @@
+package org.example.sharding;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves orders, archived orders (with their items) and per-user rollups to the
+ * shard their user hashes to, e.g. after adding a shard. Each order is copied to its new shard
+ * before it is deleted from the old one, so an interrupted run can simply be
+ * repeated; until it finishes, cross-shard reads may see a moved order twice.
+ */
+public class ShardRebalancer {
+    // Order table and its items table; archived orders move the same way as live ones
+    private static final List<List<String>> ORDER_TABLES = List.of(
+            List.of("orders", "order_items"),
+            List.of("orders_archive", "order_items_archive"));
+
+    private final OrderShards orderShards;
+    private final List<JdbcTemplate> jdbc = new ArrayList<>();
+    private final List<TransactionTemplate> transactions = new ArrayList<>();
+
+    public ShardRebalancer(OrderShards orderShards, ShardRoutingDataSource dataSource) {
+        this.orderShards = orderShards;
+        Map<Object, DataSource> shards = dataSource.getResolvedDataSources();
+        for (int shard = 0; shard < orderShards.count(); shard++) {
+            DataSource shardDataSource = shards.get(shard);
+            jdbc.add(new JdbcTemplate(shardDataSource));
+            transactions.add(new TransactionTemplate(new DataSourceTransactionManager(shardDataSource)));
+        }
+    }
+
+    /**
+     * Returns the number of orders moved.
+     */
+    public long rebalance(int batchSize) {
+        long moved = 0;
+        for (int source = 0; source < orderShards.count(); source++) {
+            for (List<String> tables : ORDER_TABLES) {
+                moved += moveOrders(source, tables.get(0), tables.get(1), batchSize);
+            }
+            moveUserRollups(source, batchSize);
+        }
+        return moved;
+    }
+
+    private long moveOrders(int source, String orders, String items, int batchSize) {
+        long moved = 0;
+        Object after = null;
+        while (true) {
+            List<Map<String, Object>> batch = after == null
+                    ? jdbc.get(source).queryForList("select id, user_id from " + orders + " order by id limit ?", batchSize)
+                    : jdbc.get(source).queryForList("select id, user_id from " + orders + " where id > ? order by id limit ?", after, batchSize);
+            for (Map<String, Object> row : batch) {
+                int target = orderShards.shardFor((String) row.get("user_id"));
+                if (target != source) {
+                    moveOrder(orders, items, row.get("id"), source, target);
+                    moved++;
+                }
+            }
+            if (batch.size() < batchSize) {
+                return moved;
+            }
+            after = batch.get(batch.size() - 1).get("id");
+        }
+    }
+
+    private void moveOrder(String orders, String items, Object id, int source, int target) {
+        Map<String, Object> order = jdbc.get(source).queryForMap("select * from " + orders + " where id = ?", id);
+        List<Map<String, Object>> orderItems = jdbc.get(source).queryForList("select * from " + items + " where order_id = ?", id);
+        transactions.get(target).executeWithoutResult(tx -> {
+            JdbcTemplate to = jdbc.get(target);
+            Integer existing = to.queryForObject("select count(*) from " + orders + " where id = ?", Integer.class, id);
+            if (existing == null || existing == 0) {
+                insert(to, orders, order);
+                for (Map<String, Object> item : orderItems) {
+                    insert(to, items, item);
+                }
+            }
+        });
+        transactions.get(source).executeWithoutResult(tx -> {
+            jdbc.get(source).update("delete from " + items + " where order_id = ?", id);
+            jdbc.get(source).update("delete from " + orders + " where id = ?", id);
+        });
+    }
+
+    private void moveUserRollups(int source, int batchSize) {
+        String after = "";
+        while (true) {
+            List<String> users = jdbc.get(source).queryForList(
+                    "select distinct dimension_key from order_rollups where dimension = 'USER' and dimension_key > ? order by dimension_key limit ?",
+                    String.class, after, batchSize);
+            for (String userId : users) {
+                int target = orderShards.shardFor(userId);
+                if (target != source) {
+                    moveUserRollup(userId, source, target);
+                }
+            }
+            if (users.size() < batchSize) {
+                return;
+            }
+            after = users.get(users.size() - 1);
+        }
+    }
+
+    private void moveUserRollup(String userId, int source, int target) {
+        List<Map<String, Object>> rows = jdbc.get(source).queryForList(
+                "select * from order_rollups where dimension = 'USER' and dimension_key = ?", userId);
+        transactions.get(target).executeWithoutResult(tx -> {
+            JdbcTemplate to = jdbc.get(target);
+            for (Map<String, Object> row : rows) {
+                int updated = to.update("update order_rollups set order_count = order_count + ?, revenue = revenue + ?"
+                                + " where dimension = ? and dimension_key = ? and bucket_start = ? and currency = ? and stripe = ?",
+                        row.get("order_count"), row.get("revenue"), row.get("dimension"), row.get("dimension_key"),
+                        row.get("bucket_start"), row.get("currency"), row.get("stripe"));
+                if (updated == 0) {
+                    insert(to, "order_rollups", row);
+                }
+            }
+        });
+        // Not idempotent like orders: a crash between the two transactions double-counts this user's rollups
+        jdbc.get(source).update("delete from order_rollups where dimension = 'USER' and dimension_key = ?", userId);
+    }
+
+    private static void insert(JdbcTemplate to, String table, Map<String, Object> row) {
+        StringBuilder columns = new StringBuilder();
+        StringBuilder placeholders = new StringBuilder();
+        for (String column : row.keySet()) {
+            if (!columns.isEmpty()) {
+                columns.append(", ");
+                placeholders.append(", ");
+            }
+            columns.append(column);
+            placeholders.append('?');
+        }
+        to.update("insert into " + table + " (" + columns + ") values (" + placeholders + ")", row.values().toArray());
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Hands out connections from the shard selected by {@link OrderShards}. The shard
+ * must be chosen before a transaction starts, since the connection is bound then.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.sharding;
+
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.changelog.ChangeSet;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Applies the changelog to every shard, or to the one datasource when sharding is
+ * off. Registered in place of Spring Boot's Liquibase bean, so JPA still starts
+ * only after migrations. In validate-only mode nothing is changed and no migration
+ * lock is taken: startup fails if a changeset is pending or its checksum no longer
+ * matches, so migrations can run once as a pre-deploy task instead of on every boot.
+ */
+public class ShardedLiquibase extends SpringLiquibase {
+    private final List<DataSource> shards;
+    private boolean validateOnly;
+
+    public ShardedLiquibase(DataSource dataSource) {
+        this.shards = dataSource instanceof ShardRoutingDataSource routing
+                ? List.copyOf(routing.getResolvedDataSources().values())
+                : List.of(dataSource);
+    }
+
+    public void setValidateOnly(boolean validateOnly) {
+        this.validateOnly = validateOnly;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws LiquibaseException {
+        for (DataSource shard : shards) {
+            setDataSource(shard);
+            if (validateOnly) {
+                validate();
+            } else {
+                super.afterPropertiesSet();
+            }
+        }
+    }
+
+    private void validate() throws LiquibaseException {
+        try (Connection connection = getDataSource().getConnection();
+             Liquibase liquibase = createLiquibase(connection)) {
+            // Fails on changed checksums of applied changesets
+            liquibase.validate();
+            List<ChangeSet> pending = liquibase.listUnrunChangeSets(new Contexts(getContexts()), new LabelExpression(getLabelFilter()));
+            if (!pending.isEmpty()) {
+                throw new IllegalStateException(pending.size() + " database changesets are pending, starting with "
+                        + pending.get(0).getId() + "; run the migrate profile before deploying");
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+    }
+}
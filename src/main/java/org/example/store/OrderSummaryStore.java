@@ -0,0 +1,317 @@
+package org.example.store;
+
+import org.example.models.Money;
+import org.example.models.Order;
+import org.example.models.OrderStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Compact order summaries in one off-heap open-addressing table keyed by the two
+ * halves of the order's UUID. Each order is a fixed 40-byte slot
+ * {@code [id hi][id lo][total][user key][item count][status][state][currency]}
+ * with the total in minor units, so the heap holds no per-order objects and the
+ * garbage collector never scans the table.
+ * <p>
+ * Writers are serialised; readers use optimistic reads and only take the read
+ * lock if a write raced with them. One table holds up to {@value #MAX_CAPACITY}
+ * slots, about 23 million orders at the maximum load factor.
+ * <p>
+ * Not wired into the service yet: {@link org.example.services.OrderReadModel} still
+ * keeps heap responses, and this store is measured against that in
+ * {@code OrderSummaryStoreBenchmark} before it replaces any of it.
+ */
+public final class OrderSummaryStore {
+    public static final int SLOT_BYTES = 40;
+    public static final int MAX_CAPACITY = 1 << 25;
+    private static final float MAX_LOAD = 0.7f;
+
+    private static final int ID_HI = 0;
+    private static final int ID_LO = 8;
+    private static final int TOTAL = 16;
+    private static final int USER_KEY = 24;
+    private static final int ITEM_COUNT = 32;
+    private static final int STATUS = 36;
+    private static final int STATE = 37;
+    private static final int CURRENCY = 38;
+
+    private static final byte FREE = 0;
+    private static final byte USED = 1;
+    private static final byte REMOVED = 2;
+
+    private final StampedLock lock = new StampedLock();
+    private ByteBuffer table;
+    private int mask;
+    private int size;
+    private int removed;
+
+    public record Summary(OrderStatus status, long totalMinorUnits, String currency, long userKey, int itemCount) {
+    }
+
+    public OrderSummaryStore(int expectedOrders) {
+        allocate(capacityFor(expectedOrders));
+    }
+
+    public void put(Order order) {
+        UUID id = UUID.fromString(order.getId());
+        put(id, order.getStatus(), Money.toMinorUnits(order.getTotalPrice(), order.getCurrency()), order.getCurrency(),
+                userKey(order.getUserId()), order.getItems() == null ? 0 : order.getItems().size());
+    }
+
+    public void put(UUID id, OrderStatus status, long totalMinorUnits, String currency, long userKey, int itemCount) {
+        long hi = id.getMostSignificantBits();
+        long lo = id.getLeastSignificantBits();
+        short packedCurrency = packCurrency(currency);
+        byte code = (byte) status.getCode();
+        long stamp = lock.writeLock();
+        try {
+            if (size + removed + 1 > (mask + 1) * MAX_LOAD) {
+                resize();
+            }
+            int slot = find(table, mask, hi, lo);
+            if (slot < 0) {
+                slot = insertionSlot(hi, lo);
+                if (table.get(offset(slot) + STATE) == REMOVED) {
+                    removed--;
+                }
+                size++;
+            }
+            int at = offset(slot);
+            table.putLong(at + ID_HI, hi);
+            table.putLong(at + ID_LO, lo);
+            table.putLong(at + TOTAL, totalMinorUnits);
+            table.putLong(at + USER_KEY, userKey);
+            table.putInt(at + ITEM_COUNT, itemCount);
+            table.put(at + STATUS, code);
+            table.putShort(at + CURRENCY, packedCurrency);
+            table.put(at + STATE, USED);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean updateStatus(UUID id, OrderStatus status) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = find(table, mask, id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (slot < 0) {
+                return false;
+            }
+            table.put(offset(slot) + STATUS, (byte) status.getCode());
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean remove(UUID id) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = find(table, mask, id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (slot < 0) {
+                return false;
+            }
+            table.put(offset(slot) + STATE, REMOVED);
+            size--;
+            removed++;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public Summary get(String orderId) {
+        return get(UUID.fromString(orderId));
+    }
+
+    public Summary get(UUID id) {
+        long hi = id.getMostSignificantBits();
+        long lo = id.getLeastSignificantBits();
+        long stamp = lock.tryOptimisticRead();
+        Summary summary = read(table, hi, lo);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                summary = read(table, hi, lo);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Allocation-free status lookup; {@code null} if the order is not held.
+     */
+    public OrderStatus status(UUID id) {
+        long hi = id.getMostSignificantBits();
+        long lo = id.getLeastSignificantBits();
+        long stamp = lock.tryOptimisticRead();
+        int code = readStatus(table, hi, lo);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                code = readStatus(table, hi, lo);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return code == 0 ? null : OrderStatus.fromCode((short) code);
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Off-heap bytes currently reserved by the table.
+     */
+    public long memoryBytes() {
+        long stamp = lock.readLock();
+        try {
+            return (long) table.capacity();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * A 64-bit fingerprint of a user id for grouping and filtering summaries; two
+     * users can share a key, so callers that need exact matches must confirm them.
+     */
+    public static long userKey(String userId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < userId.length(); i++) {
+            hash = (hash ^ userId.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static Summary read(ByteBuffer table, long hi, long lo) {
+        int slot = find(table, maskOf(table), hi, lo);
+        if (slot < 0) {
+            return null;
+        }
+        int at = offset(slot);
+        int code = table.get(at + STATUS);
+        if (code <= 0) {
+            // Torn by a concurrent write; the caller's validation will fail
+            return null;
+        }
+        return new Summary(OrderStatus.fromCode((short) code), table.getLong(at + TOTAL),
+                unpackCurrency(table.getShort(at + CURRENCY)), table.getLong(at + USER_KEY), table.getInt(at + ITEM_COUNT));
+    }
+
+    private static int readStatus(ByteBuffer table, long hi, long lo) {
+        int slot = find(table, maskOf(table), hi, lo);
+        return slot < 0 ? 0 : Math.max(0, table.get(offset(slot) + STATUS));
+    }
+
+    private static int find(ByteBuffer table, int mask, long hi, long lo) {
+        // Bounded so a read racing a writer cannot loop forever
+        for (int slot = index(hi, lo, mask), probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+            int at = offset(slot);
+            byte state = table.get(at + STATE);
+            if (state == FREE) {
+                return -1;
+            }
+            if (state == USED && table.getLong(at + ID_HI) == hi && table.getLong(at + ID_LO) == lo) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int insertionSlot(long hi, long lo) {
+        int slot = index(hi, lo, mask);
+        while (table.get(offset(slot) + STATE) == USED) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        int capacity = mask + 1;
+        // Only grow when live entries need it; otherwise rehashing drops tombstones
+        int next = size + 1 > capacity * MAX_LOAD / 2 ? capacity * 2 : capacity;
+        if (next > MAX_CAPACITY) {
+            throw new IllegalStateException("Order summary store is full (" + size + " orders)");
+        }
+        ByteBuffer old = table;
+        allocate(next);
+        for (int slot = 0; slot < capacity; slot++) {
+            int from = offset(slot);
+            if (old.get(from + STATE) == USED) {
+                int to = offset(insertionSlot(old.getLong(from + ID_HI), old.getLong(from + ID_LO)));
+                table.put(to, old, from, SLOT_BYTES);
+            }
+        }
+        removed = 0;
+    }
+
+    private void allocate(int capacity) {
+        table = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int expectedOrders) {
+        long needed = (long) Math.ceil(Math.max(1, expectedOrders) / MAX_LOAD);
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalArgumentException("At most " + (int) (MAX_CAPACITY * MAX_LOAD) + " orders are supported");
+        }
+        return Math.max(16, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    // Readers derive the mask from the table they read, so a racing resize cannot pair them wrongly
+    private static int maskOf(ByteBuffer table) {
+        return table.capacity() / SLOT_BYTES - 1;
+    }
+
+    private static int offset(int slot) {
+        return slot * SLOT_BYTES;
+    }
+
+    private static int index(long hi, long lo, int mask) {
+        return (int) mix(hi ^ Long.rotateLeft(lo, 32)) & mask;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static short packCurrency(String currency) {
+        if (currency == null || currency.length() != 3) {
+            throw new IllegalArgumentException("Unsupported currency: " + currency);
+        }
+        int packed = 0;
+        for (int i = 0; i < 3; i++) {
+            char c = currency.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                throw new IllegalArgumentException("Unsupported currency: " + currency);
+            }
+            packed = packed << 5 | (c - 'A');
+        }
+        return (short) packed;
+    }
+
+    private static String unpackCurrency(short packed) {
+        char[] code = new char[3];
+        for (int i = 2; i >= 0; i--) {
+            code[i] = (char) ('A' + (packed >> (5 * (2 - i)) & 31));
+        }
+        return new String(code);
+    }
+}
@@ -0,0 +1,164 @@
+package org.example;
+
+import io.grpc.Status;
+import org.example.exceptions.InternalServerErrorException;
+import org.example.services.AssignmentBatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import proto.Fulfillment;
+import proto.FulfillmentServiceGrpc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AssignmentBatcherTest {
+
+    @Mock
+    private FulfillmentServiceGrpc.FulfillmentServiceBlockingStub stub;
+
+    private AssignmentBatcher batcher;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        batcher = new AssignmentBatcher(stub, true, 16, 5, 1, 5000);
+        callers = Executors.newFixedThreadPool(32);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        batcher.destroy();
+    }
+
+    private static Fulfillment.AssignOrderRequest request(String orderId) {
+        return Fulfillment.AssignOrderRequest.newBuilder().setOrderId(orderId).setDeliveryPersonId("dp-1").build();
+    }
+
+    private static Fulfillment.AssignOrdersResponse assignAll(Fulfillment.AssignOrdersRequest request) {
+        Fulfillment.AssignOrdersResponse.Builder response = Fulfillment.AssignOrdersResponse.newBuilder();
+        for (Fulfillment.AssignOrderRequest assignment : request.getAssignmentsList()) {
+            response.addResults(Fulfillment.AssignOrderResult.newBuilder()
+                    .setOrderId(assignment.getOrderId())
+                    .setStatus("ASSIGNED " + assignment.getOrderId()));
+        }
+        return response.build();
+    }
+
+    @Test
+    void testLoneRequestIsSentWithoutBatching() {
+        when(stub.assignOrder(any())).thenReturn(Fulfillment.AssignOrderResponse.newBuilder().setStatus("ASSIGNED").build());
+
+        assertEquals("ASSIGNED", batcher.assign(request("o1")).getStatus());
+
+        verify(stub, never()).assignOrders(any());
+    }
+
+    @Test
+    void testBurstIsBatchedAndEachCallerGetsItsOwnResult() throws Exception {
+        CountDownLatch firstCall = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(stub.assignOrder(any())).thenAnswer(invocation -> {
+            // Hold the only in-flight slot so the burst queues up behind it
+            firstCall.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            Fulfillment.AssignOrderRequest request = invocation.getArgument(0);
+            return Fulfillment.AssignOrderResponse.newBuilder().setStatus("ASSIGNED " + request.getOrderId()).build();
+        });
+        when(stub.assignOrders(any())).thenAnswer(invocation -> assignAll(invocation.getArgument(0)));
+
+        Future<Fulfillment.AssignOrderResponse> first = callers.submit(() -> batcher.assign(request("o0")));
+        assertTrue(firstCall.await(5, TimeUnit.SECONDS));
+        List<Future<Fulfillment.AssignOrderResponse>> burst = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            String orderId = "o" + i;
+            burst.add(callers.submit(() -> batcher.assign(request(orderId))));
+        }
+        Thread.sleep(50);
+        release.countDown();
+
+        assertEquals("ASSIGNED o0", first.get(5, TimeUnit.SECONDS).getStatus());
+        for (int i = 0; i < burst.size(); i++) {
+            assertEquals("ASSIGNED o" + (i + 1), burst.get(i).get(5, TimeUnit.SECONDS).getStatus());
+        }
+        verify(stub, atMost(2)).assignOrders(any());
+    }
+
+    @Test
+    void testFallsBackToSingleCallsWhenBatchRpcIsMissing() throws Exception {
+        CountDownLatch firstCall = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(stub.assignOrder(any())).thenAnswer(invocation -> {
+            if (firstCall.getCount() > 0) {
+                firstCall.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return Fulfillment.AssignOrderResponse.newBuilder().setStatus("ASSIGNED").build();
+        });
+        when(stub.assignOrders(any())).thenThrow(Status.UNIMPLEMENTED.asRuntimeException());
+
+        Future<?> first = callers.submit(() -> batcher.assign(request("o0")));
+        assertTrue(firstCall.await(5, TimeUnit.SECONDS));
+        List<Future<Fulfillment.AssignOrderResponse>> burst = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            String orderId = "o" + i;
+            burst.add(callers.submit(() -> batcher.assign(request(orderId))));
+        }
+        Thread.sleep(50);
+        release.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        for (Future<Fulfillment.AssignOrderResponse> response : burst) {
+            assertEquals("ASSIGNED", response.get(5, TimeUnit.SECONDS).getStatus());
+        }
+        verify(stub, times(6)).assignOrder(any());
+    }
+
+    @Test
+    void testSlowAssignmentTimesOut() {
+        AssignmentBatcher timingOut = new AssignmentBatcher(stub, true, 16, 5, 1, 20);
+        when(stub.assignOrder(any())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return Fulfillment.AssignOrderResponse.getDefaultInstance();
+        });
+        try {
+            assertThrows(InternalServerErrorException.class, () -> timingOut.assign(request("o1")));
+        } finally {
+            timingOut.destroy();
+        }
+    }
+
+    @Test
+    void testTimedOutRequestIsNotSentLater() throws Exception {
+        AssignmentBatcher timingOut = new AssignmentBatcher(stub, true, 16, 5, 1, 20);
+        when(stub.assignOrder(any())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return Fulfillment.AssignOrderResponse.getDefaultInstance();
+        });
+        try {
+            // o1 holds the only in-flight slot while o2 waits for it and times out
+            callers.submit(() -> timingOut.assign(request("o1")));
+            Thread.sleep(50);
+            assertThrows(InternalServerErrorException.class, () -> timingOut.assign(request("o2")));
+            Thread.sleep(300);
+
+            verify(stub).assignOrder(request("o1"));
+            verify(stub, never()).assignOrder(request("o2"));
+        } finally {
+            timingOut.destroy();
+        }
+    }
+}
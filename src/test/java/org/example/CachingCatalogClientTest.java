@@ -0,0 +1,159 @@
+package org.example;
+
+import org.example.dto.ItemResponse;
+import org.example.repositories.AsyncCatalogClient;
+import org.example.repositories.CachingCatalogClient;
+import org.example.repositories.CatalogClient;
+import org.example.sharding.OrderShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingCatalogClientTest {
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private CatalogClient remote;
+
+    @Mock
+    private AsyncCatalogClient asyncRemote;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        file = dir.resolve("item-cache.bin");
+        when(remote.getItemById("item1")).thenReturn(new ItemResponse("item1", "Pizza", null, "r1", 12.50, "EUR"));
+    }
+
+    private CachingCatalogClient newClient(long ttlMillis) {
+        return new CachingCatalogClient(remote, asyncRemote, jdbcTemplate, OrderShards.single(), true, ttlMillis, 100, file, 10, 7);
+    }
+
+    @Test
+    void testRepeatLookupsAreServedFromCache() {
+        CachingCatalogClient client = newClient(60_000);
+
+        client.getItemById("item1");
+        ItemResponse item = client.getItemById("item1");
+
+        assertEquals(12.50, item.getPrice());
+        verify(remote, times(1)).getItemById("item1");
+    }
+
+    @Test
+    void testUnknownItemsAreNotCached() {
+        CachingCatalogClient client = newClient(60_000);
+
+        assertNull(client.getItemById("missing"));
+        assertNull(client.getItemById("missing"));
+
+        verify(remote, times(2)).getItemById("missing");
+    }
+
+    @Test
+    void testBasketMissesAreFetchedConcurrentlyAndCached() {
+        CachingCatalogClient client = newClient(60_000);
+        client.getItemById("item1");
+        CompletableFuture<ItemResponse> soda = new CompletableFuture<>();
+        when(asyncRemote.getItemById("item2")).thenReturn(soda);
+        when(asyncRemote.getItemById("missing")).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Both misses are requested before either reply arrives
+        CompletableFuture<List<ItemResponse>> basket = CompletableFuture.supplyAsync(
+                () -> client.getItemsById(List.of("item1", "item2", "missing")));
+        verify(asyncRemote, timeout(5000)).getItemById("missing");
+        soda.complete(new ItemResponse("item2", "Soda", null, "r1", 2.25, "EUR"));
+
+        List<ItemResponse> items = basket.join();
+        assertEquals(Arrays.asList("item1", "item2", null),
+                items.stream().map(item -> item == null ? null : item.getId()).toList());
+        assertEquals(2.25, client.getItemById("item2").getPrice());
+        verify(remote, never()).getItemById("item2");
+        verify(asyncRemote, never()).getItemById("item1");
+    }
+
+    @Test
+    void testSnapshotSurvivesRestart() {
+        CachingCatalogClient client = newClient(60_000);
+        client.getItemById("item1");
+        client.destroy();
+
+        CachingCatalogClient restarted = newClient(60_000);
+        ItemResponse item = restarted.getItemById("item1");
+
+        assertTrue(Files.exists(file));
+        assertEquals(new ItemResponse("item1", "Pizza", null, "r1", 12.50, "EUR"), item);
+        verify(remote, times(1)).getItemById("item1");
+    }
+
+    @Test
+    void testExpiredSnapshotEntriesAreNotLoaded() throws Exception {
+        CachingCatalogClient client = newClient(60_000);
+        client.getItemById("item1");
+        client.destroy();
+        Thread.sleep(20);
+
+        CachingCatalogClient restarted = newClient(10);
+
+        assertEquals(0, restarted.size());
+    }
+
+    @Test
+    void testCorruptSnapshotIsIgnored() throws Exception {
+        Files.write(file, new byte[]{1, 2, 3});
+
+        CachingCatalogClient client = newClient(60_000);
+
+        assertEquals(0, client.size());
+        assertNotNull(client.getItemById("item1"));
+    }
+
+    @Test
+    void testPriceChangeEvictsOnlyThatRestaurantsItems() {
+        when(remote.getItemById("item2")).thenReturn(new ItemResponse("item2", "Soda", null, "r2", 2.00, "EUR"));
+        CachingCatalogClient client = newClient(60_000);
+        client.getItemById("item1");
+        client.getItemById("item2");
+
+        client.evictRestaurant("r1");
+        client.getItemById("item1");
+        client.getItemById("item2");
+
+        verify(remote, times(2)).getItemById("item1");
+        verify(remote, times(1)).getItemById("item2");
+    }
+
+    @Test
+    void testFailedSaveLeavesNoTemporaryFile() throws Exception {
+        // A non-empty directory where the snapshot belongs makes the final move fail
+        Files.createDirectories(file.resolve("occupied"));
+        CachingCatalogClient client = newClient(60_000);
+        client.getItemById("item1");
+
+        assertThrows(UncheckedIOException.class, client::save);
+
+        try (var files = Files.list(dir)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+}
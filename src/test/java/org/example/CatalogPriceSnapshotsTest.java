@@ -0,0 +1,121 @@
+package org.example;
+
+import org.example.dto.ItemResponse;
+import org.example.dto.RestaurantPrices;
+import org.example.repositories.CatalogClient;
+import org.example.services.CatalogPriceSnapshots;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogPriceSnapshotsTest {
+
+    @Mock
+    private CatalogClient catalogClient;
+
+    private CatalogPriceSnapshots snapshots;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        snapshots = new CatalogPriceSnapshots(catalogClient, true, 60_000, 100);
+    }
+
+    private static RestaurantPrices prices(long version, ItemResponse... items) {
+        return new RestaurantPrices("r1", version, List.of(items));
+    }
+
+    @Test
+    void testQuotesTrackedRestaurantLocally() {
+        snapshots.observe(List.of(new ItemResponse("item1", "Pizza", null, "r1", 12.50)));
+        when(catalogClient.getRestaurantPrices("r1")).thenReturn(prices(1,
+                new ItemResponse("item1", "Pizza", null, "r1", 12.50),
+                new ItemResponse("item2", "Soda", null, "r1", 2.25)));
+
+        snapshots.refreshAll();
+        CatalogPriceSnapshots.PriceQuote quote = snapshots.quote(List.of("item1", "item2", "item2"));
+
+        assertEquals(new CatalogPriceSnapshots.PriceQuote("USD", 1700), quote);
+        verify(catalogClient, never()).getItemById(any());
+    }
+
+    @Test
+    void testUnknownItemFallsBackToLivePricing() {
+        when(catalogClient.getRestaurantPrices("r1")).thenReturn(prices(1, new ItemResponse("item1", "Pizza", null, "r1", 12.50)));
+        snapshots.refresh("r1");
+
+        assertNull(snapshots.quote(List.of("item1", "item9")));
+    }
+
+    @Test
+    void testOlderVersionDoesNotReplaceNewer() {
+        when(catalogClient.getRestaurantPrices("r1"))
+                .thenReturn(prices(2, new ItemResponse("item1", "Pizza", null, "r1", 14.00)))
+                .thenReturn(prices(1, new ItemResponse("item1", "Pizza", null, "r1", 12.50)));
+
+        assertTrue(snapshots.refresh("r1"));
+        assertFalse(snapshots.refresh("r1"));
+
+        assertEquals(1400, snapshots.quote(List.of("item1")).totalMinorUnits());
+    }
+
+    @Test
+    void testRemovedItemIsNoLongerQuoted() {
+        when(catalogClient.getRestaurantPrices("r1"))
+                .thenReturn(prices(1, new ItemResponse("item1", "Pizza", null, "r1", 12.50),
+                        new ItemResponse("item2", "Soda", null, "r1", 2.25)))
+                .thenReturn(prices(2, new ItemResponse("item1", "Pizza", null, "r1", 12.50)));
+
+        snapshots.refresh("r1");
+        snapshots.refresh("r1");
+
+        assertNull(snapshots.quote(List.of("item2")));
+        assertNotNull(snapshots.quote(List.of("item1")));
+    }
+
+    @Test
+    void testStaleSnapshotIsNotUsed() {
+        CatalogPriceSnapshots expiring = new CatalogPriceSnapshots(catalogClient, true, 0, 100);
+        when(catalogClient.getRestaurantPrices("r1")).thenReturn(prices(1, new ItemResponse("item1", "Pizza", null, "r1", 12.50)));
+        expiring.refresh("r1");
+
+        assertNull(expiring.quote(List.of("item1")));
+    }
+
+    @Test
+    void testCatalogFailureKeepsPreviousSnapshot() {
+        when(catalogClient.getRestaurantPrices("r1"))
+                .thenReturn(prices(1, new ItemResponse("item1", "Pizza", null, "r1", 12.50)))
+                .thenThrow(new RuntimeException("catalog down"));
+
+        snapshots.refresh("r1");
+
+        assertFalse(snapshots.refresh("r1"));
+        assertEquals(1250, snapshots.quote(List.of("item1")).totalMinorUnits());
+    }
+
+    @Test
+    void testPriceChangeStopsQuotingUntilANewVersionArrives() {
+        when(catalogClient.getRestaurantPrices("r1"))
+                .thenReturn(prices(1, new ItemResponse("item1", "Pizza", null, "r1", 12.50)))
+                .thenThrow(new RuntimeException("catalog down"))
+                .thenReturn(prices(1, new ItemResponse("item1", "Pizza", null, "r1", 12.50)))
+                .thenReturn(prices(2, new ItemResponse("item1", "Pizza", null, "r1", 13.00)));
+        snapshots.refresh("r1");
+
+        assertFalse(snapshots.priceChanged("r1"));
+        assertNull(snapshots.quote(List.of("item1")));
+        // A fetch that still sees the old version does not bring the old prices back
+        assertFalse(snapshots.refresh("r1"));
+        assertNull(snapshots.quote(List.of("item1")));
+
+        assertTrue(snapshots.refresh("r1"));
+        assertEquals(1300, snapshots.quote(List.of("item1")).totalMinorUnits());
+    }
+}
@@ -0,0 +1,69 @@
+package org.example;
+
+import org.example.limits.AdaptiveConcurrencyLimiter;
+import org.example.limits.ConcurrencyLimitFilter;
+import org.example.limits.RequestPriority;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitTest {
+
+    @Test
+    void testBulkRequestsAreShedBeforeCriticalOnes() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 10, 1.5, 0.2);
+
+        assertTrue(limiter.tryAcquire(RequestPriority.BULK) > 0);
+        assertTrue(limiter.tryAcquire(RequestPriority.BULK) > 0);
+        assertEquals(-1, limiter.tryAcquire(RequestPriority.BULK));
+        assertTrue(limiter.tryAcquire(RequestPriority.NORMAL) > 0);
+        assertTrue(limiter.tryAcquire(RequestPriority.CRITICAL) > 0);
+        assertEquals(-1, limiter.tryAcquire(RequestPriority.CRITICAL));
+        assertEquals(4, limiter.getInFlight());
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 1000, 1.5, 0.2);
+        for (int i = 0; i < 50; i++) {
+            limiter.release(100, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        int baseline = limiter.getLimit();
+        assertTrue(baseline > 100);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.release(baseline, TimeUnit.MILLISECONDS.toNanos(200));
+        }
+
+        assertTrue(limiter.getLimit() < baseline);
+        assertTrue(limiter.getLimit() >= 10);
+    }
+
+    @Test
+    void testLimitDoesNotGrowWhenUnderused() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 1000, 1.5, 0.2);
+        for (int i = 0; i < 50; i++) {
+            limiter.release(5, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        assertEquals(100, limiter.getLimit());
+    }
+
+    @Test
+    void testFilterShedsListReadWhileStatusReadIsInFlight() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(true, 2, 2, 2, 1.5, 0.2);
+        MockHttpServletResponse shedResponse = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/orders/order123"), new MockHttpServletResponse(),
+                (request, response) -> filter.doFilter(new MockHttpServletRequest("GET", "/orders"), shedResponse,
+                        (innerRequest, innerResponse) -> fail("bulk read should have been shed")));
+
+        assertEquals(503, shedResponse.getStatus());
+        assertEquals("1", shedResponse.getHeader("Retry-After"));
+        assertEquals(0, filter.getLimiter().getInFlight());
+    }
+}
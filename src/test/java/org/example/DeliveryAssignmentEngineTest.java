@@ -0,0 +1,121 @@
+package org.example;
+
+import org.example.events.OrderEvent;
+import org.example.models.OrderStatus;
+import org.example.services.DeliveryAssignmentEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import proto.Fulfillment;
+import proto.FulfillmentServiceGrpc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.when;
+
+class DeliveryAssignmentEngineTest {
+
+    @Mock
+    private FulfillmentServiceGrpc.FulfillmentServiceBlockingStub stub;
+
+    private DeliveryAssignmentEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        engine = new DeliveryAssignmentEngine(stub, List.of("dp-1", "dp-2", "dp-3"), 2, "default");
+    }
+
+    @Test
+    void testSpreadsOrdersAcrossLeastLoaded() {
+        List<String> couriers = engine.assignAll(List.of("o1", "o2", "o3"));
+
+        assertEquals(List.of("dp-1", "dp-2", "dp-3"), couriers);
+        assertEquals(1, engine.loadOf("dp-1"));
+    }
+
+    @Test
+    void testReassigningAnOrderKeepsItsSlot() {
+        String first = engine.assign("o1");
+
+        assertEquals(first, engine.assign("o1"));
+        assertEquals(1, engine.loadOf(first));
+        engine.release("o1");
+        assertEquals(0, engine.loadOf(first));
+    }
+
+    @Test
+    void testFallsBackToDefaultWhenEveryoneIsFull() {
+        engine.assignAll(List.of("o1", "o2", "o3", "o4", "o5", "o6"));
+
+        assertEquals("default", engine.assign("o7"));
+    }
+
+    @Test
+    void testReleaseFreesTheSlot() {
+        engine.assignAll(List.of("o1", "o2", "o3", "o4", "o5", "o6"));
+
+        engine.onOrderEvent(new OrderEvent.StatusChanged("o2", OrderStatus.DELIVERED));
+
+        assertEquals("dp-2", engine.assign("o7"));
+    }
+
+    @Test
+    void testUnavailableCourierIsSkipped() {
+        engine.setAvailable("dp-1", false);
+
+        assertEquals(List.of("dp-2", "dp-3", "dp-2"), engine.assignAll(List.of("o1", "o2", "o3")));
+
+        engine.setAvailable("dp-1", true);
+        assertEquals("dp-1", engine.assign("o4"));
+    }
+
+    @Test
+    void testReseedCountsOpenOrdersFromFulfillment() {
+        Fulfillment.Order open = Fulfillment.Order.newBuilder().setOrderId("x1").setStatus("Shipped").build();
+        Fulfillment.Order delivered = Fulfillment.Order.newBuilder().setOrderId("x2").setStatus("Delivered").build();
+        when(stub.getOrdersByDeliveryPerson(any())).thenReturn(Fulfillment.GetOrdersByDeliveryPersonResponse.getDefaultInstance());
+        when(stub.getOrdersByDeliveryPerson(argThat(request -> request != null && request.getDeliveryPersonId().equals("dp-1"))))
+                .thenReturn(Fulfillment.GetOrdersByDeliveryPersonResponse.newBuilder().addOrders(open).addOrders(open.toBuilder().setOrderId("x3")).addOrders(delivered).build());
+
+        engine.reseed();
+
+        assertEquals(2, engine.loadOf("dp-1"));
+        assertEquals("dp-2", engine.assign("o1"));
+        engine.release("x1");
+        assertEquals(1, engine.loadOf("dp-1"));
+    }
+
+    @Test
+    void testConcurrentAssignmentsRespectMaxLoad() throws Exception {
+        DeliveryAssignmentEngine busy = new DeliveryAssignmentEngine(stub, List.of("dp-1", "dp-2", "dp-3", "dp-4"), 50, "default");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> picks = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                String orderId = "o" + i;
+                picks.add(pool.submit(() -> busy.assign(orderId)));
+            }
+            int defaults = 0;
+            for (Future<String> pick : picks) {
+                if (pick.get().equals("default")) {
+                    defaults++;
+                }
+            }
+            assertEquals(100, defaults);
+            for (String courier : List.of("dp-1", "dp-2", "dp-3", "dp-4")) {
+                assertEquals(50, busy.loadOf(courier));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
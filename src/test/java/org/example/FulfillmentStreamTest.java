@@ -0,0 +1,167 @@
+package org.example;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import org.example.services.FulfillmentStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import proto.Fulfillment;
+import proto.FulfillmentServiceGrpc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FulfillmentStreamTest {
+
+    private final AtomicInteger streamsOpened = new AtomicInteger();
+    private final AtomicInteger unaryCalls = new AtomicInteger();
+    private Server server;
+    private ManagedChannel channel;
+    private FulfillmentStream stream;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (stream != null) {
+            stream.destroy();
+        }
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /** Answers unary calls, and optionally the streaming Exchange, in the same way. */
+    private class FakeFulfillment extends FulfillmentServiceGrpc.FulfillmentServiceImplBase {
+        private final boolean streaming;
+
+        FakeFulfillment(boolean streaming) {
+            this.streaming = streaming;
+        }
+
+        @Override
+        public void getOrderStatus(Fulfillment.GetOrderStatusRequest request,
+                                   StreamObserver<Fulfillment.GetOrderStatusResponse> responseObserver) {
+            unaryCalls.incrementAndGet();
+            responseObserver.onNext(Fulfillment.GetOrderStatusResponse.newBuilder().setStatus("Status of " + request.getOrderId()).build());
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public StreamObserver<Fulfillment.FulfillmentEnvelope> exchange(StreamObserver<Fulfillment.FulfillmentEnvelope> replies) {
+            if (!streaming) {
+                return super.exchange(replies);
+            }
+            streamsOpened.incrementAndGet();
+            return new StreamObserver<>() {
+                @Override
+                public void onNext(Fulfillment.FulfillmentEnvelope request) {
+                    if (request.getGetOrderStatus().getOrderId().startsWith("silent")) {
+                        return;
+                    }
+                    Fulfillment.FulfillmentEnvelope.Builder reply = Fulfillment.FulfillmentEnvelope.newBuilder()
+                            .setCorrelationId(request.getCorrelationId());
+                    if (request.hasGetOrderStatus()) {
+                        reply.setGetOrderStatusResult(Fulfillment.GetOrderStatusResponse.newBuilder()
+                                .setStatus("Status of " + request.getGetOrderStatus().getOrderId()));
+                    } else if (request.hasUpdateOrderStatus()) {
+                        reply.setUpdateOrderStatusResult(Fulfillment.UpdateOrderStatusResponse.newBuilder().setStatus("UPDATED"));
+                    } else {
+                        reply.setError("unsupported request");
+                    }
+                    synchronized (replies) {
+                        replies.onNext(reply.build());
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    replies.onCompleted();
+                }
+            };
+        }
+    }
+
+    private void start(boolean streaming) throws Exception {
+        start(streaming, 5000, 1000);
+    }
+
+    private void start(boolean streaming, long timeoutMs, long reconnectMs) throws Exception {
+        server = Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                .addService(new FakeFulfillment(streaming))
+                .build()
+                .start();
+        channel = Grpc.newChannelBuilderForAddress("localhost", server.getPort(), InsecureChannelCredentials.create()).build();
+        stream = new FulfillmentStream(channel, FulfillmentServiceGrpc.newBlockingStub(channel), true, timeoutMs, 100, reconnectMs, 2);
+    }
+
+    private static Fulfillment.GetOrderStatusRequest status(String orderId) {
+        return Fulfillment.GetOrderStatusRequest.newBuilder().setOrderId(orderId).build();
+    }
+
+    @Test
+    void testConcurrentCallsShareOneStreamAndGetTheirOwnReplies() throws Exception {
+        start(true);
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> replies = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String orderId = "o" + i;
+                replies.add(callers.submit(() -> stream.getOrderStatus(status(orderId)).getStatus()));
+            }
+            for (int i = 0; i < replies.size(); i++) {
+                assertEquals("Status of o" + i, replies.get(i).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertEquals(1, streamsOpened.get());
+        assertEquals(0, unaryCalls.get());
+    }
+
+    @Test
+    void testErrorReplyIsRaisedToCaller() throws Exception {
+        start(true);
+
+        assertThrows(StatusRuntimeException.class, () -> stream.assignOrder(
+                Fulfillment.AssignOrderRequest.newBuilder().setOrderId("o1").build()));
+        assertEquals("UPDATED", stream.updateOrderStatus(
+                Fulfillment.UpdateOrderStatusRequest.newBuilder().setOrderId("o1").setStatus("Delivered").build()).getStatus());
+    }
+
+    @Test
+    void testFallsBackToUnaryCallsWhenExchangeIsUnimplemented() throws Exception {
+        start(false);
+
+        assertEquals("Status of o1", stream.getOrderStatus(status("o1")).getStatus());
+        assertEquals("Status of o2", stream.getOrderStatus(status("o2")).getStatus());
+
+        assertEquals(2, unaryCalls.get());
+    }
+
+    @Test
+    void testSilentStreamIsReopenedAfterConsecutiveTimeouts() throws Exception {
+        start(true, 100, 0);
+
+        assertThrows(StatusRuntimeException.class, () -> stream.getOrderStatus(status("silent-1")));
+        assertThrows(StatusRuntimeException.class, () -> stream.getOrderStatus(status("silent-2")));
+        assertEquals("Status of o1", stream.getOrderStatus(status("o1")).getStatus());
+
+        assertEquals(2, streamsOpened.get());
+        assertEquals(0, unaryCalls.get());
+    }
+}
@@ -45,7 +45,7 @@ public class GrpcClientConfigTest {
     public void testFulfillmentServiceBlockingStubCreation() {
         ManagedChannel mockChannel = mock(ManagedChannel.class);
         GrpcClientConfig config = new GrpcClientConfig();
-        FulfillmentServiceGrpc.FulfillmentServiceBlockingStub stub = config.fulfillmentServiceBlockingStub(mockChannel);
+        FulfillmentServiceGrpc.FulfillmentServiceBlockingStub stub = config.fulfillmentServiceBlockingStub(mockChannel, 3000);
 
         assertNotNull(stub, "FulfillmentServiceBlockingStub should be created");
     }
@@ -0,0 +1,101 @@
+package org.example;
+
+import org.example.journal.Journal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<String> replay(Journal journal) {
+        List<String> records = new ArrayList<>();
+        journal.replay(record -> records.add(StandardCharsets.UTF_8.decode(record).toString()));
+        return records;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testReplay_ReturnsRecordsAcrossSegmentsInOrder() {
+        Journal journal = new Journal(dir, "test", 4096);
+        journal.append(bytes("a"));
+        journal.rotate();
+        journal.append(bytes("b"));
+        journal.close();
+
+        assertEquals(List.of("a", "b"), replay(new Journal(dir, "test", 4096)));
+    }
+
+    @Test
+    void testReplay_StopsAtCorruptRecord() throws Exception {
+        Journal journal = new Journal(dir, "test", 4096);
+        journal.append(bytes("complete"));
+        journal.append(bytes("damaged"));
+        journal.close();
+        try (var files = Files.list(dir); FileChannel channel = FileChannel.open(files.findFirst().orElseThrow(), StandardOpenOption.WRITE)) {
+            // Flip a payload byte of the second record (first record is 8 + 8 bytes)
+            channel.write(ByteBuffer.wrap(bytes("X")), 16 + 8);
+        }
+
+        assertEquals(List.of("complete"), replay(new Journal(dir, "test", 4096)));
+    }
+
+    @Test
+    void testAppend_StartsNewSegmentWhenFull() {
+        Journal journal = new Journal(dir, "test", 64);
+        long first = journal.append(bytes("0123456789012345678901234567890"));
+        long second = journal.append(bytes("0123456789012345678901234567890"));
+
+        assertEquals(first + 1, second);
+        assertEquals(2, replay(journal).size());
+        journal.close();
+    }
+
+    @Test
+    void testDeleteSegmentsBefore_DropsOnlyOlderSegments() {
+        Journal journal = new Journal(dir, "test", 4096);
+        journal.append(bytes("old"));
+        long current = journal.rotate();
+        journal.append(bytes("new"));
+        journal.deleteSegmentsBefore(current);
+
+        assertEquals(List.of("new"), replay(journal));
+        journal.close();
+    }
+
+    @Test
+    void testAppend_ConcurrentWritersAllDurable() throws Exception {
+        Journal journal = new Journal(dir, "test", 4096);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String record = "r" + i;
+            futures.add(executor.submit(() -> journal.append(bytes(record))));
+        }
+        for (Future<Long> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        journal.close();
+
+        assertEquals(200, replay(new Journal(dir, "test", 4096)).size());
+    }
+}
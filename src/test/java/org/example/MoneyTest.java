@@ -0,0 +1,49 @@
+package org.example;
+
+import org.example.dto.ItemResponse;
+import org.example.models.Money;
+import org.example.services.BasketTotals;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void testToMinorUnitsRoundsBinaryError() {
+        assertEquals(29L, Money.toMinorUnits(0.29, "USD"));
+        assertEquals(1005L, Money.toMinorUnits(10.05, "USD"));
+        assertEquals(500L, Money.toMinorUnits(500.0, "JPY"));
+    }
+
+    @Test
+    void testToDecimalIsExact() {
+        assertEquals(new BigDecimal("0.30"), Money.toDecimal(30L, "USD"));
+        assertEquals(30L, Money.toMinorUnits(new BigDecimal("0.30"), "USD"));
+    }
+
+    @Test
+    void testBasketTotalHasNoDrift() {
+        List<ItemResponse> items = List.of(
+                new ItemResponse("a", "A", null, "r1", 0.1),
+                new ItemResponse("b", "B", null, "r1", 0.2));
+
+        long total = BasketTotals.totalMinorUnits(items, "USD");
+
+        assertEquals(30L, total);
+        assertEquals(new BigDecimal("0.30"), Money.toDecimal(total, "USD"));
+        assertNotEquals(0.3, items.stream().mapToDouble(ItemResponse::getPrice).sum());
+    }
+
+    @Test
+    void testBasketRejectsMixedCurrencies() {
+        List<ItemResponse> items = List.of(
+                new ItemResponse("a", "A", null, "r1", 1.0, "USD"),
+                new ItemResponse("b", "B", null, "r1", 1.0, "EUR"));
+
+        assertThrows(IllegalArgumentException.class, () -> BasketTotals.totalMinorUnits(items, "USD"));
+    }
+}
@@ -3,9 +3,15 @@ package org.example;
 import org.example.controllers.OrderController;
 import org.example.dto.ApiResponse;
 import org.example.dto.OrderRequest;
+import org.example.dto.OrderResponse;
 import org.example.exceptions.InternalServerErrorException;
 import org.example.exceptions.OrderIsMisplacedException;
 import org.example.exceptions.OrderNotFoundException;
+import org.example.exceptions.OrderStatusConflictException;
+import org.example.exceptions.TooManyRequestsException;
+import org.example.limits.OrderRateLimiter;
+import org.example.models.Order;
+import org.example.models.OrderStatus;
 import org.example.services.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,10 +24,13 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import proto.OrderPayloads;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
@@ -38,6 +47,9 @@ public class OrderControllerTest {
     @MockBean
     private OrderService orderService;
 
+    @MockBean
+    private OrderRateLimiter orderRateLimiter;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -77,14 +89,14 @@ public class OrderControllerTest {
                 .status(HttpStatus.OK)
                 .data(Map.of("order", orderRequest))
                 .build();
-        when(orderService.getOrderById("order123")).thenReturn(ResponseEntity.ok(response));
+        when(orderService.getOrderById("order123", null)).thenReturn(ResponseEntity.ok(response));
 
         mockMvc.perform(get("/orders/order123")
                         .with(user("user").roles("USER")))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message").value("Fetched"));
 
-        verify(orderService, times(1)).getOrderById("order123");
+        verify(orderService, times(1)).getOrderById("order123", null);
     }
 
     @Test
@@ -94,14 +106,14 @@ public class OrderControllerTest {
                 .status(HttpStatus.OK)
                 .data(Map.of("orders", List.of(orderRequest)))
                 .build();
-        when(orderService.getAllOrders()).thenReturn(ResponseEntity.ok(response));
+        when(orderService.getAllOrders(null)).thenReturn(ResponseEntity.ok(response));
 
         mockMvc.perform(get("/orders")
                         .with(user("admin").roles("ADMIN")))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message").value("Fetched"));
 
-        verify(orderService, times(1)).getAllOrders();
+        verify(orderService, times(1)).getAllOrders(null);
     }
 
     @Test
@@ -124,7 +136,7 @@ public class OrderControllerTest {
 
     @Test
     void testGetOrderById_NotFound() throws Exception {
-        when(orderService.getOrderById("order123")).thenThrow(new OrderNotFoundException("Order not found"));
+        when(orderService.getOrderById("order123", null)).thenThrow(new OrderNotFoundException("Order not found"));
 
         mockMvc.perform(get("/orders/order123")
                         .with(user("user").roles("USER")))
@@ -132,7 +144,7 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.message").value("Order not found"))
                 .andExpect(jsonPath("$.status").value("Order not found"));
 
-        verify(orderService, times(1)).getOrderById("order123");
+        verify(orderService, times(1)).getOrderById("order123", null);
     }
 
     @Test
@@ -199,7 +211,7 @@ public class OrderControllerTest {
                 .status(HttpStatus.OK)
                 .data(Map.of("orders", List.of()))
                 .build();
-        when(orderService.getAllOrders()).thenReturn(ResponseEntity.ok(response));
+        when(orderService.getAllOrders(null)).thenReturn(ResponseEntity.ok(response));
 
         mockMvc.perform(get("/orders")
                         .with(user("admin").roles("ADMIN")))
@@ -207,24 +219,24 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.message").value("Fetched"))
                 .andExpect(jsonPath("$.data.orders").isEmpty());
 
-        verify(orderService, times(1)).getAllOrders();
+        verify(orderService, times(1)).getAllOrders(null);
     }
 
     @Test
     void testGetOrderById_FulfillmentServiceFailure() throws Exception {
-        when(orderService.getOrderById("order123"))
+        when(orderService.getOrderById("order123", null))
                 .thenThrow(new InternalServerErrorException("Fulfillment service failure"));
 
         mockMvc.perform(get("/orders/order123")
                         .with(user("user").roles("USER")))
                 .andExpect(status().isInternalServerError());
 
-        verify(orderService, times(1)).getOrderById("order123");
+        verify(orderService, times(1)).getOrderById("order123", null);
     }
 
     @Test
     void testGetOrderById_OrderNotFound() throws Exception {
-        when(orderService.getOrderById("order123"))
+        when(orderService.getOrderById("order123", null))
                 .thenThrow(new OrderNotFoundException("Order not found"));
 
         mockMvc.perform(get("/orders/order123")
@@ -232,7 +244,140 @@ public class OrderControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Order not found"));
 
-        verify(orderService, times(1)).getOrderById("order123");
+        verify(orderService, times(1)).getOrderById("order123", null);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testGetOrderById_Protobuf() throws Exception {
+        Order order = Order.builder()
+                .id("order123")
+                .userId("user123")
+                .items(List.of("item1", "item2"))
+                .totalPrice(new BigDecimal("100.00"))
+                .status(OrderStatus.PENDING)
+                .build();
+        ApiResponse response = ApiResponse.builder()
+                .message("Fetched")
+                .status(HttpStatus.OK)
+                .data(Map.of("order", new OrderResponse(order)))
+                .build();
+        when(orderService.getOrderById("order123", null)).thenReturn(ResponseEntity.ok(response));
+
+        byte[] body = mockMvc.perform(get("/orders/order123")
+                        .with(user("user").roles("USER"))
+                        .accept("application/x-protobuf"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-protobuf"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        OrderPayloads.OrderEnvelope envelope = OrderPayloads.OrderEnvelope.parseFrom(body);
+        assertEquals(200, envelope.getStatus());
+        assertEquals("order123", envelope.getOrder().getId());
+        assertEquals(List.of("item1", "item2"), envelope.getOrder().getItemsList());
+        assertEquals(100.0, envelope.getOrder().getTotalPrice());
+        assertEquals(10000L, envelope.getOrder().getTotalPriceMinor());
+        assertEquals("USD", envelope.getOrder().getCurrency());
+    }
+
+    @Test
+    void testGetAllOrders_CompactJson() throws Exception {
+        Order order = Order.builder()
+                .id("order123")
+                .userId("user123")
+                .items(List.of("item1"))
+                .totalPrice(new BigDecimal("100.00"))
+                .status(OrderStatus.PENDING)
+                .build();
+        ApiResponse response = ApiResponse.builder()
+                .message("Fetched")
+                .status(HttpStatus.OK)
+                .data(Map.of("orders", List.of(new OrderResponse(order))))
+                .build();
+        when(orderService.getAllOrders(null)).thenReturn(ResponseEntity.ok(response));
+
+        mockMvc.perform(get("/orders")
+                        .with(user("admin").roles("ADMIN"))
+                        .accept("application/vnd.order-service.compact+json"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.m").value("Fetched"))
+                .andExpect(jsonPath("$.timestamp").doesNotExist())
+                .andExpect(jsonPath("$.d.orders[0].i").value("order123"))
+                .andExpect(jsonPath("$.d.orders[0].t").value(100.0));
+    }
+
+    @Test
+    void testGetOrderById_CompactJsonUsesShortNames() throws Exception {
+        Order order = Order.builder()
+                .id("order123")
+                .userId("user123")
+                .items(List.of("item1"))
+                .totalPrice(new BigDecimal("100.00"))
+                .status(OrderStatus.PENDING)
+                .build();
+        ApiResponse response = ApiResponse.builder()
+                .message("Fetched")
+                .status(HttpStatus.OK)
+                .data(Map.of("order", new OrderResponse(order)))
+                .build();
+        when(orderService.getOrderById("order123", null)).thenReturn(ResponseEntity.ok(response));
+
+        mockMvc.perform(get("/orders/order123")
+                        .with(user("user").roles("USER"))
+                        .accept("application/vnd.order-service.compact+json"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/vnd.order-service.compact+json"))
+                .andExpect(jsonPath("$.m").value("Fetched"))
+                .andExpect(jsonPath("$.s").value("OK"))
+                .andExpect(jsonPath("$.message").doesNotExist())
+                .andExpect(jsonPath("$.status").doesNotExist())
+                .andExpect(jsonPath("$.timestamp").doesNotExist())
+                .andExpect(jsonPath("$.d.order.i").value("order123"))
+                .andExpect(jsonPath("$.d.order.u").value("user123"))
+                .andExpect(jsonPath("$.d.order.it[0]").value("item1"))
+                .andExpect(jsonPath("$.d.order.s").value("Pending"))
+                .andExpect(jsonPath("$.d.order.id").doesNotExist())
+                .andExpect(jsonPath("$.d.order.totalPrice").doesNotExist());
+    }
+
+    @Test
+    void testGetOrderById_PassesIfNoneMatch() throws Exception {
+        when(orderService.getOrderById("order123", "W/\"abc\""))
+                .thenReturn(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("W/\"abc\"").build());
+
+        mockMvc.perform(get("/orders/order123")
+                        .with(user("user").roles("USER"))
+                        .header("If-None-Match", "W/\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"abc\""));
+
+        verify(orderService, times(1)).getOrderById("order123", "W/\"abc\"");
+    }
+
+    @Test
+    void testUpdateOrderStatus_Conflict() throws Exception {
+        when(orderService.updateOrderStatus("order123", "Shipped"))
+                .thenThrow(new OrderStatusConflictException("Cannot change the status of a Delivered order."));
+
+        mockMvc.perform(put("/orders/order123")
+                        .with(user("admin").roles("ADMIN"))
+                        .param("status", "Shipped"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Cannot change the status of a Delivered order."));
+    }
+
+    @Test
+    void testCreateOrder_RateLimited() throws Exception {
+        doThrow(new TooManyRequestsException("Too many orders for this user, please retry later.", 1_500_000_000L))
+                .when(orderRateLimiter).acquire("user123");
+
+        mockMvc.perform(post("/orders")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.message").value("Too many orders for this user, please retry later."));
+
+        verify(orderService, never()).createOrder(any(OrderRequest.class));
+    }
+}
@@ -0,0 +1,71 @@
+package org.example;
+
+import org.example.exceptions.TooManyRequestsException;
+import org.example.limits.OrderRateLimiter;
+import org.example.limits.TokenBucket;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(0);
+
+    @Test
+    void testTokenBucketAllowsBurstThenRefills() {
+        TokenBucket bucket = new TokenBucket(2, 1.0, clock::get);
+
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        long wait = bucket.tryAcquire();
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+
+    @Test
+    void testUsersAreLimitedIndependently() {
+        OrderRateLimiter limiter = new OrderRateLimiter(true, 1, 1.0, 100, 100.0, 1000, clock::get);
+
+        limiter.acquire("alice");
+        limiter.acquire("bob");
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class, () -> limiter.acquire("alice"));
+        assertEquals(1, exception.getRetryAfterSeconds());
+    }
+
+    @Test
+    void testGlobalLimitAppliesAcrossUsers() {
+        OrderRateLimiter limiter = new OrderRateLimiter(true, 10, 10.0, 2, 1.0, 1000, clock::get);
+
+        limiter.acquire("alice");
+        limiter.acquire("bob");
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class, () -> limiter.acquire("carol"));
+        assertEquals("Order service is busy, please retry later.", exception.getMessage());
+    }
+
+    @Test
+    void testGlobalRejectionDoesNotSpendUserTokens() {
+        OrderRateLimiter limiter = new OrderRateLimiter(true, 1, 1.0, 1, 1.0, 1000, clock::get);
+
+        limiter.acquire("bob");
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire("alice"));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        // Alice's single token survived the global rejection
+        limiter.acquire("alice");
+    }
+
+    @Test
+    void testDisabledLimiterAdmitsEverything() {
+        OrderRateLimiter limiter = new OrderRateLimiter(false, 1, 1.0, 1, 1.0, 1000, clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire("alice");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.example;
+
+import org.example.events.OrderEvent;
+import org.example.models.Order;
+import org.example.models.OrderStatus;
+import org.example.services.OrderReadModel;
+import org.example.sharding.OrderShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class OrderReadModelTest {
+
+    private OrderReadModel readModel;
+
+    @BeforeEach
+    void setUp() {
+        readModel = new OrderReadModel(mock(JdbcTemplate.class), mock(PlatformTransactionManager.class), OrderShards.single(), true);
+        readModel.build();
+    }
+
+    private static Order order(String id, String userId) {
+        return Order.builder()
+                .id(id)
+                .userId(userId)
+                .items(List.of("item1"))
+                .totalPrice(new BigDecimal("12.50"))
+                .currency("USD")
+                .status(OrderStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .version(0L)
+                .build();
+    }
+
+    @Test
+    void testBuildLeavesSharedJdbcTemplateSettingsAlone() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+        new OrderReadModel(jdbcTemplate, transactionManager, OrderShards.single(), true).build();
+
+        verify(jdbcTemplate, never()).setFetchSize(anyInt());
+        verify(jdbcTemplate, times(2)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        // Without a transaction the driver ignores the fetch size and reads everything at once
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void testEventsDuringBuildAreAppliedOnce() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        OrderReadModel model = new OrderReadModel(jdbcTemplate, mock(PlatformTransactionManager.class), OrderShards.single(), true);
+        ResultSet row = mock(ResultSet.class);
+        when(row.getString("id")).thenReturn("o1");
+        when(row.getString("user_id")).thenReturn("u1");
+        when(row.getBigDecimal("total_price")).thenReturn(new BigDecimal("12.5000"));
+        when(row.getString("currency")).thenReturn("USD");
+        when(row.getShort("status")).thenReturn(OrderStatus.ASSIGNED.getCode());
+        when(row.getTimestamp("created_at")).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
+        when(row.getObject("version", Long.class)).thenReturn(1L);
+        // Items are loaded first, then orders
+        doNothing().doAnswer(invocation -> {
+            Connection connection = mock(Connection.class);
+            when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+            invocation.<PreparedStatementCreator>getArgument(0).createPreparedStatement(connection);
+            verify(connection).prepareStatement(argThat(sql -> sql.endsWith("from orders")));
+            // The loaded row already includes the first change but not the second
+            model.onOrderEvent(new OrderEvent.StatusChanged("o1", OrderStatus.ASSIGNED));
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            model.onOrderEvent(new OrderEvent.StatusChanged("o1", OrderStatus.SHIPPED));
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        model.build();
+
+        assertEquals(OrderStatus.SHIPPED, model.get("o1").order().getStatus());
+        assertEquals(2L, model.get("o1").order().getVersion());
+    }
+
+    @Test
+    void testCreatedOrdersAreIndexedByIdAndUser() {
+        readModel.onOrderEvent(new OrderEvent.Created(order("o1", "u1")));
+        readModel.onOrderEvent(new OrderEvent.Created(order("o2", "u1")));
+        readModel.onOrderEvent(new OrderEvent.Created(order("o3", "u2")));
+
+        assertTrue(readModel.isReady());
+        assertEquals("u1", readModel.get("o1").response().getUserId());
+        assertEquals(2, readModel.getByUser("u1").size());
+        assertEquals(1, readModel.getByUser("u2").size());
+        assertTrue(readModel.getByUser("u3").isEmpty());
+    }
+
+    @Test
+    void testStoredOrderIsACopy() {
+        Order order = order("o1", "u1");
+        readModel.onOrderEvent(new OrderEvent.Created(order));
+        order.setStatus(OrderStatus.CANCELLED);
+
+        assertEquals(OrderStatus.PENDING, readModel.get("o1").order().getStatus());
+    }
+
+    @Test
+    void testStatusChangeReplacesViewAndETag() {
+        readModel.onOrderEvent(new OrderEvent.Created(order("o1", "u1")));
+        OrderReadModel.OrderView before = readModel.get("o1");
+
+        readModel.onOrderEvent(new OrderEvent.StatusChanged("o1", OrderStatus.ASSIGNED));
+
+        OrderReadModel.OrderView after = readModel.get("o1");
+        assertEquals(OrderStatus.ASSIGNED.getLabel(), after.response().getStatus());
+        assertEquals(1L, after.order().getVersion());
+        assertNotEquals(before.etag(), after.etag());
+        assertEquals(OrderStatus.PENDING.getLabel(), before.response().getStatus());
+    }
+
+    @Test
+    void testDeletedAndArchivedOrdersAreRemoved() {
+        readModel.onOrderEvent(new OrderEvent.Created(order("o1", "u1")));
+        readModel.onOrderEvent(new OrderEvent.Created(order("o2", "u1")));
+
+        readModel.onOrderEvent(new OrderEvent.Deleted("o1"));
+        readModel.onOrderEvent(new OrderEvent.Archived(List.of("o2")));
+
+        assertNull(readModel.get("o1"));
+        assertNull(readModel.get("o2"));
+        assertTrue(readModel.getByUser("u1").isEmpty());
+        assertEquals(0, readModel.size());
+    }
+
+    @Test
+    void testUnknownStatusChangeIsIgnored() {
+        readModel.onOrderEvent(new OrderEvent.StatusChanged("missing", OrderStatus.DELIVERED));
+
+        assertNull(readModel.get("missing"));
+    }
+}
@@ -0,0 +1,168 @@
+package org.example;
+
+import org.example.dto.ApiResponse;
+import org.example.dto.OrderRollupTotal;
+import org.example.models.Order;
+import org.example.models.OrderRollup;
+import org.example.models.OrderRollupId;
+import org.example.models.OrderStatus;
+import org.example.models.RollupDimension;
+import org.example.repositories.OrderRollupRepository;
+import org.example.services.OrderRollupService;
+import org.example.sharding.OrderShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OrderRollupServiceTest {
+
+    @Mock
+    private OrderRollupRepository orderRollupRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderRollupService orderRollupService;
+
+    private final LocalDateTime from = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private final LocalDateTime to = LocalDateTime.of(2024, 3, 3, 0, 0);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        orderRollupService = new OrderRollupService(orderRollupRepository, OrderShards.single(), transactionManager);
+    }
+
+    @Test
+    void testRecordCreated_IncrementsTotalUserAndStatusBuckets() {
+        when(orderRollupRepository.increment(any(), anyLong(), any())).thenReturn(1);
+        Order order = Order.builder()
+                .userId("user1")
+                .totalPrice(new BigDecimal("12.50"))
+                .currency("USD")
+                .createdAt(LocalDateTime.of(2024, 3, 1, 10, 42))
+                .build();
+
+        orderRollupService.recordCreated(order);
+
+        ArgumentCaptor<OrderRollupId> ids = ArgumentCaptor.forClass(OrderRollupId.class);
+        verify(orderRollupRepository, times(3)).increment(ids.capture(), eq(1L), any());
+        OrderRollupId total = ids.getAllValues().get(0);
+        assertEquals(RollupDimension.TOTAL, total.getDimension());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 10, 0), total.getBucketStart());
+        assertTrue(total.getStripe() >= 0 && total.getStripe() < RollupDimension.TOTAL.getStripes());
+        OrderRollupId user = ids.getAllValues().get(1);
+        assertEquals("user1", user.getDimensionKey());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 0, 0), user.getBucketStart());
+        assertEquals(OrderStatus.PENDING.getLabel(), ids.getAllValues().get(2).getDimensionKey());
+        verify(orderRollupRepository, never()).save(any());
+    }
+
+    @Test
+    void testRecordDeleted_DecrementsTotalAndUserBuckets() {
+        when(orderRollupRepository.increment(any(), anyLong(), any())).thenReturn(1);
+        Order order = Order.builder()
+                .userId("user1")
+                .totalPrice(new BigDecimal("12.50"))
+                .currency("USD")
+                .status(OrderStatus.SHIPPED)
+                .createdAt(LocalDateTime.of(2024, 3, 1, 10, 42))
+                .build();
+
+        orderRollupService.recordDeleted(order);
+
+        ArgumentCaptor<OrderRollupId> ids = ArgumentCaptor.forClass(OrderRollupId.class);
+        verify(orderRollupRepository, times(2)).increment(ids.capture(), eq(-1L), eq(new BigDecimal("-12.50")));
+        assertEquals(RollupDimension.TOTAL, ids.getAllValues().get(0).getDimension());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 10, 0), ids.getAllValues().get(0).getBucketStart());
+        assertEquals("user1", ids.getAllValues().get(1).getDimensionKey());
+        ArgumentCaptor<OrderRollupId> status = ArgumentCaptor.forClass(OrderRollupId.class);
+        verify(orderRollupRepository).increment(status.capture(), eq(-1L), eq(BigDecimal.ZERO));
+        assertEquals(OrderStatus.SHIPPED.getLabel(), status.getValue().getDimensionKey());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 10, 0), status.getValue().getBucketStart());
+    }
+
+    @Test
+    void testRecordStatusChange_MovesTheOrderBetweenStatusesOfItsCreationBucket() {
+        when(orderRollupRepository.increment(any(), anyLong(), any())).thenReturn(1);
+
+        orderRollupService.recordStatusChange(OrderStatus.PENDING, OrderStatus.SHIPPED, LocalDateTime.of(2024, 3, 1, 10, 42));
+
+        ArgumentCaptor<OrderRollupId> removed = ArgumentCaptor.forClass(OrderRollupId.class);
+        ArgumentCaptor<OrderRollupId> added = ArgumentCaptor.forClass(OrderRollupId.class);
+        verify(orderRollupRepository).increment(removed.capture(), eq(-1L), eq(BigDecimal.ZERO));
+        verify(orderRollupRepository).increment(added.capture(), eq(1L), eq(BigDecimal.ZERO));
+        assertEquals(OrderStatus.PENDING.getLabel(), removed.getValue().getDimensionKey());
+        assertEquals(OrderStatus.SHIPPED.getLabel(), added.getValue().getDimensionKey());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 10, 0), added.getValue().getBucketStart());
+        assertEquals(removed.getValue().getBucketStart(), added.getValue().getBucketStart());
+    }
+
+    @Test
+    void testRecordStatusChange_CreatesMissingBucketThenIncrements() {
+        when(orderRollupRepository.increment(any(), anyLong(), any())).thenReturn(1, 0, 1);
+        when(orderRollupRepository.existsById(any())).thenReturn(false);
+
+        orderRollupService.recordStatusChange(OrderStatus.PENDING, OrderStatus.DELIVERED, LocalDateTime.of(2024, 3, 1, 10, 42));
+
+        verify(orderRollupRepository).save(any(OrderRollup.class));
+        verify(orderRollupRepository, times(2)).increment(any(), eq(1L), eq(BigDecimal.ZERO));
+    }
+
+    @Test
+    void testGetStatusBreakdown_SumsStripesAndFillsMissingStatuses() {
+        when(orderRollupRepository.sumByBucket(RollupDimension.STATUS, null, from, to)).thenReturn(List.of(
+                new OrderRollupTotal("Pending", from, "", 4L, BigDecimal.ZERO),
+                new OrderRollupTotal("Pending", from.plusHours(1), "", 2L, BigDecimal.ZERO),
+                new OrderRollupTotal("Delivered", from.plusHours(1), "", 3L, BigDecimal.ZERO)));
+
+        ResponseEntity<ApiResponse> response = orderRollupService.getStatusBreakdown(from, to);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Map<?, ?> statuses = (Map<?, ?>) response.getBody().getData().get("statuses");
+        assertEquals(6L, statuses.get("Pending"));
+        assertEquals(3L, statuses.get("Delivered"));
+        assertEquals(0L, statuses.get("Cancelled"));
+    }
+
+    @Test
+    void testGetTimeline_FoldsHoursIntoDays() {
+        when(orderRollupRepository.sumByBucket(RollupDimension.TOTAL, "all", from, to)).thenReturn(List.of(
+                new OrderRollupTotal("all", from.plusHours(1), "USD", 2L, new BigDecimal("20.00")),
+                new OrderRollupTotal("all", from.plusHours(5), "USD", 1L, new BigDecimal("5.50")),
+                new OrderRollupTotal("all", from.plusDays(1), "USD", 1L, new BigDecimal("1.00"))));
+
+        ResponseEntity<ApiResponse> response = orderRollupService.getTimeline(from, to, ChronoUnit.DAYS);
+
+        List<?> buckets = (List<?>) response.getBody().getData().get("buckets");
+        assertEquals(2, buckets.size());
+        OrderRollupTotal first = (OrderRollupTotal) buckets.get(0);
+        assertEquals(from, first.getBucketStart());
+        assertEquals(3L, first.getOrderCount());
+        assertEquals(new BigDecimal("25.50"), first.getRevenue());
+    }
+
+    @Test
+    void testGetUserTotals_RejectsInvertedRange() {
+        assertThrows(ResponseStatusException.class, () -> orderRollupService.getUserTotals("user1", to, from));
+        verifyNoInteractions(orderRollupRepository);
+    }
+}
@@ -2,31 +2,62 @@ package org.example;
 
 import org.example.dto.ApiResponse;
 import org.example.dto.ItemResponse;
+import org.example.dto.OrderCursor;
+import org.example.dto.OrderHistoryQuery;
 import org.example.dto.OrderRequest;
 import org.example.dto.OrderResponse;
+import org.example.dto.OrderState;
+import org.example.dto.OrderSummary;
+import org.example.events.OrderEvent;
 import org.example.exceptions.InternalServerErrorException;
 import org.example.exceptions.OrderIsMisplacedException;
 import org.example.exceptions.OrderNotFoundException;
+import org.example.exceptions.OrderStatusConflictException;
+import org.example.models.ArchivedOrder;
 import org.example.models.Order;
+import org.example.models.OrderStatus;
+import org.example.repositories.ArchivedOrderRepository;
 import org.example.repositories.CatalogClient;
 import org.example.repositories.OrderRepository;
+import org.example.services.AssignmentBatcher;
+import org.example.services.CatalogPriceSnapshots;
+import org.example.services.DeliveryAssignmentEngine;
+import org.example.services.FulfillmentStream;
+import org.example.services.OrderReadModel;
+import org.example.services.OrderRollupService;
 import org.example.services.OrderService;
+import org.example.services.OrderWriteAheadLog;
+import org.example.services.StatusReadHedger;
+import org.example.services.StatusWriteBuffer;
+import org.example.sharding.OrderShards;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 import proto.Fulfillment;
 import proto.FulfillmentServiceGrpc;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class OrderServiceTest {
@@ -40,22 +71,75 @@ class OrderServiceTest {
     @Mock
     private FulfillmentServiceGrpc.FulfillmentServiceBlockingStub fulfillmentServiceBlockingStub;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private OrderRollupService orderRollupService;
+
+    @Spy
+    private OrderShards orderShards = OrderShards.single();
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Mock
+    private StatusWriteBuffer statusWriteBuffer;
+
+    @Mock
+    private OrderWriteAheadLog orderWriteAheadLog;
+
+    @Mock
+    private OrderReadModel orderReadModel;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CatalogPriceSnapshots catalogPriceSnapshots;
+
+    @Mock
+    private DeliveryAssignmentEngine deliveryAssignmentEngine;
+
+    @Mock
+    private AssignmentBatcher assignmentBatcher;
+
+    @Mock
+    private FulfillmentStream fulfillmentStream;
+
+    @Mock
+    private StatusReadHedger statusReadHedger;
+
     @InjectMocks
     private OrderService orderService;
 
     private OrderRequest orderRequest;
     private Order order;
 
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 1, 10, 42);
+
+    private static OrderState state(OrderStatus status) {
+        return new OrderState(status, CREATED_AT);
+    }
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        // Basket lookups go through the interface's one-by-one default
+        when(catalogClient.getItemsById(anyList())).thenCallRealMethod();
         orderRequest = new OrderRequest("userId", List.of("item1", "item2"), 100.0);
         order = Order.builder()
                 .id("orderId")
                 .userId("userId")
                 .items(List.of("item1", "item2"))
-                .totalPrice(100.0)
-                .status("Pending")
+                .totalPrice(new BigDecimal("100.00"))
+                .status(OrderStatus.PENDING)
                 .build();
     }
 
@@ -75,6 +159,99 @@ class OrderServiceTest {
     }
 
 
+    @Test
+    void testCreateOrder_WriteAheadLogAcknowledgesBeforeDatabase() {
+        when(orderWriteAheadLog.isEnabled()).thenReturn(true);
+        when(orderWriteAheadLog.append(any(Order.class))).thenReturn(true);
+        when(catalogClient.getItemById("item1")).thenReturn(new ItemResponse("item1", "Pizza", null, "r1", 12.50));
+        when(catalogClient.getItemById("item2")).thenReturn(new ItemResponse("item2", "Soda", null, "r1", 2.25));
+
+        ResponseEntity<ApiResponse> response = orderService.createOrder(orderRequest);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        OrderResponse accepted = (OrderResponse) response.getBody().getData().get("order");
+        assertNotNull(accepted.getId());
+        assertEquals(new BigDecimal("14.75"), accepted.getTotalPrice().stripTrailingZeros());
+        verify(orderWriteAheadLog).append(argThat(o -> o.getId().equals(accepted.getId()) && o.getCreatedAt() != null));
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(fulfillmentServiceBlockingStub, never()).assignOrder(any());
+    }
+
+    @Test
+    void testCreateOrder_StoresSynchronouslyWhenWriteAheadLogIsFull() {
+        when(orderWriteAheadLog.isEnabled()).thenReturn(true);
+        when(orderWriteAheadLog.append(any(Order.class))).thenReturn(false);
+        when(catalogClient.getItemById("item1")).thenReturn(new ItemResponse("item1", "Pizza", null, "r1", 12.50));
+        when(catalogClient.getItemById("item2")).thenReturn(new ItemResponse("item2", "Soda", null, "r1", 2.25));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(deliveryAssignmentEngine.assign(anyString())).thenReturn("dp-7");
+        when(fulfillmentServiceBlockingStub.assignOrder(any()))
+                .thenReturn(Fulfillment.AssignOrderResponse.newBuilder().setStatus("ASSIGNED").build());
+
+        ResponseEntity<ApiResponse> response = orderService.createOrder(orderRequest);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(orderRepository).save(any(Order.class));
+        verify(fulfillmentServiceBlockingStub).assignOrder(any());
+    }
+
+    @Test
+    void testCreateOrder_AssignsPickedDeliveryPerson() {
+        when(catalogClient.getItemById("item1")).thenReturn(new ItemResponse("item1", "Pizza", null, "r1", 12.50));
+        when(catalogClient.getItemById("item2")).thenReturn(new ItemResponse("item2", "Soda", null, "r1", 2.25));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order saved = invocation.getArgument(0);
+            saved.setId("orderId");
+            return saved;
+        });
+        when(deliveryAssignmentEngine.assign("orderId")).thenReturn("dp-7");
+        when(fulfillmentServiceBlockingStub.assignOrder(any()))
+                .thenReturn(Fulfillment.AssignOrderResponse.newBuilder().setStatus("FAILED").build());
+
+        assertThrows(InternalServerErrorException.class, () -> orderService.createOrder(orderRequest));
+
+        verify(fulfillmentServiceBlockingStub).assignOrder(argThat(request -> request.getDeliveryPersonId().equals("dp-7")));
+        verify(deliveryAssignmentEngine).release("orderId");
+    }
+
+    @Test
+    void testCreateOrder_PricesFromSnapshotWithoutCatalog() {
+        when(orderWriteAheadLog.isEnabled()).thenReturn(true);
+        when(orderWriteAheadLog.append(any(Order.class))).thenReturn(true);
+        when(catalogPriceSnapshots.quote(List.of("item1", "item2")))
+                .thenReturn(new CatalogPriceSnapshots.PriceQuote("USD", 1475));
+
+        ResponseEntity<ApiResponse> response = orderService.createOrder(orderRequest);
+
+        OrderResponse accepted = (OrderResponse) response.getBody().getData().get("order");
+        assertEquals(new BigDecimal("14.75"), accepted.getTotalPrice());
+        verify(catalogClient, never()).getItemById(any());
+    }
+
+    @Test
+    void testCreateOrder_LivePricedItemsAreObserved() {
+        when(orderWriteAheadLog.isEnabled()).thenReturn(true);
+        when(orderWriteAheadLog.append(any(Order.class))).thenReturn(true);
+        when(catalogClient.getItemById("item1")).thenReturn(new ItemResponse("item1", "Pizza", null, "r1", 12.50));
+        when(catalogClient.getItemById("item2")).thenReturn(new ItemResponse("item2", "Soda", null, "r1", 2.25));
+
+        orderService.createOrder(orderRequest);
+
+        verify(catalogPriceSnapshots).observe(argThat(items -> items.size() == 2));
+    }
+
+    @Test
+    void testGetOrderById_ServesOrderStillInWriteAheadLog() {
+        when(orderRepository.findById("orderId")).thenReturn(Optional.empty());
+        when(orderWriteAheadLog.pending("orderId")).thenReturn(order);
+
+        ResponseEntity<ApiResponse> response = orderService.getOrderById("orderId");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(archivedOrderRepository, never()).findById(any());
+        verify(fulfillmentServiceBlockingStub, never()).getOrderStatus(any());
+    }
+
     @Test
     void testCreateOrder_NullRequest_ShouldThrowIllegalArgumentException() {
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -141,6 +318,29 @@ class OrderServiceTest {
         assertEquals("Order not found", exception.getMessage());
 
         verify(orderRepository).findById("invalidOrderId");
+        verify(archivedOrderRepository).findById("invalidOrderId");
+    }
+
+    @Test
+    void testGetOrderById_ArchivedOrderIsServedWithoutFulfillment() {
+        when(orderRepository.findById("oldOrder")).thenReturn(Optional.empty());
+        when(archivedOrderRepository.findById("oldOrder")).thenReturn(Optional.of(ArchivedOrder.builder()
+                .id("oldOrder")
+                .userId("userId")
+                .items(List.of("item1"))
+                .totalPrice(new BigDecimal("9.99"))
+                .currency("USD")
+                .status(OrderStatus.DELIVERED)
+                .version(3L)
+                .build()));
+
+        ResponseEntity<ApiResponse> response = orderService.getOrderById("oldOrder");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getHeaders().getETag());
+        OrderResponse orderResponse = (OrderResponse) response.getBody().getData().get("order");
+        assertEquals("Delivered", orderResponse.getStatus());
+        verify(fulfillmentServiceBlockingStub, never()).getOrderStatus(any());
     }
 
     @Test
@@ -197,6 +397,23 @@ class OrderServiceTest {
         verify(orderRepository).findAllByUserId("userId");
     }
 
+    @Test
+    void testGetOrdersByUserId_IncludeArchivedAppendsArchivedOrders() {
+        when(orderRepository.findAllByUserId("userId")).thenReturn(Collections.singletonList(order));
+        when(archivedOrderRepository.findAllByUserId("userId")).thenReturn(List.of(ArchivedOrder.builder()
+                .id("oldOrder")
+                .userId("userId")
+                .items(List.of("item9"))
+                .status(OrderStatus.DELIVERED)
+                .build()));
+
+        ResponseEntity<ApiResponse> response = orderService.getOrdersByUserId("userId", true);
+
+        List<OrderResponse> orders = (List<OrderResponse>) response.getBody().getData().get("orders");
+        assertEquals(2, orders.size());
+        assertEquals("oldOrder", orders.get(1).getId());
+    }
+
     @Test
     void testGetAllOrders_Success() {
         when(orderRepository.findAll()).thenReturn(Collections.singletonList(order));
@@ -239,6 +456,7 @@ class OrderServiceTest {
 
         verify(orderRepository).findById("orderId");
         verify(orderRepository).delete(order);
+        verify(orderRollupService).recordDeleted(order);
     }
 
     @Test
@@ -255,7 +473,8 @@ class OrderServiceTest {
 
     @Test
     void testUpdateOrderStatus_Success() {
-        when(orderRepository.findById("orderId")).thenReturn(Optional.of(order));
+        when(orderRepository.findStateById("orderId")).thenReturn(Optional.of(state(OrderStatus.PENDING)));
+        when(orderRepository.transitionStatus("orderId", OrderStatus.PENDING, OrderStatus.DELIVERED)).thenReturn(1);
         Fulfillment.UpdateOrderStatusResponse updateOrderStatusResponse = Fulfillment.UpdateOrderStatusResponse.newBuilder().setStatus("UPDATED").build();
         when(fulfillmentServiceBlockingStub.updateOrderStatus(any(Fulfillment.UpdateOrderStatusRequest.class))).thenReturn(updateOrderStatusResponse);
 
@@ -265,36 +484,150 @@ class OrderServiceTest {
         assertNotNull(response.getBody());
         assertEquals("Order status updated successfully", response.getBody().getMessage());
         assertTrue(response.getBody().getData().containsKey("order"));
-        verify(orderRepository).findById("orderId");
-        verify(orderRepository).save(order);
+        assertEquals("Delivered", ((OrderResponse) response.getBody().getData().get("order")).getStatus());
+        verify(orderRepository).transitionStatus("orderId", OrderStatus.PENDING, OrderStatus.DELIVERED);
+        verify(orderRepository, never()).findById(anyString());
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderRollupService).recordStatusChange(OrderStatus.PENDING, OrderStatus.DELIVERED, CREATED_AT);
+    }
+
+    @Test
+    void testFulfillmentCallsUseStreamWhenEnabled() {
+        when(fulfillmentStream.isEnabled()).thenReturn(true);
+        when(orderRepository.findById("orderId")).thenReturn(Optional.of(order));
+        when(fulfillmentStream.getOrderStatus(any())).thenReturn(Fulfillment.GetOrderStatusResponse.newBuilder().setStatus("Pending").build());
+        when(orderRepository.findStateById("orderId")).thenReturn(Optional.of(state(OrderStatus.PENDING)));
+        when(orderRepository.transitionStatus("orderId", OrderStatus.PENDING, OrderStatus.DELIVERED)).thenReturn(1);
+        when(fulfillmentStream.updateOrderStatus(any())).thenReturn(Fulfillment.UpdateOrderStatusResponse.newBuilder().setStatus("UPDATED").build());
+
+        assertEquals(HttpStatus.OK, orderService.getOrderById("orderId").getStatusCode());
+        assertEquals(HttpStatus.OK, orderService.updateOrderStatus("orderId", "Delivered").getStatusCode());
+
+        verify(fulfillmentStream).getOrderStatus(any());
+        verify(fulfillmentStream).updateOrderStatus(any());
+        verifyNoInteractions(fulfillmentServiceBlockingStub);
+    }
+
+    @Test
+    void testGetOrderById_StatusReadIsHedgedWhenEnabled() {
+        when(statusReadHedger.isEnabled()).thenReturn(true);
+        when(orderRepository.findById("orderId")).thenReturn(Optional.of(order));
+        when(statusReadHedger.getOrderStatus(any())).thenReturn(Fulfillment.GetOrderStatusResponse.newBuilder().setStatus("Pending").build());
+
+        assertEquals(HttpStatus.OK, orderService.getOrderById("orderId").getStatusCode());
+
+        verify(statusReadHedger).getOrderStatus(any());
+        verifyNoInteractions(fulfillmentServiceBlockingStub, fulfillmentStream);
+    }
+
+    @Test
+    void testUpdateOrderStatus_WriteBehindHandsOffToBuffer() {
+        when(statusWriteBuffer.isEnabled()).thenReturn(true);
+        Fulfillment.UpdateOrderStatusResponse updateOrderStatusResponse = Fulfillment.UpdateOrderStatusResponse.newBuilder().setStatus("UPDATED").build();
+        when(fulfillmentServiceBlockingStub.updateOrderStatus(any(Fulfillment.UpdateOrderStatusRequest.class))).thenReturn(updateOrderStatusResponse);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(2).run();
+            return null;
+        }).when(statusWriteBuffer).submit(eq("orderId"), eq(OrderStatus.DELIVERED), any());
+
+        ResponseEntity<ApiResponse> response = orderService.updateOrderStatus("orderId", "Delivered");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(fulfillmentServiceBlockingStub).updateOrderStatus(any());
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+        verify(orderRepository, never()).transitionStatus(any(), any(), any());
+    }
+
+    @Test
+    void testGetOrderById_OverlaysBufferedStatus() {
+        when(orderRepository.findById("orderId")).thenReturn(Optional.of(order));
+        when(statusWriteBuffer.pendingStatus("orderId")).thenReturn(OrderStatus.SHIPPED);
+        when(fulfillmentServiceBlockingStub.getOrderStatus(any())).thenReturn(
+                Fulfillment.GetOrderStatusResponse.newBuilder().build());
+
+        ResponseEntity<ApiResponse> response = orderService.getOrderById("orderId");
+
+        assertEquals("Shipped", ((OrderResponse) response.getBody().getData().get("order")).getStatus());
+    }
+
+    @Test
+    void testGetOrderById_ServedFromReadModel() {
+        order.setCurrency("USD");
+        order.setVersion(0L);
+        when(orderReadModel.isReady()).thenReturn(true);
+        when(orderReadModel.get("orderId")).thenReturn(new OrderReadModel.OrderView(order, new OrderResponse(order), "W/\"abc\""));
+        when(fulfillmentServiceBlockingStub.getOrderStatus(any())).thenReturn(
+                Fulfillment.GetOrderStatusResponse.newBuilder().setStatus("Shipped").build());
+
+        ResponseEntity<ApiResponse> response = orderService.getOrderById("orderId");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        // The stored tag no longer describes the served status
+        String etag = response.getHeaders().getETag();
+        assertNotEquals("W/\"abc\"", etag);
+        assertEquals("Shipped", ((OrderResponse) response.getBody().getData().get("order")).getStatus());
+        verify(orderRepository, never()).findById(any());
+
+        assertEquals(HttpStatus.OK, orderService.getOrderById("orderId", "W/\"abc\"").getStatusCode());
+        ResponseEntity<ApiResponse> notModified = orderService.getOrderById("orderId", etag);
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+    }
+
+    @Test
+    void testGetOrdersByUserId_ServedFromReadModel() {
+        when(orderReadModel.isReady()).thenReturn(true);
+        when(orderReadModel.getByUser("userId")).thenReturn(List.of(
+                new OrderReadModel.OrderView(order, new OrderResponse(order), "W/\"abc\"")));
+
+        ResponseEntity<ApiResponse> response = orderService.getOrdersByUserId("userId");
+
+        assertEquals(1, ((List<?>) response.getBody().getData().get("orders")).size());
+        verify(orderRepository, never()).findAllByUserId(any());
+    }
+
+    @Test
+    void testWritesPublishOrderEvents() {
+        when(orderRepository.findStateById("orderId")).thenReturn(Optional.of(state(OrderStatus.PENDING)));
+        when(orderRepository.transitionStatus("orderId", OrderStatus.PENDING, OrderStatus.DELIVERED)).thenReturn(1);
+        when(fulfillmentServiceBlockingStub.updateOrderStatus(any()))
+                .thenReturn(Fulfillment.UpdateOrderStatusResponse.newBuilder().setStatus("UPDATED").build());
+        when(orderRepository.findById("orderId")).thenReturn(Optional.of(order));
+
+        orderService.updateOrderStatus("orderId", "Delivered");
+        orderService.deleteOrder("orderId");
+
+        verify(eventPublisher).publishEvent(new OrderEvent.StatusChanged("orderId", OrderStatus.DELIVERED));
+        verify(eventPublisher).publishEvent(new OrderEvent.Deleted("orderId"));
     }
 
     @Test
     void testUpdateOrderStatus_OrderNotFound() {
-        when(orderRepository.findById("invalidOrderId")).thenReturn(Optional.empty());
+        when(orderRepository.findStateById("invalidOrderId")).thenReturn(Optional.empty());
 
         OrderNotFoundException exception = assertThrows(OrderNotFoundException.class,
                 () -> orderService.updateOrderStatus("invalidOrderId", "Delivered"));
         assertEquals("Order not found", exception.getMessage());
 
-        verify(orderRepository).findById("invalidOrderId");
+        verify(orderRepository, never()).transitionStatus(any(), any(), any());
+        verify(fulfillmentServiceBlockingStub, never()).updateOrderStatus(any());
+        verify(orderRollupService, never()).recordStatusChange(any(), any(), any());
     }
 
     @Test
     void testUpdateOrderStatus_OrderIsMisplaced() {
-        when(orderRepository.findById("orderId")).thenReturn(Optional.of(order));
-
         OrderIsMisplacedException exception = assertThrows(OrderIsMisplacedException.class,
                 () -> orderService.updateOrderStatus("orderId", "Misplaced"));
         assertEquals("The order has been marked as misplaced.", exception.getMessage());
 
-        verify(orderRepository).findById("orderId");
+        verify(orderRepository, never()).transitionStatus(any(), any(), any());
         verify(orderRepository, never()).save(any(Order.class));
     }
 
     @Test
     void testUpdateOrderStatus_FulfillmentServiceFailure() {
-        when(orderRepository.findById("orderId")).thenReturn(Optional.of(order));
+        when(orderRepository.findStateById("orderId")).thenReturn(Optional.of(state(OrderStatus.PENDING)));
+        when(orderRepository.transitionStatus("orderId", OrderStatus.PENDING, OrderStatus.DELIVERED)).thenReturn(1);
+        when(orderRepository.transitionStatus("orderId", OrderStatus.DELIVERED, OrderStatus.PENDING)).thenReturn(1);
         Fulfillment.UpdateOrderStatusResponse updateOrderStatusResponse = Fulfillment.UpdateOrderStatusResponse.newBuilder().setStatus("FAILED").build();
         when(fulfillmentServiceBlockingStub.updateOrderStatus(any(Fulfillment.UpdateOrderStatusRequest.class))).thenReturn(updateOrderStatusResponse);
 
@@ -302,7 +635,302 @@ class OrderServiceTest {
                 () -> orderService.updateOrderStatus("orderId", "Delivered"));
         assertEquals("Failed to update order status.", exception.getMessage());
 
-        verify(orderRepository).findById("orderId");
+        // Fulfillment refused after commit, so the order is moved back
+        verify(orderRepository).transitionStatus("orderId", OrderStatus.DELIVERED, OrderStatus.PENDING);
+        verify(eventPublisher).publishEvent(new OrderEvent.StatusChanged("orderId", OrderStatus.PENDING));
+        verify(orderRollupService).recordStatusChange(OrderStatus.DELIVERED, OrderStatus.PENDING, CREATED_AT);
         verify(orderRepository, never()).save(any(Order.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testUpdateOrderStatus_ClosedOrderIsConflict() {
+        when(orderRepository.findStateById("orderId")).thenReturn(Optional.of(state(OrderStatus.DELIVERED)));
+
+        OrderStatusConflictException exception = assertThrows(OrderStatusConflictException.class,
+                () -> orderService.updateOrderStatus("orderId", "Shipped"));
+        assertEquals("Cannot move a Delivered order to Shipped.", exception.getMessage());
+
+        verify(orderRepository, never()).transitionStatus(any(), any(), any());
+        verify(fulfillmentServiceBlockingStub, never()).updateOrderStatus(any());
+    }
+
+    @Test
+    void testUpdateOrderStatus_RetriesLockConflicts() {
+        when(orderRepository.findStateById("orderId")).thenReturn(Optional.of(state(OrderStatus.PENDING)));
+        when(orderRepository.transitionStatus("orderId", OrderStatus.PENDING, OrderStatus.DELIVERED))
+                .thenThrow(new PessimisticLockingFailureException("lock"))
+                .thenReturn(1);
+        when(fulfillmentServiceBlockingStub.updateOrderStatus(any(Fulfillment.UpdateOrderStatusRequest.class)))
+                .thenReturn(Fulfillment.UpdateOrderStatusResponse.newBuilder().setStatus("UPDATED").build());
+
+        ResponseEntity<ApiResponse> response = orderService.updateOrderStatus("orderId", "Delivered");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(orderRepository, times(2)).transitionStatus("orderId", OrderStatus.PENDING, OrderStatus.DELIVERED);
+        verify(fulfillmentServiceBlockingStub, times(1)).updateOrderStatus(any());
+    }
+
+    @Test
+    void testUpdateOrderStatus_GivesUpAfterRepeatedLockConflicts() {
+        when(orderRepository.findStateById("orderId")).thenReturn(Optional.of(state(OrderStatus.PENDING)));
+        when(orderRepository.transitionStatus("orderId", OrderStatus.PENDING, OrderStatus.DELIVERED))
+                .thenThrow(new PessimisticLockingFailureException("lock"));
+
+        assertThrows(OrderStatusConflictException.class,
+                () -> orderService.updateOrderStatus("orderId", "Delivered"));
+
+        verify(orderRepository, times(3)).transitionStatus("orderId", OrderStatus.PENDING, OrderStatus.DELIVERED);
+        verify(fulfillmentServiceBlockingStub, never()).updateOrderStatus(any());
+    }
+
+    @Test
+    void testUpdateOrderStatus_RetriesWhenTheStatusChangedUnderIt() {
+        when(orderRepository.findStateById("orderId"))
+                .thenReturn(Optional.of(state(OrderStatus.PENDING)))
+                .thenReturn(Optional.of(state(OrderStatus.ASSIGNED)));
+        when(orderRepository.transitionStatus("orderId", OrderStatus.PENDING, OrderStatus.DELIVERED)).thenReturn(0);
+        when(orderRepository.transitionStatus("orderId", OrderStatus.ASSIGNED, OrderStatus.DELIVERED)).thenReturn(1);
+        when(fulfillmentServiceBlockingStub.updateOrderStatus(any()))
+                .thenReturn(Fulfillment.UpdateOrderStatusResponse.newBuilder().setStatus("UPDATED").build());
+
+        assertEquals(HttpStatus.OK, orderService.updateOrderStatus("orderId", "Delivered").getStatusCode());
+
+        verify(fulfillmentServiceBlockingStub, times(1)).updateOrderStatus(any());
+    }
+
+    @Test
+    void testUpdateOrderStatus_NotifiesFulfillmentAfterCommit() {
+        boolean[] inTransaction = new boolean[1];
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            inTransaction[0] = true;
+            try {
+                return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            } finally {
+                inTransaction[0] = false;
+            }
+        });
+        when(orderRepository.findStateById("orderId")).thenReturn(Optional.of(state(OrderStatus.PENDING)));
+        when(orderRepository.transitionStatus("orderId", OrderStatus.PENDING, OrderStatus.DELIVERED)).thenReturn(1);
+        when(fulfillmentServiceBlockingStub.updateOrderStatus(any())).thenAnswer(invocation -> {
+            assertFalse(inTransaction[0], "fulfillment called while the row is locked");
+            return Fulfillment.UpdateOrderStatusResponse.newBuilder().setStatus("UPDATED").build();
+        });
+
+        assertEquals(HttpStatus.OK, orderService.updateOrderStatus("orderId", "Delivered").getStatusCode());
+
+        verify(fulfillmentServiceBlockingStub).updateOrderStatus(any());
+    }
+
+    @Test
+    void testGetOrderHistory_ReturnsSummariesAndNextCursor() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<OrderSummary> summaries = List.of(
+                new OrderSummary("order3", OrderStatus.PENDING, new BigDecimal("30.00"), 1, now),
+                new OrderSummary("order2", OrderStatus.PENDING, new BigDecimal("20.00"), 2, now.minusMinutes(1)),
+                new OrderSummary("order1", OrderStatus.PENDING, new BigDecimal("10.00"), 3, now.minusMinutes(2)));
+        when(orderRepository.findOrderSummaries(eq("userId"), any(), any(), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(summaries);
+
+        ResponseEntity<ApiResponse> response = orderService.getOrderHistory(
+                OrderHistoryQuery.builder().userId("userId").limit(2).build());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<OrderSummary> page = (List<OrderSummary>) response.getBody().getData().get("orders");
+        assertEquals(2, page.size());
+        OrderCursor next = OrderCursor.decode((String) response.getBody().getData().get("nextCursor"));
+        assertEquals("order2", next.id());
+        assertEquals(now.minusMinutes(1), next.createdAt());
+        verify(orderRepository, never()).findAllWithItemsByIdIn(any());
+    }
+
+    @Test
+    void testGetOrderHistory_LastPageHasNoCursor() {
+        OrderCursor cursor = new OrderCursor(LocalDateTime.of(2024, 1, 1, 12, 0), "order2");
+        when(orderRepository.findOrderSummaries(eq("userId"), eq(OrderStatus.PENDING), any(), any(),
+                eq(cursor.createdAt()), eq("order2"), any(Pageable.class)))
+                .thenReturn(List.of(new OrderSummary("order1", OrderStatus.PENDING, new BigDecimal("10.00"), 1, cursor.createdAt().minusMinutes(1))));
+
+        ResponseEntity<ApiResponse> response = orderService.getOrderHistory(OrderHistoryQuery.builder()
+                .userId("userId")
+                .status("Pending")
+                .cursor(cursor.encode())
+                .build());
+
+        assertEquals(1, ((List<?>) response.getBody().getData().get("orders")).size());
+        assertFalse(response.getBody().getData().containsKey("nextCursor"));
+    }
+
+    @Test
+    void testGetOrderHistory_IncludeItemsLoadsOnlyPageOrders() {
+        when(orderRepository.findOrderSummaries(eq("userId"), any(), any(), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(List.of(new OrderSummary("orderId", OrderStatus.PENDING, new BigDecimal("100.00"), 2, LocalDateTime.now())));
+        when(orderRepository.findAllWithItemsByIdIn(List.of("orderId"))).thenReturn(List.of(order));
+
+        ResponseEntity<ApiResponse> response = orderService.getOrderHistory(
+                OrderHistoryQuery.builder().userId("userId").includeItems(true).build());
+
+        List<OrderResponse> orders = (List<OrderResponse>) response.getBody().getData().get("orders");
+        assertEquals(1, orders.size());
+        assertEquals(List.of("item1", "item2"), orders.get(0).getItems());
+    }
+
+    @Test
+    void testGetOrderHistory_IncludeArchivedMergesNewestFirst() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(orderRepository.findOrderSummaries(eq("userId"), any(), any(), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(List.of(
+                        new OrderSummary("order3", OrderStatus.PENDING, new BigDecimal("30.00"), 1, now),
+                        new OrderSummary("order1", OrderStatus.PENDING, new BigDecimal("10.00"), 1, now.minusMinutes(2))));
+        when(archivedOrderRepository.findOrderSummaries(eq("userId"), any(), any(), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(List.of(
+                        new OrderSummary("order2", OrderStatus.DELIVERED, new BigDecimal("20.00"), 1, now.minusMinutes(1)),
+                        new OrderSummary("order0", OrderStatus.DELIVERED, new BigDecimal("5.00"), 1, now.minusMinutes(3))));
+
+        ResponseEntity<ApiResponse> response = orderService.getOrderHistory(
+                OrderHistoryQuery.builder().userId("userId").limit(2).includeArchived(true).build());
+
+        List<OrderSummary> page = (List<OrderSummary>) response.getBody().getData().get("orders");
+        assertEquals(List.of("order3", "order2"), page.stream().map(OrderSummary::getId).toList());
+        OrderCursor next = OrderCursor.decode((String) response.getBody().getData().get("nextCursor"));
+        assertEquals("order2", next.id());
+    }
+
+    @Test
+    void testGetOrderHistory_ExcludesArchivedByDefault() {
+        when(orderRepository.findOrderSummaries(eq("userId"), any(), any(), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        orderService.getOrderHistory(OrderHistoryQuery.builder().userId("userId").build());
+
+        verify(archivedOrderRepository, never()).findOrderSummaries(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testGetOrderHistory_IncludeArchivedLoadsArchivedItems() {
+        when(orderRepository.findOrderSummaries(eq("userId"), any(), any(), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(archivedOrderRepository.findOrderSummaries(eq("userId"), any(), any(), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(List.of(new OrderSummary("oldOrder", OrderStatus.DELIVERED, new BigDecimal("20.00"), 1, LocalDateTime.now())));
+        when(orderRepository.findAllWithItemsByIdIn(List.of("oldOrder"))).thenReturn(List.of());
+        when(archivedOrderRepository.findAllWithItemsByIdIn(List.of("oldOrder"))).thenReturn(List.of(ArchivedOrder.builder()
+                .id("oldOrder")
+                .userId("userId")
+                .items(List.of("item9"))
+                .status(OrderStatus.DELIVERED)
+                .build()));
+
+        ResponseEntity<ApiResponse> response = orderService.getOrderHistory(OrderHistoryQuery.builder()
+                .userId("userId")
+                .includeItems(true)
+                .includeArchived(true)
+                .build());
+
+        List<OrderResponse> orders = (List<OrderResponse>) response.getBody().getData().get("orders");
+        assertEquals(List.of("item9"), orders.get(0).getItems());
+    }
+
+    @Test
+    void testGetOrderHistory_InvalidCursor() {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> orderService.getOrderHistory(OrderHistoryQuery.builder().userId("userId").cursor("not-a-cursor").build()));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verify(orderRepository, never()).findOrderSummaries(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testGetOrderById_ReturnsETag() {
+        when(orderRepository.findById("orderId")).thenReturn(Optional.of(order));
+        when(fulfillmentServiceBlockingStub.getOrderStatus(any(Fulfillment.GetOrderStatusRequest.class)))
+                .thenReturn(Fulfillment.GetOrderStatusResponse.newBuilder().setStatus("Pending").build());
+
+        ResponseEntity<ApiResponse> response = orderService.getOrderById("orderId");
+
+        assertNotNull(response.getHeaders().getETag());
+        assertTrue(response.getHeaders().getETag().startsWith("W/"));
+    }
+
+    @Test
+    void testGetOrderById_NotModified() {
+        when(orderRepository.findById("orderId")).thenReturn(Optional.of(order));
+        when(fulfillmentServiceBlockingStub.getOrderStatus(any(Fulfillment.GetOrderStatusRequest.class)))
+                .thenReturn(Fulfillment.GetOrderStatusResponse.newBuilder().setStatus("Pending").build());
+        String etag = orderService.getOrderById("orderId").getHeaders().getETag();
+
+        ResponseEntity<ApiResponse> response = orderService.getOrderById("orderId", etag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void testGetOrderById_FulfillmentStatusChangeInvalidatesETag() {
+        when(orderRepository.findById("orderId")).thenReturn(Optional.of(order));
+        when(fulfillmentServiceBlockingStub.getOrderStatus(any(Fulfillment.GetOrderStatusRequest.class)))
+                .thenReturn(Fulfillment.GetOrderStatusResponse.newBuilder().setStatus("Pending").build())
+                .thenReturn(Fulfillment.GetOrderStatusResponse.newBuilder().setStatus("Shipped").build());
+        String etag = orderService.getOrderById("orderId").getHeaders().getETag();
+        order.setStatus(OrderStatus.PENDING);
+
+        // Stored state is unchanged, but fulfillment now reports a different status
+        ResponseEntity<ApiResponse> response = orderService.getOrderById("orderId", etag);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Shipped", ((OrderResponse) response.getBody().getData().get("order")).getStatus());
+        assertNotEquals(etag, response.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetOrderById_ClosedOrderNotModifiedSkipsFulfillment() {
+        order.setStatus(OrderStatus.DELIVERED);
+        when(orderRepository.findById("orderId")).thenReturn(Optional.of(order));
+        String etag = orderService.getOrderById("orderId").getHeaders().getETag();
+
+        ResponseEntity<ApiResponse> response = orderService.getOrderById("orderId", etag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verify(fulfillmentServiceBlockingStub, never()).getOrderStatus(any(Fulfillment.GetOrderStatusRequest.class));
+    }
+
+    @Test
+    void testGetOrderById_ChangedOrderIsRefetched() {
+        when(orderRepository.findById("orderId")).thenReturn(Optional.of(order));
+        when(fulfillmentServiceBlockingStub.getOrderStatus(any(Fulfillment.GetOrderStatusRequest.class)))
+                .thenReturn(Fulfillment.GetOrderStatusResponse.newBuilder().setStatus("Pending").build());
+        String etag = orderService.getOrderById("orderId").getHeaders().getETag();
+        order.setStatus(OrderStatus.DELIVERED);
+
+        ResponseEntity<ApiResponse> response = orderService.getOrderById("orderId", etag);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotEquals(etag, response.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetAllOrders_NotModified() {
+        when(orderRepository.findAll()).thenReturn(Collections.singletonList(order));
+        String etag = orderService.getAllOrders().getHeaders().getETag();
+
+        ResponseEntity<ApiResponse> response = orderService.getAllOrders(etag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void testUpdateOrderStatus_UnknownStatusIsRejectedWithoutDatabase() {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> orderService.updateOrderStatus("orderId", "Teleported"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verifyNoInteractions(orderRepository, fulfillmentServiceBlockingStub);
+    }
+
+    @Test
+    void testUpdateOrderStatus_UnreachableStatusIsRejectedWithoutDatabase() {
+        assertThrows(OrderStatusConflictException.class,
+                () -> orderService.updateOrderStatus("orderId", "Pending"));
+
+        verifyNoInteractions(orderRepository, fulfillmentServiceBlockingStub);
+    }
+}
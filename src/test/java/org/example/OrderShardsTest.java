@@ -0,0 +1,98 @@
+package org.example;
+
+import org.example.sharding.OrderShards;
+import org.example.sharding.ShardRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrderShardsTest {
+
+    private final OrderShards shards = new OrderShards(4);
+
+    @AfterEach
+    void tearDown() {
+        shards.close();
+    }
+
+    @Test
+    void testShardFor_IsStableAndSpreadsUsers() {
+        int[] perShard = new int[4];
+        for (int i = 0; i < 4000; i++) {
+            String userId = "user-" + i;
+            int shard = shards.shardFor(userId);
+            assertEquals(shard, new OrderShards(4).shardFor(userId));
+            perShard[shard]++;
+        }
+        for (int count : perShard) {
+            assertTrue(count > 800 && count < 1200, "uneven shard: " + count);
+        }
+    }
+
+    @Test
+    void testSingleShard_RunsInlineWithoutProbing() {
+        OrderShards single = OrderShards.single();
+        AtomicInteger probes = new AtomicInteger();
+
+        assertEquals(0, single.locate(() -> {
+            probes.incrementAndGet();
+            return false;
+        }));
+        assertEquals(0, probes.get());
+        assertEquals(0, single.shardFor("anyone"));
+    }
+
+    @Test
+    void testRoutingDataSource_UsesShardSelectedForThread() throws Exception {
+        DataSource first = mock(DataSource.class);
+        DataSource second = mock(DataSource.class);
+        when(second.getConnection()).thenReturn(mock(Connection.class));
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(0, first);
+        targets.put(1, second);
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.afterPropertiesSet();
+
+        shards.onShard(1, () -> {
+            try {
+                return routing.getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        verify(second).getConnection();
+        verifyNoInteractions(first);
+    }
+
+    @Test
+    void testGatherFindFirstAndLocate_VisitEveryShard() {
+        ShardRoutingDataSource routing = new ShardRoutingDataSource() {
+            @Override
+            public Object determineCurrentLookupKey() {
+                return super.determineCurrentLookupKey();
+            }
+        };
+
+        List<Object> gathered = shards.gather(() -> List.of(routing.determineCurrentLookupKey()));
+        assertEquals(List.of(0, 1, 2, 3), gathered);
+
+        Optional<Object> found = shards.findFirst(() -> Optional.of(routing.determineCurrentLookupKey())
+                .filter(shard -> shard.equals(2)));
+        assertEquals(Optional.of(2), found);
+
+        assertEquals(3, shards.locate(() -> routing.determineCurrentLookupKey().equals(3)));
+        assertEquals(-1, shards.locate(() -> false));
+    }
+}
@@ -0,0 +1,48 @@
+package org.example;
+
+import org.example.models.OrderStatus;
+import org.example.models.OrderStatusConverter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStatusTest {
+
+    @Test
+    void testParseAcceptsLabelsAndNames() {
+        assertEquals(OrderStatus.PENDING, OrderStatus.parse("Pending"));
+        assertEquals(OrderStatus.DELIVERED, OrderStatus.parse("DELIVERED"));
+        assertEquals(OrderStatus.SHIPPED, OrderStatus.parse("shipped"));
+        assertNull(OrderStatus.parse("Teleported"));
+        assertNull(OrderStatus.parse(null));
+    }
+
+    @Test
+    void testTransitionTable() {
+        assertTrue(OrderStatus.PENDING.canTransitionTo(OrderStatus.ASSIGNED));
+        assertTrue(OrderStatus.SHIPPED.canTransitionTo(OrderStatus.DELIVERED));
+        assertFalse(OrderStatus.SHIPPED.canTransitionTo(OrderStatus.PENDING));
+        assertFalse(OrderStatus.DELIVERED.canTransitionTo(OrderStatus.SHIPPED));
+        assertTrue(OrderStatus.DELIVERED.isTerminal());
+        assertTrue(OrderStatus.CANCELLED.isTerminal());
+        assertFalse(OrderStatus.PENDING.isTerminal());
+    }
+
+    @Test
+    void testAllowedSources() {
+        assertEquals(Set.of(OrderStatus.PENDING, OrderStatus.ASSIGNED, OrderStatus.SHIPPED, OrderStatus.MISPLACED),
+                OrderStatus.DELIVERED.allowedSources());
+        assertTrue(OrderStatus.PENDING.allowedSources().isEmpty());
+    }
+
+    @Test
+    void testConverterRoundTrip() {
+        OrderStatusConverter converter = new OrderStatusConverter();
+        for (OrderStatus status : OrderStatus.values()) {
+            assertEquals(status, converter.convertToEntityAttribute(converter.convertToDatabaseColumn(status)));
+        }
+        assertThrows(IllegalArgumentException.class, () -> OrderStatus.fromCode((short) 42));
+    }
+}
@@ -0,0 +1,94 @@
+package org.example;
+
+import org.example.models.Order;
+import org.example.models.OrderStatus;
+import org.example.store.OrderSummaryStore;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderSummaryStoreTest {
+
+    @Test
+    void testPutAndGetOrder() {
+        OrderSummaryStore store = new OrderSummaryStore(10);
+        String id = UUID.randomUUID().toString();
+        store.put(Order.builder()
+                .id(id)
+                .userId("user-1")
+                .items(List.of("item1", "item2", "item3"))
+                .totalPrice(new BigDecimal("14.75"))
+                .currency("EUR")
+                .status(OrderStatus.SHIPPED)
+                .build());
+
+        OrderSummaryStore.Summary summary = store.get(id);
+
+        assertEquals(OrderStatus.SHIPPED, summary.status());
+        assertEquals(1475L, summary.totalMinorUnits());
+        assertEquals("EUR", summary.currency());
+        assertEquals(OrderSummaryStore.userKey("user-1"), summary.userKey());
+        assertEquals(3, summary.itemCount());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() {
+        OrderSummaryStore store = new OrderSummaryStore(1);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            store.put(id, OrderStatus.PENDING, i, "USD", i, 1);
+        }
+
+        assertEquals(10_000, store.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i, store.get(ids.get(i)).totalMinorUnits());
+        }
+    }
+
+    @Test
+    void testUpdateStatusAndRemove() {
+        OrderSummaryStore store = new OrderSummaryStore(10);
+        UUID id = UUID.randomUUID();
+        store.put(id, OrderStatus.PENDING, 100, "USD", 1, 1);
+
+        assertTrue(store.updateStatus(id, OrderStatus.DELIVERED));
+        assertEquals(OrderStatus.DELIVERED, store.status(id));
+
+        assertTrue(store.remove(id));
+        assertNull(store.get(id));
+        assertNull(store.status(id));
+        assertFalse(store.remove(id));
+        assertFalse(store.updateStatus(id, OrderStatus.CANCELLED));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testRemovedSlotsAreReused() {
+        OrderSummaryStore store = new OrderSummaryStore(16);
+        long initialBytes = store.memoryBytes();
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = UUID.randomUUID();
+            store.put(id, OrderStatus.PENDING, i, "USD", i, 1);
+            store.remove(id);
+        }
+
+        assertEquals(0, store.size());
+        assertEquals(initialBytes, store.memoryBytes());
+    }
+
+    @Test
+    void testRejectsUnsupportedCurrency() {
+        OrderSummaryStore store = new OrderSummaryStore(10);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> store.put(UUID.randomUUID(), OrderStatus.PENDING, 1, "usd", 1, 1));
+    }
+}
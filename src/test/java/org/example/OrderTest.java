@@ -2,8 +2,10 @@ package org.example;
 
 
 import org.example.models.Order;
+import org.example.models.OrderStatus;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,15 +29,15 @@ class OrderTest {
                 .id("order123")
                 .userId("user123")
                 .items(List.of("item1", "item2"))
-                .totalPrice(100.0)
-                .status("Pending")
+                .totalPrice(new BigDecimal("100.00"))
+                .status(OrderStatus.PENDING)
                 .build();
 
         assertEquals("order123", order.getId());
         assertEquals("user123", order.getUserId());
         assertEquals(List.of("item1", "item2"), order.getItems());
-        assertEquals(100.0, order.getTotalPrice());
-        assertEquals("Pending", order.getStatus());
+        assertEquals(new BigDecimal("100.00"), order.getTotalPrice());
+        assertEquals(OrderStatus.PENDING, order.getStatus());
     }
 
 }
\ No newline at end of file
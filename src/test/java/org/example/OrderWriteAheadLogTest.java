@@ -0,0 +1,182 @@
+package org.example;
+
+import org.example.models.Order;
+import org.example.models.OrderStatus;
+import org.example.services.OrderWriteAheadLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderWriteAheadLogTest {
+
+    @TempDir
+    Path dir;
+
+    private OrderWriteAheadLog newLog() {
+        return new OrderWriteAheadLog(true, dir.toString(), 64 * 1024, 20, 5, 100);
+    }
+
+    private static Order order(String id) {
+        return Order.builder()
+                .id(id)
+                .userId("user1")
+                .items(List.of("item1", "item2"))
+                .totalPrice(new BigDecimal("14.75"))
+                .currency("USD")
+                .status(OrderStatus.PENDING)
+                .createdAt(LocalDateTime.of(2024, 3, 1, 10, 0))
+                .build();
+    }
+
+    private static void awaitEmpty(OrderWriteAheadLog log) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (log.backlog() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, log.backlog());
+    }
+
+    @Test
+    void testAcceptedOrdersDrainInOrder() throws Exception {
+        List<Order> stored = new CopyOnWriteArrayList<>();
+        OrderWriteAheadLog log = newLog();
+        log.start(stored::add);
+
+        log.append(order("o1"));
+        log.append(order("o2"));
+        awaitEmpty(log);
+        log.destroy();
+
+        assertEquals(List.of("o1", "o2"), stored.stream().map(Order::getId).toList());
+        assertEquals(order("o1"), stored.get(0));
+    }
+
+    @Test
+    void testAppendRefusedOnceBacklogIsFull() throws Exception {
+        OrderWriteAheadLog log = new OrderWriteAheadLog(true, dir.toString(), 64 * 1024, 20, 5, 2);
+        CountDownLatch databaseBack = new CountDownLatch(1);
+        log.start(order -> {
+            try {
+                databaseBack.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertTrue(log.append(order("o1")));
+        assertTrue(log.append(order("o2")));
+        assertFalse(log.append(order("o3")));
+
+        assertEquals(2, log.backlog());
+        assertNull(log.pending("o3"));
+        databaseBack.countDown();
+        awaitEmpty(log);
+        assertTrue(log.append(order("o3")));
+        log.destroy();
+    }
+
+    @Test
+    void testPendingOrderVisibleUntilDrained() throws Exception {
+        AtomicBoolean databaseUp = new AtomicBoolean(false);
+        OrderWriteAheadLog log = newLog();
+        log.start(order -> {
+            if (!databaseUp.get()) {
+                throw new DataAccessResourceFailureException("database down");
+            }
+        });
+
+        log.append(order("o1"));
+        Thread.sleep(100);
+        assertNotNull(log.pending("o1"));
+
+        databaseUp.set(true);
+        awaitEmpty(log);
+        assertNull(log.pending("o1"));
+        log.destroy();
+    }
+
+    @Test
+    void testRestartReplaysOnlyUndrainedOrders() throws Exception {
+        OrderWriteAheadLog first = newLog();
+        List<Order> stored = new CopyOnWriteArrayList<>();
+        first.start(stored::add);
+        first.append(order("drained"));
+        awaitEmpty(first);
+        first.destroy();
+
+        OrderWriteAheadLog second = newLog();
+        second.start(order -> {
+            throw new DataAccessResourceFailureException("database down");
+        });
+        second.append(order("stuck"));
+        second.destroy();
+
+        List<Order> replayed = new CopyOnWriteArrayList<>();
+        OrderWriteAheadLog third = newLog();
+        third.start(replayed::add);
+        awaitEmpty(third);
+        third.destroy();
+
+        assertEquals(List.of("stuck"), replayed.stream().map(Order::getId).toList());
+    }
+
+    @Test
+    void testPermanentFailureIsDeadLetteredAndDrainMovesOn() throws Exception {
+        List<Order> stored = new CopyOnWriteArrayList<>();
+        OrderWriteAheadLog log = newLog();
+        log.start(order -> {
+            if (order.getId().equals("bad")) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            stored.add(order);
+        });
+
+        log.append(order("bad"));
+        log.append(order("good"));
+        awaitEmpty(log);
+        log.destroy();
+
+        assertEquals(List.of("good"), stored.stream().map(Order::getId).toList());
+        assertEquals(List.of("bad"), log.deadLetters().stream().map(Order::getId).toList());
+    }
+
+    @Test
+    void testTransientFailureIsDeadLetteredAfterMaxAttempts() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        OrderWriteAheadLog log = newLog();
+        log.start(order -> {
+            attempts.incrementAndGet();
+            throw new DataAccessResourceFailureException("database down");
+        });
+
+        log.append(order("o1"));
+        awaitEmpty(log);
+        log.destroy();
+
+        assertEquals(5, attempts.get());
+        assertNull(log.pending("o1"));
+
+        // Dead-lettered orders survive a restart but are not delivered again
+        List<Order> replayed = new CopyOnWriteArrayList<>();
+        OrderWriteAheadLog restarted = newLog();
+        restarted.start(replayed::add);
+        Thread.sleep(100);
+        restarted.destroy();
+
+        assertTrue(replayed.isEmpty());
+        assertEquals(List.of("o1"), restarted.deadLetters().stream().map(Order::getId).toList());
+    }
+}
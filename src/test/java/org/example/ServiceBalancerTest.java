@@ -0,0 +1,200 @@
+package org.example;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import org.example.discovery.BalancedChannel;
+import org.example.discovery.ServiceBalancer;
+import org.example.discovery.ServiceBalancers;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryProperties;
+import proto.Fulfillment;
+import proto.FulfillmentServiceGrpc;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ServiceBalancerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private static DefaultServiceInstance instance(String serviceId, int port) {
+        return new DefaultServiceInstance(serviceId + "-" + port, serviceId, "localhost", port, false);
+    }
+
+    // Registered like a Spring Boot service: the HTTP port, with the gRPC port in metadata
+    private static DefaultServiceInstance grpcInstance(String serviceId, int httpPort, int grpcPort) {
+        return new DefaultServiceInstance(serviceId + "-" + httpPort, serviceId, "localhost", httpPort, false,
+                Map.of("gRPC_port", String.valueOf(grpcPort)));
+    }
+
+    private ServiceBalancer balancerOf(int... ports) {
+        ServiceBalancer balancer = new ServiceBalancer("catalog-service", 3, 10_000, clock::get);
+        List<ServiceInstance> instances = new ArrayList<>();
+        for (int port : ports) {
+            instances.add(instance("catalog-service", port));
+        }
+        balancer.update(instances);
+        return balancer;
+    }
+
+    private static int picks(ServiceBalancer balancer, ServiceBalancer.Endpoint endpoint) {
+        int picks = 0;
+        for (int i = 0; i < 200; i++) {
+            if (balancer.choose() == endpoint) {
+                picks++;
+            }
+        }
+        return picks;
+    }
+
+    @Test
+    void testBusyInstanceGetsLessTraffic() {
+        ServiceBalancer balancer = balancerOf(8081, 8082);
+        ServiceBalancer.Endpoint busy = balancer.endpoints().get(0);
+        for (int i = 0; i < 10; i++) {
+            busy.started();
+        }
+
+        // Picked only when both choices land on it, about a quarter of the time
+        assertTrue(picks(balancer, busy) < 100);
+    }
+
+    @Test
+    void testSlowInstanceGetsLessTraffic() {
+        ServiceBalancer balancer = balancerOf(8081, 8082);
+        ServiceBalancer.Endpoint slow = balancer.endpoints().get(0);
+        ServiceBalancer.Endpoint fast = balancer.endpoints().get(1);
+        slow.started();
+        slow.succeeded(TimeUnit.MILLISECONDS.toNanos(50));
+        fast.started();
+        fast.succeeded(TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertTrue(picks(balancer, slow) < 100);
+    }
+
+    @Test
+    void testFastFailuresDoNotAttractTraffic() {
+        ServiceBalancer balancer = balancerOf(8081, 8082);
+        ServiceBalancer.Endpoint failing = balancer.endpoints().get(0);
+        ServiceBalancer.Endpoint healthy = balancer.endpoints().get(1);
+        failing.started();
+        failing.succeeded(TimeUnit.MILLISECONDS.toNanos(10));
+        healthy.started();
+        healthy.succeeded(TimeUnit.MILLISECONDS.toNanos(10));
+        // Failing at once, but not often enough in a row to be ejected
+        for (int i = 0; i < 2; i++) {
+            failing.started();
+            failing.failed(1_000);
+        }
+
+        assertTrue(picks(balancer, failing) < 100);
+    }
+
+    @Test
+    void testFailingInstanceIsEjectedThenRetried() {
+        ServiceBalancer balancer = balancerOf(8081, 8082);
+        ServiceBalancer.Endpoint failing = balancer.endpoints().get(0);
+        for (int i = 0; i < 3; i++) {
+            failing.started();
+            failing.failed(1_000);
+        }
+
+        assertEquals(0, picks(balancer, failing));
+
+        clock.addAndGet(10_001);
+        assertTrue(picks(balancer, failing) > 0);
+    }
+
+    @Test
+    void testRegistryUpdateKeepsStatsOfRemainingInstances() {
+        ServiceBalancer balancer = balancerOf(8081, 8082);
+        ServiceBalancer.Endpoint remaining = balancer.endpoints().get(1);
+        remaining.started();
+
+        balancer.update(List.of(instance("catalog-service", 8082)));
+        assertSame(remaining, balancer.choose());
+        assertEquals(1, remaining.outstanding());
+
+        balancer.update(List.of());
+        assertNull(balancer.choose());
+    }
+
+    @Test
+    void testResolveKeepsPathAndQuery() {
+        ServiceBalancer.Endpoint endpoint = balancerOf(9000).choose();
+
+        assertEquals(URI.create("http://localhost:9000/items/a%20b?x=1"),
+                endpoint.resolve(URI.create("http://localhost:8081/items/a%20b?x=1")));
+    }
+
+    private static Server fulfillment(AtomicInteger calls) throws Exception {
+        return Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                .addService(new FulfillmentServiceGrpc.FulfillmentServiceImplBase() {
+                    @Override
+                    public void getOrderStatus(Fulfillment.GetOrderStatusRequest request,
+                                               StreamObserver<Fulfillment.GetOrderStatusResponse> responseObserver) {
+                        calls.incrementAndGet();
+                        responseObserver.onNext(Fulfillment.GetOrderStatusResponse.newBuilder().setStatus("Pending").build());
+                        responseObserver.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+    }
+
+    @Test
+    void testGrpcCallsSpreadAcrossRegistryAndAvoidStoppedInstance() throws Exception {
+        AtomicInteger firstCalls = new AtomicInteger();
+        AtomicInteger secondCalls = new AtomicInteger();
+        Server first = fulfillment(firstCalls);
+        Server second = fulfillment(secondCalls);
+        // The in-memory registry stands in for Eureka
+        SimpleDiscoveryProperties registry = new SimpleDiscoveryProperties();
+        registry.setInstances(Map.of("fulfillment-service", List.of(
+                grpcInstance("fulfillment-service", 8080, first.getPort()),
+                grpcInstance("fulfillment-service", 8081, second.getPort()))));
+        ServiceBalancers balancers = new ServiceBalancers(new SimpleDiscoveryClient(registry), true, 3, 60_000);
+        BalancedChannel channel = new BalancedChannel(balancers.forService("fulfillment-service"), mock(ManagedChannel.class),
+                "gRPC_port", 50051);
+        FulfillmentServiceGrpc.FulfillmentServiceBlockingStub stub = FulfillmentServiceGrpc.newBlockingStub(channel);
+        Fulfillment.GetOrderStatusRequest request = Fulfillment.GetOrderStatusRequest.newBuilder().setOrderId("o1").build();
+        try {
+            for (int i = 0; i < 100; i++) {
+                stub.withDeadlineAfter(5, TimeUnit.SECONDS).getOrderStatus(request);
+            }
+            assertTrue(firstCalls.get() > 0);
+            assertTrue(secondCalls.get() > 0);
+
+            second.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            int failures = 0;
+            for (int i = 0; i < 50; i++) {
+                try {
+                    stub.withDeadlineAfter(5, TimeUnit.SECONDS).getOrderStatus(request);
+                } catch (StatusRuntimeException e) {
+                    failures++;
+                }
+            }
+            // Ejected after three consecutive failures
+            assertTrue(failures <= 3);
+        } finally {
+            channel.shutdown();
+            first.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            second.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.example;
+
+import org.example.dto.ApiResponse;
+import org.example.dto.OrderResponse;
+import org.example.models.Order;
+import org.example.models.OrderStatus;
+import org.example.models.User;
+import org.example.repositories.OrderRepository;
+import org.example.repositories.UserRepository;
+import org.example.services.OrderService;
+import org.example.services.UserService;
+import org.example.sharding.OrderShards;
+import org.example.sharding.ShardRebalancer;
+import org.example.sharding.ShardRoutingDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads orders, including their lazily mapped items, through a two-shard context.
+ * Multi-shard reads run on scatter threads, so items must be loaded there.
+ */
+class ShardedOrderReadsTest {
+
+    private static ConfigurableApplicationContext context;
+    private static final List<Order> orders = new ArrayList<>();
+
+    @BeforeAll
+    static void setUp() {
+        context = new SpringApplicationBuilder(OrderServiceApplication.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "eureka.client.enabled=false",
+                        "order.archive.enabled=false",
+                        "spring.jpa.open-in-view=false",
+                        "order.sharding.enabled=true",
+                        "order.sharding.urls=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1",
+                        "order.sharding.pool-size=2")
+                .run();
+        OrderShards shards = context.getBean(OrderShards.class);
+        UserRepository users = context.getBean(UserRepository.class);
+        OrderRepository orderRepository = context.getBean(OrderRepository.class);
+
+        boolean[] covered = new boolean[shards.count()];
+        for (int i = 0; orders.size() < shards.count(); i++) {
+            User user = users.save(User.builder().username("sharded-" + i).password("secret").build());
+            int shard = shards.shardFor(user.getId());
+            if (covered[shard]) {
+                continue;
+            }
+            covered[shard] = true;
+            Order order = Order.builder()
+                    .userId(user.getId())
+                    .items(List.of("item-" + i, "item-" + i + "-side"))
+                    .totalPrice(new BigDecimal("12.50"))
+                    .currency("USD")
+                    // Closed, so reads do not call fulfillment
+                    .status(OrderStatus.DELIVERED)
+                    .build();
+            orders.add(shards.forUser(user.getId(), () -> orderRepository.save(order)));
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    void testGetOrderById_ReadsItemsFromEitherShard() {
+        OrderService orderService = context.getBean(OrderService.class);
+
+        for (Order order : orders) {
+            OrderResponse response = (OrderResponse) orderService.getOrderById(order.getId()).getBody().getData().get("order");
+
+            assertEquals(order.getItems(), response.getItems());
+        }
+    }
+
+    @Test
+    void testGetAllOrders_ReadsItemsFromAllShards() {
+        ApiResponse body = context.getBean(OrderService.class).getAllOrders().getBody();
+
+        List<?> responses = (List<?>) body.getData().get("orders");
+        assertEquals(orders.size(), responses.size());
+        for (Object response : responses) {
+            assertEquals(2, ((OrderResponse) response).getItems().size());
+        }
+    }
+
+    @Test
+    void testUserOrders_ReadFromTheUsersShard() {
+        UserService userService = context.getBean(UserService.class);
+
+        for (Order order : orders) {
+            List<?> responses = (List<?>) userService.getOrdersByUserId(order.getUserId()).getBody().getData().get("orders");
+
+            assertEquals(1, responses.size());
+            assertEquals(order.getItems(), ((OrderResponse) responses.get(0)).getItems());
+        }
+    }
+
+    @Test
+    void testRebalance_MovesArchivedOrdersToTheUsersShard() {
+        OrderShards shards = context.getBean(OrderShards.class);
+        ShardRoutingDataSource dataSource = context.getBean(ShardRoutingDataSource.class);
+        User user = context.getBean(UserRepository.class).save(User.builder().username("archived-owner").password("secret").build());
+        int wrongShard = (shards.shardFor(user.getId()) + 1) % shards.count();
+        JdbcTemplate wrong = new JdbcTemplate(dataSource.getResolvedDataSources().get(wrongShard));
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now().minusDays(120));
+        wrong.update("insert into orders_archive (id, user_id, total_price, currency, status, created_at, version, archived_at)"
+                        + " values (?, ?, ?, ?, ?, ?, ?, ?)",
+                "archived-1", user.getId(), new BigDecimal("9.00"), "USD", OrderStatus.DELIVERED.getCode(), createdAt, 0L,
+                Timestamp.valueOf(LocalDateTime.now()));
+        wrong.update("insert into order_items_archive (order_id, items) values (?, ?)", "archived-1", "item-archived");
+
+        new ShardRebalancer(shards, dataSource).rebalance(100);
+
+        List<?> responses = (List<?>) context.getBean(UserService.class)
+                .getOrdersByUserId(user.getId(), true).getBody().getData().get("orders");
+        assertEquals(1, responses.size());
+        assertEquals(List.of("item-archived"), ((OrderResponse) responses.get(0)).getItems());
+        assertEquals(0, wrong.queryForObject("select count(*) from orders_archive where id = ?", Integer.class, "archived-1"));
+    }
+}
@@ -0,0 +1,37 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.springdoc.webmvc.api.OpenApiWebMvcResource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupTimeTest {
+
+    // Generous for shared CI runners; tighten locally with -Dorder.startup.budget-ms
+    private static final long BUDGET_MS = Long.getLong("order.startup.budget-ms", 20_000L);
+
+    @Test
+    void testFastStartProfileStartsWithinBudget() {
+        long started = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(OrderServiceApplication.class)
+                .profiles("test", "fast-start")
+                .properties("server.port=0",
+                        "eureka.client.enabled=false",
+                        "spring.liquibase.enabled=false",
+                        "order.archive.enabled=false")
+                .run()) {
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+            assertTrue(elapsedMs < BUDGET_MS, "Started in " + elapsedMs + " ms, budget is " + BUDGET_MS + " ms");
+            // Lazy: beans nothing needs at boot are only defined, not created
+            assertFalse(context.getBeanFactory().containsSingleton("catalogEventsController"));
+            // Except those StartupConfig keeps eager because they start work at boot
+            assertTrue(context.getBeanFactory().containsSingleton("orderWriteAheadLog"));
+            assertEquals(0, context.getBeanNamesForType(OpenApiWebMvcResource.class).length, "API docs are disabled");
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.example;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.stub.StreamObserver;
+import org.example.services.StatusReadHedger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import proto.Fulfillment;
+import proto.FulfillmentServiceGrpc;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusReadHedgerTest {
+
+    private final AtomicInteger slowCalls = new AtomicInteger();
+    private final CountDownLatch releaseSlow = new CountDownLatch(1);
+    private final Set<String> tailSeen = ConcurrentHashMap.newKeySet();
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                .addService(new FulfillmentServiceGrpc.FulfillmentServiceImplBase() {
+                    @Override
+                    public void getOrderStatus(Fulfillment.GetOrderStatusRequest request,
+                                               StreamObserver<Fulfillment.GetOrderStatusResponse> responseObserver) {
+                        // The first call for "slow" stalls, as if it landed on a struggling replica
+                        if (request.getOrderId().equals("slow") && slowCalls.getAndIncrement() == 0) {
+                            try {
+                                releaseSlow.await(5, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                        // So does the first call for each "tail" order, for a shorter time
+                        if (request.getOrderId().startsWith("tail") && tailSeen.add(request.getOrderId())) {
+                            try {
+                                Thread.sleep(150);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                        responseObserver.onNext(Fulfillment.GetOrderStatusResponse.newBuilder().setStatus("Pending").build());
+                        responseObserver.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+        channel = Grpc.newChannelBuilderForAddress("localhost", server.getPort(), InsecureChannelCredentials.create()).build();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        releaseSlow.countDown();
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static Fulfillment.GetOrderStatusRequest request(String orderId) {
+        return Fulfillment.GetOrderStatusRequest.newBuilder().setOrderId(orderId).build();
+    }
+
+    private void warmUp(StatusReadHedger hedger) {
+        // Enough samples to leave warm-up and to earn hedges at 5%
+        for (int i = 0; i < 200; i++) {
+            assertEquals("Pending", hedger.getOrderStatus(request("o" + i)).getStatus());
+        }
+    }
+
+    @Test
+    void testSlowReadIsAnsweredByHedge() {
+        StatusReadHedger hedger = new StatusReadHedger(channel, true, 5000, 100, 5, 10);
+        warmUp(hedger);
+        long hedgesBefore = hedger.hedges();
+
+        long start = System.nanoTime();
+        assertEquals("Pending", hedger.getOrderStatus(request("slow")).getStatus());
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(hedgesBefore + 1, hedger.hedges());
+        assertEquals(2, slowCalls.get());
+    }
+
+    @Test
+    void testNoHedgeWithoutBudget() {
+        StatusReadHedger hedger = new StatusReadHedger(channel, true, 5000, 100, 0, 10);
+        warmUp(hedger);
+
+        new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            releaseSlow.countDown();
+        }).start();
+        assertEquals("Pending", hedger.getOrderStatus(request("slow")).getStatus());
+
+        assertEquals(0, hedger.hedges());
+        assertEquals(1, slowCalls.get());
+    }
+
+    @Test
+    void testFirstCallsThatLoseToHedgesStayInTheLatencyWindow() {
+        long minDelay = TimeUnit.MILLISECONDS.toNanos(50);
+        StatusReadHedger hedger = new StatusReadHedger(channel, true, 5000, 50, 100, 10);
+        // Fast reads up to a recompute, which settles on the minimum delay
+        for (int i = 0; i < 192; i++) {
+            hedger.getOrderStatus(request("o" + i));
+        }
+        assertEquals(minDelay, hedger.hedgeDelayNanos());
+
+        // A quarter of the next window is slow first calls, each beaten by its hedge
+        for (int i = 0; i < 64; i++) {
+            assertEquals("Pending", hedger.getOrderStatus(request("tail" + i)).getStatus());
+        }
+
+        assertEquals(64, hedger.hedges());
+        // Sampling only the winning hedges would have left the fast p95, and so the minimum
+        assertTrue(hedger.hedgeDelayNanos() > minDelay);
+    }
+}
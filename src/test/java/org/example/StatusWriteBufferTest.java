@@ -0,0 +1,247 @@
+package org.example;
+
+import org.example.dto.OrderState;
+import org.example.exceptions.OrderNotFoundException;
+import org.example.exceptions.OrderStatusConflictException;
+import org.example.models.OrderStatus;
+import org.example.repositories.OrderRepository;
+import org.example.services.OrderRollupService;
+import org.example.services.StatusWriteBuffer;
+import org.example.sharding.OrderShards;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class StatusWriteBufferTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 1, 10, 42);
+
+    @TempDir
+    Path journalDir;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderRollupService orderRollupService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private StatusWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        buffer = newBuffer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.destroy();
+    }
+
+    private static OrderState state(OrderStatus status) {
+        return new OrderState(status, CREATED_AT);
+    }
+
+    private StatusWriteBuffer newBuffer() {
+        // Long interval and batch so only explicit flushes write
+        return new StatusWriteBuffer(orderRepository, orderRollupService, OrderShards.single(), transactionTemplate,
+                true, journalDir.toString(), 10_000, 3_600_000);
+    }
+
+    @Test
+    void testSubmit_BuffersValidTransitionWithoutWriting() {
+        when(orderRepository.findStateById("o1")).thenReturn(Optional.of(state(OrderStatus.PENDING)));
+        Runnable beforeAccept = mock(Runnable.class);
+
+        buffer.submit("o1", OrderStatus.SHIPPED, beforeAccept);
+        buffer.submit("o1", OrderStatus.DELIVERED, beforeAccept);
+
+        assertEquals(OrderStatus.DELIVERED, buffer.pendingStatus("o1"));
+        verify(beforeAccept, times(2)).run();
+        verify(orderRepository, times(1)).findStateById("o1");
+        verify(orderRepository, never()).transitionStatuses(any(), any(), any());
+    }
+
+    @Test
+    void testSubmit_ChecksTransitionAgainstBufferedStatus() {
+        when(orderRepository.findStateById("o1")).thenReturn(Optional.of(state(OrderStatus.PENDING)));
+        buffer.submit("o1", OrderStatus.DELIVERED, () -> { });
+        Runnable beforeAccept = mock(Runnable.class);
+
+        assertThrows(OrderStatusConflictException.class, () -> buffer.submit("o1", OrderStatus.CANCELLED, beforeAccept));
+        verify(beforeAccept, never()).run();
+        assertEquals(OrderStatus.DELIVERED, buffer.pendingStatus("o1"));
+    }
+
+    @Test
+    void testSubmit_UnknownOrder() {
+        when(orderRepository.findStateById("missing")).thenReturn(Optional.empty());
+
+        assertThrows(OrderNotFoundException.class, () -> buffer.submit("missing", OrderStatus.SHIPPED, () -> { }));
+        assertNull(buffer.pendingStatus("missing"));
+    }
+
+    @Test
+    void testSubmit_FailedCallbackBuffersNothing() {
+        when(orderRepository.findStateById("o1")).thenReturn(Optional.of(state(OrderStatus.PENDING)));
+
+        assertThrows(IllegalStateException.class, () -> buffer.submit("o1", OrderStatus.SHIPPED, () -> {
+            throw new IllegalStateException("fulfillment down");
+        }));
+        assertNull(buffer.pendingStatus("o1"));
+    }
+
+    @Test
+    void testFlush_GroupsOrdersIntoOneUpdatePerTransition() {
+        when(orderRepository.findStateById(any())).thenReturn(Optional.of(state(OrderStatus.PENDING)));
+        when(orderRepository.transitionStatuses(any(), any(), any())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+        buffer.submit("o1", OrderStatus.SHIPPED, () -> { });
+        buffer.submit("o2", OrderStatus.SHIPPED, () -> { });
+        buffer.submit("o3", OrderStatus.CANCELLED, () -> { });
+
+        buffer.flush();
+
+        verify(orderRepository).transitionStatuses(argThat(ids -> ids.size() == 2), eq(OrderStatus.PENDING), eq(OrderStatus.SHIPPED));
+        verify(orderRepository).transitionStatuses(eq(List.of("o3")), eq(OrderStatus.PENDING), eq(OrderStatus.CANCELLED));
+        verify(orderRollupService).recordStatusChanges(OrderStatus.PENDING, OrderStatus.SHIPPED, LocalDateTime.of(2024, 3, 1, 10, 0), 2);
+        assertNull(buffer.pendingStatus("o1"));
+    }
+
+    @Test
+    void testRestart_ReplaysUnflushedTransitions() {
+        when(orderRepository.findStateById("o1")).thenReturn(Optional.of(state(OrderStatus.PENDING)));
+        buffer.submit("o1", OrderStatus.SHIPPED, () -> { });
+        buffer.submit("o1", OrderStatus.DELIVERED, () -> { });
+        // Simulate a crash: the buffer is dropped without flushing
+        doThrow(new IllegalStateException("database down")).when(transactionTemplate).executeWithoutResult(any());
+        buffer.destroy();
+        reset(transactionTemplate);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        buffer = newBuffer();
+        buffer.recover();
+
+        verify(orderRepository).transitionStatuses(List.of("o1"), OrderStatus.PENDING, OrderStatus.DELIVERED);
+        assertNull(buffer.pendingStatus("o1"));
+    }
+
+    @Test
+    void testRestart_SkipsTransitionsAlreadyFlushed() {
+        // The mock keeps reporting the old status, so only the journal can tell it was written
+        when(orderRepository.findStateById("o1")).thenReturn(Optional.of(state(OrderStatus.PENDING)));
+        when(orderRepository.transitionStatuses(any(), any(), any())).thenReturn(1);
+        buffer.submit("o1", OrderStatus.SHIPPED, () -> { });
+        buffer.flush();
+        buffer.destroy();
+
+        buffer = newBuffer();
+        buffer.recover();
+
+        verify(orderRepository, times(1)).transitionStatuses(any(), any(), any());
+        assertNull(buffer.pendingStatus("o1"));
+    }
+
+    @Test
+    void testFlush_ReusesTheCurrentJournalSegment() throws Exception {
+        when(orderRepository.findStateById(any())).thenReturn(Optional.of(state(OrderStatus.PENDING)));
+        when(orderRepository.transitionStatuses(any(), any(), any())).thenReturn(1);
+        buffer.submit("o1", OrderStatus.SHIPPED, () -> { });
+        buffer.flush();
+        long segments;
+        try (var files = Files.list(journalDir)) {
+            segments = files.count();
+        }
+
+        for (int i = 0; i < 5; i++) {
+            buffer.submit("o" + (i + 2), OrderStatus.SHIPPED, () -> { });
+            buffer.flush();
+        }
+
+        try (var files = Files.list(journalDir)) {
+            assertEquals(segments, files.count());
+        }
+    }
+
+    @Test
+    void testFlush_CountsChangesTheDatabaseRejected() {
+        when(orderRepository.findStateById("o1")).thenReturn(Optional.of(state(OrderStatus.PENDING)));
+        when(orderRepository.transitionStatuses(any(), any(), any())).thenReturn(0);
+        buffer.submit("o1", OrderStatus.SHIPPED, () -> { });
+
+        buffer.flush();
+
+        assertEquals(1, buffer.droppedUpdates());
+        assertNull(buffer.pendingStatus("o1"));
+    }
+
+    @Test
+    void testFlush_RebasesChangesAcceptedWhileWriting() {
+        when(orderRepository.findStateById("o1")).thenReturn(Optional.of(state(OrderStatus.PENDING)));
+        buffer.submit("o1", OrderStatus.SHIPPED, () -> { });
+        when(orderRepository.transitionStatuses(any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    // Accepted after the row moved to SHIPPED but before the flush finished
+                    buffer.submit("o1", OrderStatus.DELIVERED, () -> { });
+                    return 1;
+                })
+                .thenReturn(1);
+
+        buffer.flush();
+        assertEquals(OrderStatus.DELIVERED, buffer.pendingStatus("o1"));
+        buffer.flush();
+
+        verify(orderRepository).transitionStatuses(List.of("o1"), OrderStatus.SHIPPED, OrderStatus.DELIVERED);
+        assertEquals(0, buffer.droppedUpdates());
+        assertNull(buffer.pendingStatus("o1"));
+    }
+
+    @Test
+    void testSubmit_CallbackRunsWithoutHoldingTheOrderLock() {
+        when(orderRepository.findStateById("o1")).thenReturn(Optional.of(state(OrderStatus.PENDING)));
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            assertThrows(OrderStatusConflictException.class, () -> buffer.submit("o1", OrderStatus.SHIPPED, () -> {
+                try {
+                    // Would deadlock if the lock were held across the callback
+                    other.submit(() -> buffer.submit("o1", OrderStatus.CANCELLED, () -> { })).get(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        } finally {
+            other.shutdown();
+        }
+
+        assertEquals(OrderStatus.CANCELLED, buffer.pendingStatus("o1"));
+    }
+}
@@ -3,6 +3,7 @@ package org.example;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.controllers.UserController;
 import org.example.dto.ApiResponse;
+import org.example.dto.OrderHistoryQuery;
 import org.example.dto.UserRequest;
 import org.example.exceptions.GlobalExceptionHandler;
 import org.example.exceptions.InvalidUsernameAndPasswordException;
@@ -11,6 +12,7 @@ import org.example.models.User;
 import org.example.services.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -21,6 +23,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -28,6 +31,7 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -158,7 +162,7 @@ class UserControllerTest {
                 .data(Map.of("orders", orders))
                 .build();
 
-        when(userService.getOrdersByUserId(userId)).thenReturn(ResponseEntity.ok(response));
+        when(userService.getOrdersByUserId(userId, false)).thenReturn(ResponseEntity.ok(response));
 
         mockMvc.perform(get("/users/{userId}/orders/{orderId}", userId, "order123"))
                 .andExpect(status().isOk());
@@ -170,7 +174,7 @@ class UserControllerTest {
     void testGetOrdersByUserId_UserNotFound() throws Exception {
         String userId = "user123";
 
-        when(userService.getOrdersByUserId(userId)).thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        when(userService.getOrdersByUserId(userId, false)).thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
 
         mockMvc.perform(get("/users/{userId}/orders/{orderId}", userId, "order123"))
                 .andExpect(status().isNotFound());
@@ -266,4 +270,26 @@ class UserControllerTest {
         verify(userService, never()).createUser(any(UserRequest.class));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetOrderHistory_PassesFiltersToService() throws Exception {
+        when(userService.getOrderHistory(eq("user123"), any(OrderHistoryQuery.class))).thenReturn(ResponseEntity.ok(ApiResponse.builder()
+                .message("Fetched successfully")
+                .status(HttpStatus.OK)
+                .data(Map.of("orders", List.of(), "nextCursor", "abc"))
+                .build()));
+
+        mockMvc.perform(get("/users/user123/orders")
+                        .param("status", "Pending")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.nextCursor", is("abc")));
+
+        ArgumentCaptor<OrderHistoryQuery> captor = ArgumentCaptor.forClass(OrderHistoryQuery.class);
+        verify(userService).getOrderHistory(eq("user123"), captor.capture());
+        assertEquals("Pending", captor.getValue().getStatus());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0), captor.getValue().getFrom());
+        assertEquals(10, captor.getValue().getLimit());
+    }
+}
@@ -1,19 +1,24 @@
 package org.example;
 
 import org.example.dto.ApiResponse;
+import org.example.dto.OrderResponse;
 import org.example.dto.UserRequest;
 import org.example.dto.UserResponse;
 import org.example.exceptions.InvalidUsernameAndPasswordException;
+import org.example.models.ArchivedOrder;
 import org.example.models.Order;
 import org.example.models.User;
+import org.example.repositories.ArchivedOrderRepository;
 import org.example.repositories.OrderRepository;
 import org.example.repositories.UserRepository;
 import org.example.services.UserService;
+import org.example.sharding.OrderShards;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.server.ResponseStatusException;
@@ -33,6 +38,12 @@ class UserServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Spy
+    private OrderShards orderShards = OrderShards.single();
+
     @InjectMocks
     private UserService userService;
 
@@ -177,7 +188,8 @@ class UserServiceTest {
         String userId = "user123";
         User user = new User();
         user.setId(userId);
-        List<Order> orders = List.of(new Order(), new Order());
+        Order order = Order.builder().id("order1").userId(userId).build();
+        List<Order> orders = List.of(order, new Order());
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(orderRepository.findAllByUserId(userId)).thenReturn(orders);
@@ -186,10 +198,28 @@ class UserServiceTest {
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Fetched successfully", response.getBody().getMessage());
-        assertEquals(orders, response.getBody().getData().get("orders"));
+        List<OrderResponse> responses = (List<OrderResponse>) response.getBody().getData().get("orders");
+        assertEquals(2, responses.size());
+        assertEquals("order1", responses.get(0).getId());
 
         verify(userRepository, times(1)).findById(userId);
         verify(orderRepository, times(1)).findAllByUserId(userId);
+        verify(archivedOrderRepository, never()).findAllByUserId(any());
+    }
+
+    @Test
+    void testGetOrdersByUserId_IncludeArchived() {
+        String userId = "user123";
+        User user = new User();
+        user.setId(userId);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(orderRepository.findAllByUserId(userId)).thenReturn(List.of(Order.builder().id("order1").userId(userId).build()));
+        when(archivedOrderRepository.findAllByUserId(userId)).thenReturn(List.of(ArchivedOrder.builder().id("order0").userId(userId).build()));
+
+        List<OrderResponse> responses = (List<OrderResponse>) userService.getOrdersByUserId(userId, true).getBody().getData().get("orders");
+
+        assertEquals(List.of("order1", "order0"), responses.stream().map(OrderResponse::getId).toList());
     }
 
     @Test